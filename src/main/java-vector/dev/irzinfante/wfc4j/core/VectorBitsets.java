@@ -0,0 +1,102 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Operations of {@link Bitsets} written with the Vector API, so each instruction combines as many words as fit in a
+ * vector register of the platform. This class is only compiled with the {@code vector} Maven profile, and
+ * {@link Bitsets#VECTOR} only loads it when the {@code jdk.incubator.vector} module is available
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class VectorBitsets implements BitsetOperations {
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	VectorBitsets() {}
+
+	@Override
+	public boolean equals(long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var word = 0;
+		for(; word < SPECIES.loopBound(words); word += SPECIES.length()) {
+			var aVector = LongVector.fromArray(SPECIES, a, aOffset + word);
+			if(aVector.compare(VectorOperators.NE, LongVector.fromArray(SPECIES, b, bOffset + word)).anyTrue()) {
+				return false;
+			}
+		}
+		for(; word < words; word++) {
+			if(a[aOffset + word] != b[bOffset + word]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean and(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var bitsVector = LongVector.zero(SPECIES);
+		var word = 0;
+		for(; word < SPECIES.loopBound(words); word += SPECIES.length()) {
+			var vector = LongVector.fromArray(SPECIES, a, aOffset + word).and(LongVector.fromArray(SPECIES, b, bOffset + word));
+			vector.intoArray(target, targetOffset + word);
+			bitsVector = bitsVector.or(vector);
+		}
+		var bits = bitsVector.reduceLanes(VectorOperators.OR);
+		for(; word < words; word++) {
+			bits |= target[targetOffset + word] = a[aOffset + word] & b[bOffset + word];
+		}
+		return bits != 0;
+	}
+
+	@Override
+	public boolean andNot(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var bitsVector = LongVector.zero(SPECIES);
+		var word = 0;
+		for(; word < SPECIES.loopBound(words); word += SPECIES.length()) {
+			var vector = LongVector.fromArray(SPECIES, a, aOffset + word)
+				.lanewise(VectorOperators.AND_NOT, LongVector.fromArray(SPECIES, b, bOffset + word));
+			vector.intoArray(target, targetOffset + word);
+			bitsVector = bitsVector.or(vector);
+		}
+		var bits = bitsVector.reduceLanes(VectorOperators.OR);
+		for(; word < words; word++) {
+			bits |= target[targetOffset + word] = a[aOffset + word] & ~b[bOffset + word];
+		}
+		return bits != 0;
+	}
+
+	@Override
+	public void or(long[] target, int targetOffset, long[] set, int offset, int words) {
+		var word = 0;
+		for(; word < SPECIES.loopBound(words); word += SPECIES.length()) {
+			LongVector.fromArray(SPECIES, target, targetOffset + word)
+				.or(LongVector.fromArray(SPECIES, set, offset + word))
+				.intoArray(target, targetOffset + word);
+		}
+		for(; word < words; word++) {
+			target[targetOffset + word] |= set[offset + word];
+		}
+	}
+}
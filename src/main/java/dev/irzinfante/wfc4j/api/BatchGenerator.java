@@ -0,0 +1,273 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import dev.irzinfante.wfc4j.core.AbstractWFC;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Generates many grids of the same kind, each one from its own seed and initial entropy. A fixed number of workers,
+ * as many as cores by default, run on virtual threads and take the jobs one after another, each worker reusing a
+ * single solver that is reset before every job, so the arrays of the state of the grid, the indices of the cells and
+ * the support counters are only allocated once per worker. As long as the factory sets up every solver the same way
+ * whatever its index, the grid of each job only depends on its seed and initial entropy, not on the worker that
+ * generates it. A factory that gives each index its own strategy, as for a {@link PortfolioSolver}, makes the grids
+ * depend on which worker takes each job too
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class BatchGenerator<W extends AbstractWFC, R> {
+
+	/**
+	 * Puts a reused solver in the initial state of a job
+	 */
+	@FunctionalInterface
+	public interface Initializer<W extends AbstractWFC> {
+
+		/**
+		 * Resets the solver for the job, e.g. {@code solver -> solver.reset(initialEntropy)}
+		 * 
+		 * @param	solver The solver of the worker running the job
+		 * @throws	TileException If the initial entropy has no tiles or tiles not existing in tilemap
+		 * @throws	DimensionException If the initial entropy is set for cells outside the grid
+		 */
+		void initialize(W solver) throws TileException, DimensionException;
+	}
+
+	/**
+	 * Receives the result of each job as soon as it is generated, from the thread of the worker that generated it
+	 */
+	@FunctionalInterface
+	public interface Listener<R> {
+
+		/**
+		 * Receives the result of a job
+		 * 
+		 * @param	index Position of the job among the jobs of the batch
+		 * @param	outcome How the run of the job ended
+		 * @param	result Result extracted from the solver, or null if the job was not solved
+		 */
+		void accept(long index, SolveOutcome outcome, R result);
+	}
+
+	/**
+	 * Seed and initial entropy of a grid to generate
+	 */
+	final public static class Job<W extends AbstractWFC> {
+
+		private final long seed;
+		private final Initializer<W> initializer;
+
+		/**
+		 * Creates a job for a grid without initial entropy
+		 * 
+		 * @param	seed The seed of the random generator of the run
+		 */
+		public Job(long seed) {
+			this(seed, null);
+		}
+
+		/**
+		 * Creates a job for a grid with initial entropy
+		 * 
+		 * @param	seed The seed of the random generator of the run
+		 * @param	initializer Resets the solver with the initial entropy of the grid
+		 */
+		public Job(long seed, Initializer<W> initializer) {
+			this.seed = seed;
+			this.initializer = initializer;
+		}
+
+		public long getSeed() {
+			return this.seed;
+		}
+
+		public Initializer<W> getInitializer() {
+			return this.initializer;
+		}
+	}
+
+	private final SolverFactory<W> factory;
+	private final Function<? super W, ? extends R> extractor;
+	private final int workers;
+	private SolveBudget budget;
+
+	/**
+	 * Creates a generator with as many workers as cores
+	 * 
+	 * @param	factory Creates the solver of each worker, all of them for grids of the same kind and usually with the
+	 * 			same settings, so the grids don't depend on the workers
+	 * @param	extractor Extracts the result from a solved solver, e.g. {@code WFC -> WFC.getGrid()}. The solver is reused
+	 * 			afterwards, so the result must not be a view of its state
+	 */
+	public BatchGenerator(SolverFactory<W> factory, Function<? super W, ? extends R> extractor) {
+		this(factory, extractor, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a generator with a given number of workers
+	 * 
+	 * @param	factory Creates the solver of each worker, all of them for grids of the same kind and usually with the
+	 * 			same settings, so the grids don't depend on the workers
+	 * @param	extractor Extracts the result from a solved solver, e.g. {@code WFC -> WFC.getGrid()}. The solver is reused
+	 * 			afterwards, so the result must not be a view of its state
+	 * @param	workers Number of grids generated at the same time
+	 */
+	public BatchGenerator(SolverFactory<W> factory, Function<? super W, ? extends R> extractor, int workers) {
+		if(workers < 1) {
+			throw new IllegalArgumentException("Generator must have at least one worker");
+		}
+		this.factory = factory;
+		this.extractor = extractor;
+		this.workers = workers;
+		this.budget = SolveBudget.unlimited();
+	}
+
+	/**
+	 * Sets the budget of the run of each job
+	 * 
+	 * @param	budget The budget, {@link SolveBudget#unlimited()} by default
+	 */
+	public void setBudget(SolveBudget budget) {
+		this.budget = budget;
+	}
+
+	public SolveBudget getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Generates a given number of grids without initial entropy, with seeds drawn from a generator with the given seed
+	 * 
+	 * @param	count Number of grids
+	 * @param	seed The seed from which the seeds of the grids are drawn
+	 * @return	The results in the order of the jobs, null for the ones not solved
+	 * @throws	TileException If a solver can't be created or run with its tilemap
+	 * @throws	DimensionException If a solver can't be created with its dimensions
+	 */
+	public List<R> generate(int count, long seed) throws TileException, DimensionException {
+		var random = new SplittableRandom(seed);
+		var jobs = new ArrayList<Job<W>>(count);
+		for(var index = 0; index < count; index++) {
+			jobs.add(new Job<>(random.nextLong()));
+		}
+		return this.generate(jobs);
+	}
+
+	/**
+	 * Generates the grids of the given jobs
+	 * 
+	 * @param	jobs The jobs
+	 * @return	The results in the order of the jobs, null for the ones not solved
+	 * @throws	TileException If a solver can't be created or run with its tilemap
+	 * @throws	DimensionException If a solver can't be created with its dimensions
+	 */
+	public List<R> generate(List<Job<W>> jobs) throws TileException, DimensionException {
+		var results = new AtomicReferenceArray<R>(jobs.size());
+		this.run(jobs.iterator(), (index, outcome, result) -> results.set((int) index, result));
+		
+		var resultList = new ArrayList<R>(jobs.size());
+		for(var index = 0; index < jobs.size(); index++) {
+			resultList.add(results.get(index));
+		}
+		return resultList;
+	}
+
+	/**
+	 * Generates the grids of the given jobs, which are taken lazily so the stream may be unbounded, handing each result
+	 * to the listener as soon as it is generated. Returns when the stream is exhausted and every job is finished
+	 * 
+	 * @param	jobs The jobs
+	 * @param	listener Receives the results, from several threads at the same time
+	 * @throws	TileException If a solver can't be created or run with its tilemap
+	 * @throws	DimensionException If a solver can't be created with its dimensions
+	 */
+	public void generate(Stream<Job<W>> jobs, Listener<? super R> listener) throws TileException, DimensionException {
+		this.run(jobs.iterator(), listener);
+	}
+
+	/**
+	 * Runs the workers until there are no jobs left or one of them fails, in which case the others stop after their
+	 * current job and the exception is thrown
+	 */
+	private void run(Iterator<Job<W>> jobs, Listener<? super R> listener) throws TileException, DimensionException {
+		var lock = new ReentrantLock();
+		var nextIndex = new long[1];
+		var failure = new AtomicReference<Exception>();
+		
+		try(var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for(var worker = 0; worker < this.workers; worker++) {
+				var workerIndex = worker;
+				executor.execute(() -> {
+					try {
+						var solver = this.factory.create(workerIndex);
+						while(failure.get() == null) {
+							Job<W> job;
+							long index;
+							lock.lock();
+							try {
+								if(!jobs.hasNext()) {
+									return;
+								}
+								job = jobs.next();
+								index = nextIndex[0]++;
+							} finally {
+								lock.unlock();
+							}
+							
+							if(job.getInitializer() == null) {
+								solver.reset();
+							} else {
+								job.getInitializer().initialize(solver);
+							}
+							var outcome = solver.solve(this.budget, new SplittableRandom(job.getSeed()));
+							listener.accept(index, outcome, outcome == SolveOutcome.Solved ? this.extractor.apply(solver) : null);
+						}
+					} catch(TileException | DimensionException | RuntimeException e) {
+						failure.compareAndSet(null, e);
+					}
+				});
+			}
+		}
+		
+		if(failure.get() instanceof TileException tileException) {
+			throw tileException;
+		} else if(failure.get() instanceof DimensionException dimensionException) {
+			throw dimensionException;
+		} else if(failure.get() instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * Generates an unbounded 2-dimensional world as chunks of a fixed size, on demand. Each chunk is an
+ * {@link EuclideanWFC2D} grid whose border cells get as initial entropy the tiles allowed next to the border tiles of
+ * the chunks already generated around it, so the chunks fit with each other. Generated chunks are kept in a cache
+ * of bounded size that evicts the least recently used ones, so the memory depends on the number of loaded chunks
+ * and not on the size of the world.
+ * <p>
+ * Chunks can be requested from several threads at the same time: a chunk waits while a chunk next to it is being
+ * generated, so the chunks generated concurrently are never adjacent. The content of a chunk depends on the
+ * seed of the world, its coordinates and the chunks around it when it is generated, so a chunk that is evicted and
+ * requested again fits the chunks loaded at that time, but may not be the same as before
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class ChunkGenerator<T> {
+
+	private static final int ATTEMPTS = 8;
+
+	private final CompiledTileMap<T> tileMap;
+	private final int chunkSizeX;
+	private final int chunkSizeY;
+	private final long seed;
+	private final int cacheCapacity;
+	private final LinkedHashMap<Long, List<List<Tile<T>>>> cache;
+	private final Set<Long> generating;
+	private final ReentrantLock lock;
+	private final Condition generated;
+	private SolveBudget budget;
+
+	/**
+	 * Creates a generator of chunks of the given size
+	 * 
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	chunkSizeX The size of the chunks in the X axis
+	 * @param	chunkSizeY The size of the chunks in the Y axis
+	 * @param	seed The seed of the world
+	 * @param	cacheCapacity Maximum number of chunks kept in memory
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap
+	 * @throws	DimensionException If chunkSizeX, chunkSizeY or cacheCapacity is less than one
+	 */
+	public ChunkGenerator(
+		CompiledTileMap<T> tileMap,
+		int chunkSizeX,
+		int chunkSizeY,
+		long seed,
+		int cacheCapacity
+	) throws TileException, DimensionException {
+		
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != Side2D.values().length) {
+			throw new TileException("TileMap must be compiled from a 2-dimensional tilemap");
+		} else if(chunkSizeX < 1 || chunkSizeY < 1) {
+			throw new DimensionException("Invalid chunk size");
+		} else if(cacheCapacity < 1) {
+			throw new DimensionException("Cache must hold at least one chunk");
+		}
+		
+		this.tileMap = tileMap;
+		this.chunkSizeX = chunkSizeX;
+		this.chunkSizeY = chunkSizeY;
+		this.seed = seed;
+		this.cacheCapacity = cacheCapacity;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, List<List<Tile<T>>>> eldest) {
+				return this.size() > ChunkGenerator.this.cacheCapacity;
+			}
+		};
+		this.generating = new HashSet<>();
+		this.lock = new ReentrantLock();
+		this.generated = this.lock.newCondition();
+		this.budget = SolveBudget.unlimited();
+	}
+
+	/**
+	 * Sets the budget of the run of each chunk, which is generated again with another seed, up to a few times, when
+	 * its run doesn't find a solution
+	 * 
+	 * @param	budget The budget, {@link SolveBudget#unlimited()} by default
+	 */
+	public void setBudget(SolveBudget budget) {
+		this.budget = budget;
+	}
+
+	public SolveBudget getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Get a chunk of the world, generating it if it is not loaded
+	 * 
+	 * @param	chunkX Coordinate of the chunk in the X axis
+	 * @param	chunkY Coordinate of the chunk in the Y axis
+	 * @return	The tiles of the chunk, or null if no chunk fitting the chunks around it was found
+	 * @throws	TileException If the tiles of the chunks around can't be used as initial entropy
+	 * @throws	DimensionException If the chunk can't be created with its dimensions
+	 * @throws	InterruptedException If the thread is interrupted while waiting for a chunk next to it
+	 */
+	public List<List<Tile<T>>> getChunk(int chunkX, int chunkY) throws TileException, DimensionException, InterruptedException {
+		var key = getKey(chunkX, chunkY);
+		this.lock.lock();
+		try {
+			while(this.isBlocked(chunkX, chunkY)) {
+				this.generated.await();
+			}
+			var chunk = this.cache.get(key);
+			if(chunk != null) {
+				return chunk;
+			}
+			this.generating.add(key);
+		} finally {
+			this.lock.unlock();
+		}
+		
+		// From here on the chunk is marked as being generated, so it must be unmarked however this ends
+		List<List<Tile<T>>> chunk = null;
+		try {
+			Map<Integer[], Set<Tile<T>>> initialEntropy;
+			this.lock.lock();
+			try {
+				initialEntropy = this.getBorderEntropy(chunkX, chunkY);
+			} finally {
+				this.lock.unlock();
+			}
+			chunk = this.generate(key, initialEntropy);
+		} finally {
+			this.lock.lock();
+			try {
+				this.generating.remove(key);
+				if(chunk != null) {
+					this.cache.put(key, chunk);
+				}
+				this.generated.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Get a chunk of the world only if it is loaded
+	 * 
+	 * @param	chunkX Coordinate of the chunk in the X axis
+	 * @param	chunkY Coordinate of the chunk in the Y axis
+	 * @return	The tiles of the chunk, or null if it is not loaded
+	 */
+	public List<List<Tile<T>>> getLoadedChunk(int chunkX, int chunkY) {
+		this.lock.lock();
+		try {
+			return this.cache.get(getKey(chunkX, chunkY));
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the number of chunks kept in memory
+	 * 
+	 * @return	Number of loaded chunks
+	 */
+	public int getLoadedChunks() {
+		this.lock.lock();
+		try {
+			return this.cache.size();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private List<List<Tile<T>>> generate(long key, Map<Integer[], Set<Tile<T>>> initialEntropy) throws TileException, DimensionException {
+		var random = new SplittableRandom(this.seed ^ new SplittableRandom(key).nextLong());
+		for(var attempt = 0; attempt < ATTEMPTS; attempt++) {
+			var WFC = new EuclideanWFC2D<T>(this.tileMap, this.chunkSizeX, this.chunkSizeY, initialEntropy);
+			var outcome = WFC.solve(this.budget, random.split());
+			if(outcome == SolveOutcome.Solved) {
+				return WFC.getGrid();
+			} else if(outcome == SolveOutcome.Unsatisfiable || outcome == SolveOutcome.Cancelled) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether the chunk or a chunk next to it is being generated
+	 */
+	private boolean isBlocked(int chunkX, int chunkY) {
+		if(this.generating.contains(getKey(chunkX, chunkY))) {
+			return true;
+		}
+		for(var side : Side2D.values()) {
+			var offset = side.getOffset();
+			if(this.generating.contains(getKey(chunkX + offset[0], chunkY + offset[1]))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the initial entropy of the border cells of a chunk from the border tiles of the loaded chunks next to it,
+	 * each cell allowing the tiles that can be on the opposite side of the tile it touches
+	 */
+	private Map<Integer[], Set<Tile<T>>> getBorderEntropy(int chunkX, int chunkY) throws TileException {
+		var entropies = new HashMap<Integer, long[]>();
+		for(var side : Side2D.values()) {
+			var offset = side.getOffset();
+			var neighbour = this.cache.get(getKey(chunkX + offset[0], chunkY + offset[1]));
+			if(neighbour == null) {
+				continue;
+			}
+			var length = offset[0] == 0 ? this.chunkSizeX : this.chunkSizeY;
+			for(var position = 0; position < length; position++) {
+				// Cell on the border of the chunk facing the neighbour, and the tile of the neighbour touching it
+				int indX, indY, tileX, tileY;
+				if(offset[0] == 0) {
+					indX = tileX = position;
+					indY = offset[1] < 0 ? 0 : this.chunkSizeY - 1;
+					tileY = offset[1] < 0 ? this.chunkSizeY - 1 : 0;
+				} else {
+					indY = tileY = position;
+					indX = offset[0] < 0 ? 0 : this.chunkSizeX - 1;
+					tileX = offset[0] < 0 ? this.chunkSizeX - 1 : 0;
+				}
+				var tile = this.tileMap.getTileId(neighbour.get(tileX).get(tileY));
+				var adjacents = this.tileMap.getAdjacents(tile, side.getOpposite().getValue());
+				var entropy = entropies.computeIfAbsent(indX * this.chunkSizeY + indY, cell -> adjacents);
+				for(var word = 0; word < entropy.length; word++) {
+					entropy[word] &= adjacents[word];
+				}
+			}
+		}
+		
+		var initialEntropy = new LinkedHashMap<Integer[], Set<Tile<T>>>();
+		for(var entry : entropies.entrySet()) {
+			var tiles = new HashSet<Tile<T>>();
+			var entropy = entry.getValue();
+			for(var tile = 0; tile < this.tileMap.getTilesNumber(); tile++) {
+				if((entropy[tile / Long.SIZE] & 1L << tile) != 0) {
+					tiles.add(this.tileMap.getTile(tile));
+				}
+			}
+			if(tiles.isEmpty()) {
+				throw new TileException("Tiles of the chunks around leave no tile for a border cell");
+			}
+			initialEntropy.put(new Integer[] {entry.getKey() / this.chunkSizeY, entry.getKey() % this.chunkSizeY}, tiles);
+		}
+		return initialEntropy;
+	}
+
+	private static long getKey(int chunkX, int chunkY) {
+		return (long) chunkX << Integer.SIZE | chunkY & 0xFFFFFFFFL;
+	}
+}
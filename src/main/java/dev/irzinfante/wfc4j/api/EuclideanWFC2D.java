@@ -18,19 +18,28 @@
 
 package dev.irzinfante.wfc4j.api;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import dev.irzinfante.wfc4j.core.AbstractWFC2D;
+import dev.irzinfante.wfc4j.core.Topology;
 import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
 import dev.irzinfante.wfc4j.exceptions.TileException;
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SolveBudget;
 import dev.irzinfante.wfc4j.model.TileMap2D;
 import dev.irzinfante.wfc4j.model.Tile;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 final public class EuclideanWFC2D<T> extends AbstractWFC2D<T> {
@@ -48,7 +57,7 @@ final public class EuclideanWFC2D<T> extends AbstractWFC2D<T> {
 	 * @since	1.0.0
 	 */
 	public EuclideanWFC2D(TileMap2D<T> tileMap, int gridSizeX, int gridSizeY) throws TileException, DimensionException {
-		super(tileMap, gridSizeX, gridSizeY);
+		super(tileMap, gridSizeX, gridSizeY, Topology::euclidean);
 	}
 	
 	/**
@@ -71,30 +80,194 @@ final public class EuclideanWFC2D<T> extends AbstractWFC2D<T> {
 		int gridSizeY,
 		Map<Integer[], Set<Tile<T>>> initialEntropy
 	) throws TileException, DimensionException {
-		super(tileMap, gridSizeX, gridSizeY, initialEntropy);
+		super(tileMap, gridSizeX, gridSizeY, initialEntropy, Topology::euclidean);
 	}
 
-	@Override
-	protected Integer[] getSideCellIndex(Integer[] cellIndex, Side2D side) {
-		switch(side) {
-			case Side2D.Left:
-				return new Integer[] {cellIndex[0], cellIndex[1] - 1};
-			case Side2D.Right:
-				if(cellIndex[1] < this.grid[cellIndex[0]].length - 1) {
-					return new Integer[] {cellIndex[0], cellIndex[1] + 1};
-				} else {
-					return new Integer[] {cellIndex[0], -1};
+	/**
+	 * Creates a 2-dimensional euclidean grid on which to apply the WFC algorithm with the specified compiled tilemap
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeX The size of the grid in the Y axis
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap
+	 * @throws	DimensionException If gridSizeX or gridSizeY is less than one
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC2D(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, Topology::euclidean);
+	}
+	
+	/**
+	 * Creates a 2-dimensional euclidean grid on which to apply the WFC algorithm with the specified compiled tilemap,
+	 * initializing some cells with the given entropy
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap or initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If gridSizeX or gridSizeY is less than one or initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC2D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, initialEntropy, Topology::euclidean);
+	}
+
+	/**
+	 * Generates again a rectangular region of the grid, usually already solved, with an unlimited budget and a new
+	 * {@link SplittableRandom} with a random seed
+	 * 
+	 * @param	indX Index in the X axis of the first cell of the region
+	 * @param	indY Index in the Y axis of the first cell of the region
+	 * @param	sizeX The size of the region in the X axis
+	 * @param	sizeY The size of the region in the Y axis
+	 * @param	constraints Map from cell index, in the grid, to the tiles allowed for the cells of the region
+	 * @return	Outcome of the run of the region
+	 * @throws	TileException If constraints are set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If the region is not inside the grid or constraints are set for cell outside it
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome patch(
+		int indX,
+		int indY,
+		int sizeX,
+		int sizeY,
+		Map<Integer[], Set<Tile<T>>> constraints
+	) throws TileException, DimensionException {
+		return this.patch(indX, indY, sizeX, sizeY, constraints, SolveBudget.unlimited(), new SplittableRandom());
+	}
+
+	/**
+	 * Generates again a rectangular region of the grid, usually already solved, so only the region has to be solved
+	 * and not the whole grid. The cells of the region can hold any tile again, restricted by the given constraints,
+	 * and its border cells only the tiles allowed next to the collapsed cells around the region. The region is solved
+	 * as a separate grid with the settings of this one, and its tiles are copied into this grid only when it is
+	 * solved, so the cost depends on the size of the region and the grid is left unchanged when it can't be solved
+	 * 
+	 * @param	indX Index in the X axis of the first cell of the region
+	 * @param	indY Index in the Y axis of the first cell of the region
+	 * @param	sizeX The size of the region in the X axis
+	 * @param	sizeY The size of the region in the Y axis
+	 * @param	constraints Map from cell index, in the grid, to the tiles allowed for the cells of the region
+	 * @param	budget The limits of the run of the region
+	 * @param	random The random generator for the choices of the run of the region
+	 * @return	Outcome of the run of the region, {@link SolveOutcome#Unsatisfiable} if the constraints and the cells
+	 * 			around leave no tile for a cell
+	 * @throws	TileException If constraints are set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If the region is not inside the grid or constraints are set for cell outside it
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome patch(
+		int indX,
+		int indY,
+		int sizeX,
+		int sizeY,
+		Map<Integer[], Set<Tile<T>>> constraints,
+		SolveBudget budget,
+		RandomGenerator random
+	) throws TileException, DimensionException {
+		
+		if(
+			sizeX < 1 || sizeY < 1 || indX < 0 || indY < 0 ||
+			indX + sizeX > this.gridSizeX || indY + sizeY > this.gridSizeY
+		) {
+			throw new DimensionException("Region must be inside the grid");
+		}
+		
+		var entropies = new HashMap<Integer, long[]>();
+		for(var constraint : constraints.entrySet()) {
+			var index = constraint.getKey();
+			if(
+				index[0] < indX || index[0] >= indX + sizeX ||
+				index[1] < indY || index[1] >= indY + sizeY
+			) {
+				throw new DimensionException("Cannot set constraints for cell outside the region");
+			} else if(constraint.getValue().isEmpty()) {
+				throw new TileException("Cannot constrain cell with zero entropy");
+			}
+			
+			var entropy = new long[this.tileMap.getWords()];
+			for(var tile : constraint.getValue()) {
+				if(!this.tileMap.contains(tile)) {
+					throw new TileException("Tiles for constraints must exist in tilemap");
 				}
-			case Side2D.Bottom:
-				if(cellIndex[0] < this.grid.length - 1) {
-					return new Integer[] {cellIndex[0] + 1, cellIndex[1]};
-				} else {
-					return new Integer[] {-1, cellIndex[1]};
+				var tileId = this.tileMap.getTileId(tile);
+				entropy[tileId / Long.SIZE] |= 1L << tileId;
+			}
+			entropies.put(index[0] * this.gridSizeY + index[1], entropy);
+		}
+		
+		for(var cellX = indX; cellX < indX + sizeX; cellX++) {
+			for(var cellY = indY; cellY < indY + sizeY; cellY++) {
+				if(cellX > indX && cellX < indX + sizeX - 1 && cellY > indY && cellY < indY + sizeY - 1) {
+					continue;
+				}
+				var cell = cellX * this.gridSizeY + cellY;
+				for(var side : Side2D.values()) {
+					var offset = side.getOffset();
+					var sideX = cellX + offset[0];
+					var sideY = cellY + offset[1];
+					if(
+						sideX < 0 || sideX >= this.gridSizeX || sideY < 0 || sideY >= this.gridSizeY ||
+						sideX >= indX && sideX < indX + sizeX && sideY >= indY && sideY < indY + sizeY
+					) {
+						continue;
+					}
+					var tile = this.getTile(sideX * this.gridSizeY + sideY);
+					if(tile == -1) {
+						continue;
+					}
+					var adjacents = this.tileMap.getAdjacents(tile, side.getOpposite().getValue());
+					var entropy = entropies.computeIfAbsent(cell, key -> adjacents);
+					for(var word = 0; word < entropy.length; word++) {
+						entropy[word] &= adjacents[word];
+					}
+				}
+			}
+		}
+		
+		var regionEntropy = new LinkedHashMap<Integer[], Set<Tile<T>>>();
+		for(var entry : entropies.entrySet()) {
+			var tiles = new HashSet<Tile<T>>();
+			var entropy = entry.getValue();
+			for(var tile = 0; tile < this.tileMap.getTilesNumber(); tile++) {
+				if((entropy[tile / Long.SIZE] & 1L << tile) != 0) {
+					tiles.add(this.tileMap.getTile(tile));
+				}
+			}
+			if(tiles.isEmpty()) {
+				return SolveOutcome.Unsatisfiable;
+			}
+			var cell = entry.getKey();
+			regionEntropy.put(new Integer[] {cell / this.gridSizeY - indX, cell % this.gridSizeY - indY}, tiles);
+		}
+		
+		var region = new EuclideanWFC2D<T>(this.tileMap, sizeX, sizeY, regionEntropy);
+		region.setPropagation(this.getPropagation());
+		region.setVectorized(this.isVectorized());
+		region.setSearchPolicy(this.getSearchPolicy());
+		region.setBackjumping(this.isBackjumping());
+		var outcome = region.solve(budget, random);
+		if(outcome == SolveOutcome.Solved) {
+			for(var cellX = 0; cellX < sizeX; cellX++) {
+				for(var cellY = 0; cellY < sizeY; cellY++) {
+					this.setTile((indX + cellX) * this.gridSizeY + indY + cellY, region.getTile(cellX * sizeY + cellY));
 				}
-			case Side2D.Top:
-				return new Integer[] {cellIndex[0] - 1, cellIndex[1]};
-			default:
-				return null;
+			}
 		}
+		return outcome;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.Map;
+import java.util.Set;
+
+import dev.irzinfante.wfc4j.core.AbstractWFC3D;
+import dev.irzinfante.wfc4j.core.Topology;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.TileMap3D;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class EuclideanWFC3D<T> extends AbstractWFC3D<T> {
+	
+	/**
+	 * Creates a 3-dimensional euclidean grid on which to apply the WFC algorithm with the specified tilemap
+	 *
+	 * @param	tileMap The tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	gridSizeZ The size of the grid in the Z axis
+	 * @throws	TileException If tileMap is null
+	 * @throws	DimensionException If any of the grid sizes is less than one or the grid has more than {@link Integer#MAX_VALUE} cells
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC3D(TileMap3D<T> tileMap, int gridSizeX, int gridSizeY, int gridSizeZ) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, gridSizeZ, Topology::euclidean);
+	}
+	
+	/**
+	 * Creates a 3-dimensional euclidean grid on which to apply the WFC algorithm with the specified tilemap,
+	 * initializing some cells with the given entropy
+	 *
+	 * @param	tileMap The tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	gridSizeZ The size of the grid in the Z axis
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If tileMap is null or initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If any of the grid sizes is less than one or the grid has more than {@link Integer#MAX_VALUE} cells or initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC3D(
+		TileMap3D<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, gridSizeZ, initialEntropy, Topology::euclidean);
+	}
+
+	/**
+	 * Creates a 3-dimensional euclidean grid on which to apply the WFC algorithm with the specified compiled tilemap
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	gridSizeZ The size of the grid in the Z axis
+	 * @throws	TileException If tileMap is null or not compiled from a 3-dimensional tilemap
+	 * @throws	DimensionException If any of the grid sizes is less than one or the grid has more than {@link Integer#MAX_VALUE} cells
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC3D(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY, int gridSizeZ) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, gridSizeZ, Topology::euclidean);
+	}
+	
+	/**
+	 * Creates a 3-dimensional euclidean grid on which to apply the WFC algorithm with the specified compiled tilemap,
+	 * initializing some cells with the given entropy
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	gridSizeZ The size of the grid in the Z axis
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If tileMap is null or not compiled from a 3-dimensional tilemap or initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If any of the grid sizes is less than one or the grid has more than {@link Integer#MAX_VALUE} cells or initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public EuclideanWFC3D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, gridSizeZ, initialEntropy, Topology::euclidean);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,246 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+import dev.irzinfante.wfc4j.core.AbstractWFC1D;
+import dev.irzinfante.wfc4j.core.AbstractWFC2D;
+import dev.irzinfante.wfc4j.core.AbstractWFC3D;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+
+/**
+ * Writes solved grids to a binary file through a {@link FileChannel}, copying the ids of their tiles straight from the
+ * grid state into a direct buffer that is reused for the whole file and written to the channel whenever it fills up,
+ * without creating any tile list. Ids narrower than an {@code int} are first converted into arrays that are also
+ * reused, so every refill of the buffer is a single bulk copy whatever the width of the ids. The file starts with a
+ * header and the palette of the tilemap, followed by the grids in the order they are written, all the values in
+ * big-endian order:
+ * <ul>
+ * 	<li>Header: {@link #MAGIC}, {@link #VERSION}, the number of tiles and the number of bytes of each tile id, given by
+ * 		{@link CompiledTileMap#getIdBytes()} (as {@code int}s)</li>
+ * 	<li>Palette: for each tile, in the order of its id, the number of bytes of its encoded value (as an {@code int})
+ * 		and the UTF-8 bytes of the value</li>
+ * 	<li>Grids: the number of dimensions and the size of the grid in each of them (as {@code int}s), followed by the
+ * 		signed id of the tile of each cell, -1 for the cells not collapsed, in the order of the cells of the grid</li>
+ * </ul>
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class GridWriter<T> implements Closeable {
+
+	/**
+	 * First bytes of every file, {@code WFCG} in ASCII
+	 */
+	public static final int MAGIC = 0x57464347;
+
+	/**
+	 * Version of the layout of the file, increased whenever the layout changes
+	 */
+	public static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final CompiledTileMap<T> tileMap;
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int idBytes;
+	private final int[] ids;
+	private final byte[] byteIds;
+	private final short[] shortIds;
+	private long grids;
+
+	/**
+	 * Creates a writer of grids of the given tilemap, encoding the value of each tile of the palette with
+	 * {@link String#valueOf(Object)}
+	 * 
+	 * @param	file The file to write, which is replaced
+	 * @param	tileMap The compiled tilemap of the grids
+	 * @throws	TileException If tileMap is null
+	 * @throws	IOException If the file can't be written
+	 */
+	public GridWriter(Path file, CompiledTileMap<T> tileMap) throws TileException, IOException {
+		this(file, tileMap, String::valueOf);
+	}
+
+	/**
+	 * Creates a writer of grids of the given tilemap, writing the header and the palette of the file
+	 * 
+	 * @param	file The file to write, which is replaced
+	 * @param	tileMap The compiled tilemap of the grids
+	 * @param	encoder Function giving the text written in the palette for the value of each tile
+	 * @throws	TileException If tileMap is null
+	 * @throws	IOException If the file can't be written
+	 */
+	public GridWriter(Path file, CompiledTileMap<T> tileMap, Function<T, String> encoder) throws TileException, IOException {
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		}
+		
+		this.tileMap = tileMap;
+		var tilesNumber = tileMap.getTilesNumber();
+		this.idBytes = tileMap.getIdBytes();
+		this.ids = this.idBytes < Integer.BYTES ? new int[BUFFER_SIZE / this.idBytes] : null;
+		this.byteIds = this.idBytes == Byte.BYTES ? new byte[BUFFER_SIZE] : null;
+		this.shortIds = this.idBytes == Short.BYTES ? new short[BUFFER_SIZE / Short.BYTES] : null;
+		
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		try {
+			this.ensureRemaining(4 * Integer.BYTES);
+			this.buffer.putInt(MAGIC);
+			this.buffer.putInt(VERSION);
+			this.buffer.putInt(tilesNumber);
+			this.buffer.putInt(this.idBytes);
+			for(var tile = 0; tile < tilesNumber; tile++) {
+				var value = encoder.apply(tileMap.getTile(tile).getValue()).getBytes(StandardCharsets.UTF_8);
+				this.ensureRemaining(Integer.BYTES);
+				this.buffer.putInt(value.length);
+				for(var offset = 0; offset < value.length; ) {
+					this.ensureRemaining(Byte.BYTES);
+					var count = Math.min(value.length - offset, this.buffer.remaining());
+					this.buffer.put(value, offset, count);
+					offset += count;
+				}
+			}
+		} catch(IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends a 1-dimensional grid to the file
+	 * 
+	 * @param	WFC The grid, usually solved
+	 * @throws	TileException If the grid doesn't use the tilemap of the writer
+	 * @throws	IOException If the file can't be written
+	 */
+	public void write(AbstractWFC1D<T> WFC) throws TileException, IOException {
+		this.write(WFC.getTileMap(), new int[] {WFC.getGridSizeX()}, WFC.getTileView());
+	}
+
+	/**
+	 * Appends a 2-dimensional grid to the file
+	 * 
+	 * @param	WFC The grid, usually solved
+	 * @throws	TileException If the grid doesn't use the tilemap of the writer
+	 * @throws	IOException If the file can't be written
+	 */
+	public void write(AbstractWFC2D<T> WFC) throws TileException, IOException {
+		this.write(WFC.getTileMap(), new int[] {WFC.getGridSizeX(), WFC.getGridSizeY()}, WFC.getTileView());
+	}
+
+	/**
+	 * Appends a 3-dimensional grid to the file
+	 * 
+	 * @param	WFC The grid, usually solved
+	 * @throws	TileException If the grid doesn't use the tilemap of the writer
+	 * @throws	IOException If the file can't be written
+	 */
+	public void write(AbstractWFC3D<T> WFC) throws TileException, IOException {
+		this.write(WFC.getTileMap(), new int[] {WFC.getGridSizeX(), WFC.getGridSizeY(), WFC.getGridSizeZ()}, WFC.getTileView());
+	}
+
+	/**
+	 * Get the number of grids written to the file
+	 * 
+	 * @return	Number of grids
+	 */
+	public long getGrids() {
+		return this.grids;
+	}
+
+	/**
+	 * Writes the grids still in the buffer and forces them to the storage device before closing the file, so the file
+	 * is complete once it is closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			this.flush();
+			this.channel.force(false);
+		} finally {
+			this.channel.close();
+		}
+	}
+
+	private void write(CompiledTileMap<T> tileMap, int[] gridSizes, IntBuffer tiles) throws TileException, IOException {
+		if(tileMap != this.tileMap) {
+			throw new TileException("Grid must use the tilemap of the writer");
+		}
+		
+		this.ensureRemaining(Integer.BYTES * (1 + gridSizes.length));
+		this.buffer.putInt(gridSizes.length);
+		for(var gridSize : gridSizes) {
+			this.buffer.putInt(gridSize);
+		}
+		while(tiles.hasRemaining()) {
+			this.ensureRemaining(this.idBytes);
+			var count = Math.min(tiles.remaining(), this.buffer.remaining() / this.idBytes);
+			switch(this.idBytes) {
+				case Byte.BYTES:
+					tiles.get(this.ids, 0, count);
+					for(var tile = 0; tile < count; tile++) {
+						this.byteIds[tile] = (byte) this.ids[tile];
+					}
+					this.buffer.put(this.byteIds, 0, count);
+					break;
+				case Short.BYTES:
+					tiles.get(this.ids, 0, count);
+					for(var tile = 0; tile < count; tile++) {
+						this.shortIds[tile] = (short) this.ids[tile];
+					}
+					this.buffer.asShortBuffer().put(this.shortIds, 0, count);
+					this.buffer.position(this.buffer.position() + count * Short.BYTES);
+					break;
+				default:
+					this.buffer.asIntBuffer().put(tiles.slice(tiles.position(), count));
+					this.buffer.position(this.buffer.position() + count * Integer.BYTES);
+					tiles.position(tiles.position() + count);
+			}
+		}
+		this.grids++;
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		if(this.buffer.remaining() < bytes) {
+			this.flush();
+		}
+	}
+
+	private void flush() throws IOException {
+		this.buffer.flip();
+		while(this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		this.buffer.clear();
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import dev.irzinfante.wfc4j.core.AbstractWFC;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Races several independent solvers for the same grid, each one with its own random generator and possibly its
+ * own strategy, and keeps the first one that finds a solution. The time to solution varies a lot between seeds on
+ * hard tilemaps, so running a portfolio on as many threads as cores cuts the slowest runs. The solvers should be
+ * created from a single {@link dev.irzinfante.wfc4j.model.CompiledTileMap}, which they share without copying it
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class PortfolioSolver<W extends AbstractWFC> {
+
+	private final SolverFactory<W> factory;
+	private final int solvers;
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a portfolio that runs each time on a new pool of as many threads as solvers
+	 * 
+	 * @param	factory Creates the solvers
+	 * @param	solvers Number of solvers to race
+	 */
+	public PortfolioSolver(SolverFactory<W> factory, int solvers) {
+		this(factory, solvers, null);
+	}
+
+	/**
+	 * Creates a portfolio that runs on the given executor, which is not shut down by the portfolio.
+	 * The losing solvers are cancelled by interrupting their threads
+	 * 
+	 * @param	factory Creates the solvers
+	 * @param	solvers Number of solvers to race
+	 * @param	executor The executor running the solvers
+	 */
+	public PortfolioSolver(SolverFactory<W> factory, int solvers, ExecutorService executor) {
+		if(solvers < 1) {
+			throw new IllegalArgumentException("Portfolio must have at least one solver");
+		}
+		this.factory = factory;
+		this.solvers = solvers;
+		this.executor = executor;
+	}
+
+	/**
+	 * Races the solvers with random seeds
+	 * 
+	 * @param	budget The budget of each solver
+	 * @return	The first solver that found a solution, or null if none did
+	 * @throws	TileException If a solver can't be created or run with its tilemap
+	 * @throws	DimensionException If a solver can't be created with its dimensions
+	 * @throws	InterruptedException If the calling thread is interrupted while waiting for the solvers
+	 */
+	public W solve(SolveBudget budget) throws TileException, DimensionException, InterruptedException {
+		return this.solve(budget, new SplittableRandom());
+	}
+
+	/**
+	 * Races the solvers with generators split from a generator with the given seed. The winner depends on the
+	 * timing of the threads, but the grid of each solver only depends on the seed
+	 * 
+	 * @param	budget The budget of each solver
+	 * @param	seed The seed from which the generators of the solvers are split
+	 * @return	The first solver that found a solution, or null if none did
+	 * @throws	TileException If a solver can't be created or run with its tilemap
+	 * @throws	DimensionException If a solver can't be created with its dimensions
+	 * @throws	InterruptedException If the calling thread is interrupted while waiting for the solvers
+	 */
+	public W solve(SolveBudget budget, long seed) throws TileException, DimensionException, InterruptedException {
+		return this.solve(budget, new SplittableRandom(seed));
+	}
+
+	private W solve(SolveBudget budget, SplittableRandom random) throws TileException, DimensionException, InterruptedException {
+		if(this.executor != null) {
+			return this.race(this.executor, budget, random);
+		}
+		try(var executor = Executors.newFixedThreadPool(this.solvers)) {
+			return this.race(executor, budget, random);
+		}
+	}
+
+	/**
+	 * Submits every solver and waits for them in the order they finish, until one finds a solution or proves there is
+	 * none. An unsatisfiable outcome is final because the search of every solver is complete
+	 */
+	private W race(ExecutorService executor, SolveBudget budget, SplittableRandom random)
+		throws TileException, DimensionException, InterruptedException {
+		
+		var completionService = new ExecutorCompletionService<SolveOutcome>(executor);
+		var futures = new ArrayList<Future<SolveOutcome>>(this.solvers);
+		var solvers = new AtomicReferenceArray<W>(this.solvers);
+		try {
+			for(var index = 0; index < this.solvers; index++) {
+				var solverIndex = index;
+				var solverRandom = random.split();
+				futures.add(completionService.submit(() -> {
+					var solver = this.factory.create(solverIndex);
+					solvers.set(solverIndex, solver);
+					return solver.solve(budget, solverRandom);
+				}));
+			}
+			for(var finished = 0; finished < this.solvers; finished++) {
+				var future = completionService.take();
+				var outcome = future.get();
+				if(outcome == SolveOutcome.Solved) {
+					return solvers.get(futures.indexOf(future));
+				} else if(outcome == SolveOutcome.Unsatisfiable) {
+					return null;
+				}
+			}
+			return null;
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof TileException tileException) {
+				throw tileException;
+			} else if(e.getCause() instanceof DimensionException dimensionException) {
+				throw dimensionException;
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for(var future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,399 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * Solves a large 2-dimensional euclidean grid in parallel by splitting it into square blocks, which are solved as
+ * independent {@link EuclideanWFC2D} grids in two phases, as the squares of a checkerboard: first the blocks where the sum
+ * of the block coordinates is even, which are never adjacent to each other, and then the rest, whose border cells get
+ * as initial entropy the tiles allowed next to the tiles already fixed around them. Blocks of the same phase are
+ * solved at the same time.
+ * <p>
+ * A block of the second phase may have no solution for the borders of its neighbours. Such blocks are repaired one
+ * after another by solving again a region around them, which also frees the cells of the neighbouring blocks inside it,
+ * and grows around the block each time the region can't be solved, until it covers the whole grid
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class RegionSolver<T> {
+
+	private static final Side2D[] SIDES = Side2D.values();
+
+	private final CompiledTileMap<T> tileMap;
+	private final int gridSizeX;
+	private final int gridSizeY;
+	private final int blockSize;
+	private final ExecutorService executor;
+	private final Map<Integer, long[]> initialEntropy;
+	private final int[] tiles;
+	private SolveBudget regionBudget;
+	private SolveBudget gridBudget;
+	private SearchPolicy regionPolicy;
+	private long repairs;
+
+	/**
+	 * Creates a solver for a euclidean grid that runs on a new pool of as many threads as cores each time it solves it
+	 * 
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	blockSize The size of the blocks in both axes
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap
+	 * @throws	DimensionException If gridSizeX, gridSizeY or blockSize is less than one
+	 */
+	public RegionSolver(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY, int blockSize) throws TileException, DimensionException {
+		this(tileMap, gridSizeX, gridSizeY, blockSize, new HashMap<>(), null);
+	}
+
+	/**
+	 * Creates a solver for a euclidean grid, initializing some cells with the given entropy, that runs on the given
+	 * executor, which is not shut down by the solver
+	 * 
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	blockSize The size of the blocks in both axes
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @param	executor The executor solving the blocks, or null to use a new pool of as many threads as cores
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap,
+	 * 			or initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If gridSizeX, gridSizeY or blockSize is less than one
+	 * 			or initial entropy is set for cell outside the grid
+	 */
+	public RegionSolver(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int blockSize,
+		Map<Integer[], Set<Tile<T>>> initialEntropy,
+		ExecutorService executor
+	) throws TileException, DimensionException {
+		
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != SIDES.length) {
+			throw new TileException("TileMap must be compiled from a 2-dimensional tilemap");
+		} else if(gridSizeX < 1 || gridSizeY < 1 || blockSize < 1) {
+			throw new DimensionException("Invalid grid size");
+		} else if((long) gridSizeX * gridSizeY > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid too big: cannot exceed " + Integer.MAX_VALUE + " cells");
+		}
+		
+		this.tileMap = tileMap;
+		this.gridSizeX = gridSizeX;
+		this.gridSizeY = gridSizeY;
+		this.blockSize = blockSize;
+		this.executor = executor;
+		this.initialEntropy = new HashMap<>();
+		for(var ieEntry : initialEntropy.entrySet()) {
+			var index = ieEntry.getKey();
+			if(
+				index[0] < 0 || index[0] >= gridSizeX ||
+				index[1] < 0 || index[1] >= gridSizeY
+			) {
+				throw new DimensionException("Cannot set initial entropy for cell outside the grid");
+			} else if (ieEntry.getValue().isEmpty()) {
+				throw new TileException("Cannot initialize cell with zero entropy");
+			}
+
+			var entropy = new long[tileMap.getWords()];
+			for(var tile : ieEntry.getValue()) {
+				if(!tileMap.contains(tile)) {
+					throw new TileException("Tiles for initial entropy must exist in tilemap");
+				}
+				var tileId = tileMap.getTileId(tile);
+				entropy[tileId / Long.SIZE] |= 1L << tileId;
+			}
+			this.initialEntropy.put(index[0] * gridSizeY + index[1], entropy);
+		}
+		this.tiles = new int[gridSizeX * gridSizeY];
+		this.regionBudget = SolveBudget.unlimited().withMaxBacktracks(10_000);
+		this.gridBudget = SolveBudget.unlimited();
+		this.regionPolicy = SearchPolicy.luby(16);
+	}
+
+	/**
+	 * Sets the budget of the run of each region. A region that doesn't find a solution within it is considered
+	 * unsolvable, so it is grown around its block
+	 * 
+	 * @param	regionBudget The budget, 10000 backtracks by default
+	 */
+	public void setRegionBudget(SolveBudget regionBudget) {
+		this.regionBudget = regionBudget;
+	}
+
+	public SolveBudget getRegionBudget() {
+		return this.regionBudget;
+	}
+
+	/**
+	 * Sets the budget of the run of a region covering the whole grid, the last one of a repair, whose outcome is the
+	 * outcome of the solve when it doesn't find a solution
+	 * 
+	 * @param	gridBudget The budget, unlimited by default
+	 */
+	public void setGridBudget(SolveBudget gridBudget) {
+		this.gridBudget = gridBudget;
+	}
+
+	public SolveBudget getGridBudget() {
+		return this.gridBudget;
+	}
+
+	/**
+	 * Sets the search policy of the run of each region. Restarts keep the search of the larger regions of the repairs
+	 * from thrashing on an early bad decision
+	 * 
+	 * @param	regionPolicy The search policy, Luby restarts with unit 16 by default
+	 */
+	public void setRegionPolicy(SearchPolicy regionPolicy) {
+		this.regionPolicy = regionPolicy;
+	}
+
+	public SearchPolicy getRegionPolicy() {
+		return this.regionPolicy;
+	}
+
+	/**
+	 * Get the number of regions solved again to repair the blocks without solution during the last solve
+	 * 
+	 * @return	Number of repairs
+	 */
+	public long getRepairs() {
+		return this.repairs;
+	}
+
+	/**
+	 * Solves the grid, drawing the seed of each region from the given one, so the grid only depends on the seed
+	 * and not on the number of threads
+	 * 
+	 * @param	seed The seed of the grid
+	 * @return	{@link SolveOutcome#Solved} if every cell was collapsed, or the outcome of the run of the whole grid
+	 * 			when a block couldn't be repaired
+	 * @throws	TileException If a region can't be solved with its tilemap
+	 * @throws	DimensionException If a region can't be created with its dimensions
+	 * @throws	InterruptedException If the thread is interrupted while waiting for the blocks
+	 */
+	public SolveOutcome solve(long seed) throws TileException, DimensionException, InterruptedException {
+		Arrays.fill(this.tiles, -1);
+		this.repairs = 0;
+		var blocksX = (this.gridSizeX + this.blockSize - 1) / this.blockSize;
+		var blocksY = (this.gridSizeY + this.blockSize - 1) / this.blockSize;
+		
+		var failedBlocks = new ArrayList<int[]>();
+		for(var phase = 0; phase < 2; phase++) {
+			var blocks = new ArrayList<int[]>();
+			var tasks = new ArrayList<Callable<SolveOutcome>>();
+			for(var blockX = 0; blockX < blocksX; blockX++) {
+				for(var blockY = (blockX + phase) % 2; blockY < blocksY; blockY += 2) {
+					var block = new int[] {blockX, blockY};
+					blocks.add(block);
+					tasks.add(() -> this.solveRegion(block, 0, seed));
+				}
+			}
+			var outcomes = this.invokeAll(tasks);
+			for(var index = 0; index < blocks.size(); index++) {
+				if(outcomes.get(index) != SolveOutcome.Solved) {
+					failedBlocks.add(blocks.get(index));
+				}
+			}
+		}
+		
+		for(var block : failedBlocks) {
+			if(this.isSolved(block)) {
+				continue;
+			}
+			var outcome = SolveOutcome.LimitReached;
+			for(var margin = (this.blockSize + 1) / 2; outcome != SolveOutcome.Solved; margin *= 2) {
+				this.repairs++;
+				outcome = this.solveRegion(block, margin, seed);
+				if(outcome != SolveOutcome.Solved && this.coversGrid(block, margin)) {
+					return outcome;
+				}
+			}
+		}
+		return SolveOutcome.Solved;
+	}
+
+	/**
+	 * Get the tiles of the grid
+	 * 
+	 * @return	The tiles of the grid, null for the cells not collapsed
+	 */
+	public List<List<Tile<T>>> getGrid() {
+		var grid = new ArrayList<List<Tile<T>>>();
+		for(var indX = 0; indX < this.gridSizeX; indX++) {
+			var gridRow = new ArrayList<Tile<T>>();
+			for(var indY = 0; indY < this.gridSizeY; indY++) {
+				var tile = this.tiles[indX * this.gridSizeY + indY];
+				gridRow.add(tile == -1 ? null : this.tileMap.getTile(tile));
+			}
+			grid.add(gridRow);
+		}
+		return grid;
+	}
+
+	/**
+	 * Solves the region of a block grown by a margin on every side, constraining its border cells with the tiles fixed
+	 * around it. The tiles of the cells of the region are only replaced when it is solved, so a region that can't be
+	 * solved keeps them
+	 */
+	private SolveOutcome solveRegion(int[] block, int margin, long seed) throws TileException, DimensionException {
+		var minX = Math.max(0, block[0] * this.blockSize - margin);
+		var maxX = Math.min(this.gridSizeX, (block[0] + 1) * this.blockSize + margin);
+		var minY = Math.max(0, block[1] * this.blockSize - margin);
+		var maxY = Math.min(this.gridSizeY, (block[1] + 1) * this.blockSize + margin);
+		var sizeX = maxX - minX;
+		var sizeY = maxY - minY;
+		var entropies = new HashMap<Integer, long[]>();
+		for(var indX = minX; indX < maxX; indX++) {
+			for(var indY = minY; indY < maxY; indY++) {
+				var cell = indX * this.gridSizeY + indY;
+				var entropy = this.initialEntropy.get(cell);
+				if(entropy != null) {
+					entropies.put(cell, entropy.clone());
+				}
+				if(indX > minX && indX < maxX - 1 && indY > minY && indY < maxY - 1) {
+					continue;
+				}
+				for(var side : SIDES) {
+					var offset = side.getOffset();
+					var sideX = indX + offset[0];
+					var sideY = indY + offset[1];
+					if(
+						sideX < 0 || sideX >= this.gridSizeX || sideY < 0 || sideY >= this.gridSizeY ||
+						sideX >= minX && sideX < maxX && sideY >= minY && sideY < maxY
+					) {
+						continue;
+					}
+					var tile = this.tiles[sideX * this.gridSizeY + sideY];
+					if(tile == -1) {
+						continue;
+					}
+					var adjacents = this.tileMap.getAdjacents(tile, side.getOpposite().getValue());
+					var cellEntropy = entropies.computeIfAbsent(cell, key -> adjacents);
+					for(var word = 0; word < cellEntropy.length; word++) {
+						cellEntropy[word] &= adjacents[word];
+					}
+				}
+			}
+		}
+		
+		var regionEntropy = new LinkedHashMap<Integer[], Set<Tile<T>>>();
+		for(var entry : entropies.entrySet()) {
+			var tiles = new HashSet<Tile<T>>();
+			var entropy = entry.getValue();
+			for(var tile = 0; tile < this.tileMap.getTilesNumber(); tile++) {
+				if((entropy[tile / Long.SIZE] & 1L << tile) != 0) {
+					tiles.add(this.tileMap.getTile(tile));
+				}
+			}
+			if(tiles.isEmpty()) {
+				return SolveOutcome.Unsatisfiable;
+			}
+			var cell = entry.getKey();
+			regionEntropy.put(new Integer[] {cell / this.gridSizeY - minX, cell % this.gridSizeY - minY}, tiles);
+		}
+		
+		var random = new SplittableRandom(seed ^ new SplittableRandom(((long) block[0] << Integer.SIZE | block[1]) + margin).nextLong());
+		var WFC = new EuclideanWFC2D<T>(this.tileMap, sizeX, sizeY, regionEntropy);
+		WFC.setSearchPolicy(this.regionPolicy);
+		var outcome = WFC.solve(this.coversGrid(block, margin) ? this.gridBudget : this.regionBudget, random);
+		if(outcome == SolveOutcome.Solved) {
+			var regionTiles = WFC.getTileIndices();
+			for(var indX = 0; indX < sizeX; indX++) {
+				System.arraycopy(regionTiles, indX * sizeY, this.tiles, (minX + indX) * this.gridSizeY + minY, sizeY);
+			}
+		}
+		return outcome;
+	}
+
+	/**
+	 * Checks whether every cell of a block is fixed, which happens when a block is inside the region of a repaired one
+	 */
+	private boolean isSolved(int[] block) {
+		for(var indX = block[0] * this.blockSize; indX < Math.min(this.gridSizeX, (block[0] + 1) * this.blockSize); indX++) {
+			for(var indY = block[1] * this.blockSize; indY < Math.min(this.gridSizeY, (block[1] + 1) * this.blockSize); indY++) {
+				if(this.tiles[indX * this.gridSizeY + indY] == -1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean coversGrid(int[] block, int margin) {
+		return block[0] * this.blockSize - margin <= 0 && (block[0] + 1) * this.blockSize + margin >= this.gridSizeX
+			&& block[1] * this.blockSize - margin <= 0 && (block[1] + 1) * this.blockSize + margin >= this.gridSizeY;
+	}
+
+	private List<SolveOutcome> invokeAll(List<Callable<SolveOutcome>> tasks) throws TileException, DimensionException, InterruptedException {
+		if(this.executor != null) {
+			return this.getOutcomes(this.executor.invokeAll(tasks));
+		}
+		try(var executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+			return this.getOutcomes(executor.invokeAll(tasks));
+		}
+	}
+
+	private List<SolveOutcome> getOutcomes(List<Future<SolveOutcome>> futures)
+		throws TileException, DimensionException, InterruptedException {
+		
+		var outcomes = new ArrayList<SolveOutcome>(futures.size());
+		for(var future : futures) {
+			try {
+				outcomes.add(future.get());
+			} catch(ExecutionException e) {
+				if(e.getCause() instanceof TileException tileException) {
+					throw tileException;
+				} else if(e.getCause() instanceof DimensionException dimensionException) {
+					throw dimensionException;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return outcomes;
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import dev.irzinfante.wfc4j.enums.Side1D;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * Generates unbounded 1-dimensional sequences of tiles, lazily. The sequence is solved as a sliding window of a fixed
+ * size on a single {@link EuclideanWFC1D} grid: the first cells of each solved window are committed and emitted,
+ * while the last ones, the lookahead, are only solved to make sure the committed cells can be continued, and are
+ * solved again as the start of the next window, whose first cell gets as initial entropy the tiles allowed next to
+ * the last committed tile. The memory depends on the size of the window and not on the length of the sequence.
+ * <p>
+ * The sequence only depends on the seed, so the same seed always gives the same sequence. It ends when no window
+ * continuing the committed tiles is found, which can only happen with tilemaps having tiles that can't be followed
+ * by long enough sequences
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class SequenceGenerator<T> {
+
+	private static final int ATTEMPTS = 8;
+
+	private final CompiledTileMap<T> tileMap;
+	private final int windowSize;
+	private final int lookahead;
+	private SolveBudget budget;
+
+	/**
+	 * Creates a generator of sequences solved in windows of the given size
+	 * 
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	windowSize The number of cells solved at once
+	 * @param	lookahead The number of cells at the end of each window that are solved but not committed
+	 * @throws	TileException If tileMap is null or not compiled from a 1-dimensional tilemap
+	 * @throws	DimensionException If windowSize is less than one, or lookahead is negative or not less than windowSize
+	 */
+	public SequenceGenerator(CompiledTileMap<T> tileMap, int windowSize, int lookahead) throws TileException, DimensionException {
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != Side1D.values().length) {
+			throw new TileException("TileMap must be compiled from a 1-dimensional tilemap");
+		} else if(windowSize < 1) {
+			throw new DimensionException("Invalid window size");
+		} else if(lookahead < 0 || lookahead >= windowSize) {
+			throw new DimensionException("Lookahead must leave at least one cell of the window to commit");
+		}
+		
+		this.tileMap = tileMap;
+		this.windowSize = windowSize;
+		this.lookahead = lookahead;
+		this.budget = SolveBudget.unlimited();
+	}
+
+	/**
+	 * Sets the budget of the run of each window, which is solved again with another seed, up to a few times, when
+	 * its run doesn't find a solution
+	 * 
+	 * @param	budget The budget, {@link SolveBudget#unlimited()} by default
+	 */
+	public void setBudget(SolveBudget budget) {
+		this.budget = budget;
+	}
+
+	public SolveBudget getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Get a lazy iterator over the sequence of the given seed, which solves a window each time it runs out of
+	 * committed tiles
+	 * 
+	 * @param	seed The seed of the sequence
+	 * @return	Iterator over the tiles of the sequence
+	 * @throws	TileException If the window can't be created with the tilemap
+	 * @throws	DimensionException If the window can't be created with its size
+	 */
+	public Iterator<Tile<T>> iterator(long seed) throws TileException, DimensionException {
+		return new Window(new EuclideanWFC1D<T>(this.tileMap, this.windowSize), seed);
+	}
+
+	/**
+	 * Get a lazy, sequential and ordered stream of the sequence of the given seed, usually limited with
+	 * {@link Stream#limit(long)}
+	 * 
+	 * @param	seed The seed of the sequence
+	 * @return	Stream of the tiles of the sequence
+	 * @throws	TileException If the window can't be created with the tilemap
+	 * @throws	DimensionException If the window can't be created with its size
+	 */
+	public Stream<Tile<T>> stream(long seed) throws TileException, DimensionException {
+		var spliterator = Spliterators.spliteratorUnknownSize(this.iterator(seed), Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Iterator over the committed tiles of the current window, solving the next one when they are all emitted
+	 */
+	private class Window implements Iterator<Tile<T>> {
+
+		private final EuclideanWFC1D<T> WFC;
+		private final long seed;
+		private List<Tile<T>> committed;
+		private int position;
+		private int previous;
+		private long windowIndex;
+		private boolean ended;
+
+		private Window(EuclideanWFC1D<T> WFC, long seed) {
+			this.WFC = WFC;
+			this.seed = seed;
+			this.committed = List.of();
+			this.previous = -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(this.position == this.committed.size() && !this.ended) {
+				try {
+					this.solveWindow();
+				} catch(TileException | DimensionException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return this.position < this.committed.size();
+		}
+
+		@Override
+		public Tile<T> next() {
+			if(!this.hasNext()) {
+				throw new NoSuchElementException("Sequence ended");
+			}
+			return this.committed.get(this.position++);
+		}
+
+		private void solveWindow() throws TileException, DimensionException {
+			var tileMap = SequenceGenerator.this.tileMap;
+			Map<Integer, Set<Tile<T>>> initialEntropy = new HashMap<>();
+			if(this.previous != -1) {
+				var adjacents = tileMap.getAdjacents(this.previous, Side1D.Right.getValue());
+				var tiles = new HashSet<Tile<T>>();
+				for(var tile = 0; tile < tileMap.getTilesNumber(); tile++) {
+					if((adjacents[tile / Long.SIZE] & 1L << tile) != 0) {
+						tiles.add(tileMap.getTile(tile));
+					}
+				}
+				if(tiles.isEmpty()) {
+					this.end();
+					return;
+				}
+				initialEntropy.put(0, tiles);
+			}
+			
+			var random = new SplittableRandom(this.seed ^ new SplittableRandom(this.windowIndex++).nextLong());
+			for(var attempt = 0; attempt < ATTEMPTS; attempt++) {
+				this.WFC.reset(initialEntropy);
+				var outcome = this.WFC.solve(SequenceGenerator.this.budget, random.split());
+				if(outcome == SolveOutcome.Solved) {
+					var grid = this.WFC.getGrid();
+					this.committed = new ArrayList<>(grid.subList(0, SequenceGenerator.this.windowSize - SequenceGenerator.this.lookahead));
+					this.position = 0;
+					this.previous = tileMap.getTileId(this.committed.get(this.committed.size() - 1));
+					return;
+				} else if(outcome == SolveOutcome.Unsatisfiable || outcome == SolveOutcome.Cancelled) {
+					break;
+				}
+			}
+			this.end();
+		}
+
+		private void end() {
+			this.committed = List.of();
+			this.position = 0;
+			this.ended = true;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.api;
+
+import dev.irzinfante.wfc4j.core.AbstractWFC;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+/**
+ * Creates the solvers used by {@link PortfolioSolver} and {@link BatchGenerator}, usually from a single
+ * {@link dev.irzinfante.wfc4j.model.CompiledTileMap} shared by all of them
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+@FunctionalInterface
+public interface SolverFactory<W extends AbstractWFC> {
+
+	/**
+	 * Creates a solver, setting the strategy for its position among the solvers
+	 * 
+	 * @param	index Position of the solver, from 0
+	 * @return	A new solver
+	 * @throws	TileException If the solver can't be created with its tilemap
+	 * @throws	DimensionException If the solver can't be created with its dimensions
+	 */
+	W create(int index) throws TileException, DimensionException;
+}
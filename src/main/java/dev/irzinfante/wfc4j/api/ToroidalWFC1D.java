@@ -22,15 +22,16 @@ import java.util.Map;
 import java.util.Set;
 
 import dev.irzinfante.wfc4j.core.AbstractWFC1D;
-import dev.irzinfante.wfc4j.enums.Side1D;
+import dev.irzinfante.wfc4j.core.Topology;
 import dev.irzinfante.wfc4j.exceptions.TileException;
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
 import dev.irzinfante.wfc4j.model.TileMap1D;
 import dev.irzinfante.wfc4j.model.Tile;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 final public class ToroidalWFC1D<T> extends AbstractWFC1D<T> {
@@ -47,7 +48,7 @@ final public class ToroidalWFC1D<T> extends AbstractWFC1D<T> {
 	 * @since	1.0.0
 	 */
 	public ToroidalWFC1D(TileMap1D<T> tileMap, int gridSizeX) throws TileException, DimensionException {
-		super(tileMap, gridSizeX);
+		super(tileMap, gridSizeX, Topology::toroidal);
 	}
 	
 	/**
@@ -68,26 +69,42 @@ final public class ToroidalWFC1D<T> extends AbstractWFC1D<T> {
 		int gridSizeX,
 		Map<Integer, Set<Tile<T>>> initialEntropy
 	) throws TileException, DimensionException {
-		super(tileMap, gridSizeX, initialEntropy);
+		super(tileMap, gridSizeX, initialEntropy, Topology::toroidal);
 	}
 
-	@Override
-	protected Integer getSideCellIndex(int cellIndex, Side1D side) {
-		switch(side) {
-			case Side1D.Left:
-				if(cellIndex == 0) {
-					return this.grid.length - 1;
-				} else {
-					return cellIndex - 1;
-				}
-			case Side1D.Right:
-				if(cellIndex == this.grid.length - 1) {
-					return 0;
-				} else {
-					return cellIndex + 1;
-				}
-			default:
-				return null;
-		}
+	/**
+	 * Creates a 1-dimensional euclidean grid on which to apply the WFC algorithm with the specified compiled tilemap
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis (1-dimensional)
+	 * @throws	TileException If tileMap is null or not compiled from a 1-dimensional tilemap
+	 * @throws	DimensionException If gridSizeX is less than one
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public ToroidalWFC1D(CompiledTileMap<T> tileMap, int gridSizeX) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, Topology::toroidal);
+	}
+	
+	/**
+	 * Creates a 1-dimensional toroidal grid (last cell touches first cell) on which to apply the WFC algorithm with the specified compiled tilemap,
+	 * initializing some cells with the given entropy
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis (1-dimensional)
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If tileMap is null or not compiled from a 1-dimensional tilemap
+	 * @throws	DimensionException If gridSizeX is less than one
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public ToroidalWFC1D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		Map<Integer, Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, initialEntropy, Topology::toroidal);
 	}
 }
\ No newline at end of file
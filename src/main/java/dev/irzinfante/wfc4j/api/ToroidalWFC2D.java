@@ -22,15 +22,16 @@ import java.util.Map;
 import java.util.Set;
 
 import dev.irzinfante.wfc4j.core.AbstractWFC2D;
-import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.core.Topology;
 import dev.irzinfante.wfc4j.exceptions.TileException;
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
 import dev.irzinfante.wfc4j.model.TileMap2D;
 import dev.irzinfante.wfc4j.model.Tile;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 final public class ToroidalWFC2D<T> extends AbstractWFC2D<T> {
@@ -48,7 +49,7 @@ final public class ToroidalWFC2D<T> extends AbstractWFC2D<T> {
 	 * @since	1.0.0
 	 */
 	public ToroidalWFC2D(TileMap2D<T> tileMap, int gridSizeX, int gridSizeY) throws TileException, DimensionException {
-		super(tileMap, gridSizeX, gridSizeY);
+		super(tileMap, gridSizeX, gridSizeY, Topology::toroidal);
 	}
 	
 	/**
@@ -71,38 +72,45 @@ final public class ToroidalWFC2D<T> extends AbstractWFC2D<T> {
 		int gridSizeY,
 		Map<Integer[], Set<Tile<T>>> initialEntropy
 	) throws TileException, DimensionException {
-		super(tileMap, gridSizeX, gridSizeY, initialEntropy);
+		super(tileMap, gridSizeX, gridSizeY, initialEntropy, Topology::toroidal);
 	}
 
-	@Override
-	protected Integer[] getSideCellIndex(Integer[] cellIndex, Side2D side) {
-		switch(side) {
-			case Side2D.Left:
-				if(cellIndex[1] == 0) {
-					return new Integer[] {cellIndex[0], this.grid[cellIndex[0]].length - 1};
-				} else {
-					return new Integer[] {cellIndex[0], cellIndex[1] - 1};
-				}
-			case Side2D.Right:
-				if(cellIndex[1] == this.grid[cellIndex[0]].length - 1) {
-					return new Integer[] {cellIndex[0], 0};
-				} else {
-					return new Integer[] {cellIndex[0], cellIndex[1] + 1};
-				}
-			case Side2D.Bottom:
-				if(cellIndex[0] < this.grid.length - 1) {
-					return new Integer[] {cellIndex[0] + 1, cellIndex[1]};
-				} else {
-					return new Integer[] {0, cellIndex[1]};
-				}
-			case Side2D.Top:
-				if(cellIndex[0] == 0) {
-					return new Integer[] {this.grid.length - 1, cellIndex[1]};
-				} else {
-					return new Integer[] {cellIndex[0] - 1, cellIndex[1]};
-				}
-			default:
-				return null;
-		}
+	/**
+	 * Creates a 2-dimensional toroidal grid (borders are stitched) on which to apply the WFC algorithm with the specified compiled tilemap
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeX The size of the grid in the Y axis
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap
+	 * @throws	DimensionException If gridSizeX or gridSizeY is less than one
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public ToroidalWFC2D(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, Topology::toroidal);
+	}
+	
+	/**
+	 * Creates a 2-dimensional toroidal grid (borders are stitched) on which to apply the WFC algorithm with the specified compiled tilemap,
+	 * initializing some cells with the given entropy
+	 *
+	 * @param	tileMap The compiled tilemap to use for the WFC algorithm
+	 * @param	gridSizeX The size of the grid in the X axis
+	 * @param	gridSizeY The size of the grid in the Y axis
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If tileMap is null or not compiled from a 2-dimensional tilemap or initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If gridSizeX or gridSizeY is less than one or initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public ToroidalWFC2D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		super(tileMap, gridSizeX, gridSizeY, initialEntropy, Topology::toroidal);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,1422 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.enums.SearchLimit;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Implementation of the WFC algorithm shared by the grids of every dimension. Cells are identified by their index
+ * in the flat arrays of the grid state and tiles by their id in the compiled tilemap, so no object is kept per cell.
+ * Entropies take as many {@code long} words as the tileset needs, so tilesets are not limited to 64 tiles.
+ * When the tiles have different weights, every cell also keeps the sums of the weights {@code w} and of
+ * {@code w * log(w)} of its possible tiles, which give its Shannon entropy and are updated as tiles are removed.
+ * Every cell also keeps the last decision level that reduced its entropy, so when a decision runs out of tiles the
+ * search can jump back to the latest decision involved in its conflicts instead of to the previous one.
+ * The whole state of a run can be written to a checkpoint file and restored later to resume the run
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+abstract public class AbstractWFC {
+
+	private static final int INITIAL_DECISIONS_CAPACITY = 64;
+	private static final double ENTROPY_NOISE = 1e-6;
+
+	private GridState grid;
+	private long[] entropies;
+	private EntropyIndex collapsableCells;
+	private EntropyHeap weightedCells;
+	private Trail trail;
+	private int[] reasons;
+	private int conflictCell;
+	private int[] decisionCells;
+	private int[] decisionConflicts;
+	private long[] decisionTiles;
+	private double[] decisionWeights;
+	private int decisions;
+	private double[] weights;
+	private double[] weightLogWeights;
+	private double[] weightSums;
+	private double[] weightLogWeightSums;
+	private double initialWeightSum;
+	private double initialWeightLogWeightSum;
+	private double[] entropyNoises;
+	private int[] gridSizes;
+	private int tilesNumber;
+	private int idBytes;
+	private int words;
+	private int[] sideCells;
+	private int[] oppositeSides;
+	private long[] adjacents;
+	private long[] sideEntropies;
+	private long[] tiles;
+	private long[] entropy;
+	private long[] entropyAdjacents;
+	private long[] removedTiles;
+	private long[] unsupportedTiles;
+	private CellQueue pendingCells;
+	private CellQueue pendingTiles;
+	private SplitMixRandom random;
+	private Propagation propagation;
+	private BitsetOperations bitsetOperations;
+	private boolean backjumping;
+	private SupportCounter supportCounter;
+	private SearchPolicy searchPolicy;
+	private int initialHeight;
+	private long attempt;
+	private boolean pending;
+	private long attemptLimit;
+	private long attemptBacktracks;
+	private long attemptDecisions;
+	private boolean limitReached;
+	private SolveBudget budget;
+	private long budgetStart;
+	private long budgetDecisions;
+	private long budgetBacktracks;
+	private SolveOutcome stopOutcome;
+	private volatile boolean cancelled;
+	private Path checkpointFile;
+	private long checkpointInterval;
+	private long lastCheckpoint;
+	private long backtracks;
+	private long totalDecisions;
+	private long restarts;
+
+	/**
+	 * Sets up the state of a grid where every cell can hold any tile. The subclasses validate their arguments before
+	 * building the topology they pass to it
+	 * 
+	 * @param	topology The adjacent cells of every cell of the grid
+	 * @param	tileMap The compiled tilemap, whose adjacency table and weights are shared by its grids
+	 * @param	initialEntropy Map from cell index to binary encoded possible tiles
+	 * @throws	DimensionException If the grid has too many cells for the entropies of the tiles of the tilemap
+	 */
+	protected AbstractWFC(Topology topology, CompiledTileMap<?> tileMap, Map<Integer, long[]> initialEntropy) throws DimensionException {
+		var cellsNumber = topology.getCellsNumber();
+		var tilesNumber = tileMap.getTilesNumber();
+		this.gridSizes = topology.getGridSizes();
+		this.grid = new GridState(cellsNumber, tilesNumber);
+		this.entropies = this.grid.getEntropies();
+		this.collapsableCells = new EntropyIndex(cellsNumber, tilesNumber);
+		this.collapsableCells.reset(tilesNumber);
+		this.tilesNumber = tilesNumber;
+		this.idBytes = tileMap.getIdBytes();
+		this.words = this.grid.getWords();
+		this.trail = new Trail(this.words, tileMap.isWeighted());
+		this.reasons = new int[cellsNumber];
+		this.decisionCells = new int[INITIAL_DECISIONS_CAPACITY];
+		this.decisionConflicts = new int[INITIAL_DECISIONS_CAPACITY];
+		this.decisionTiles = new long[INITIAL_DECISIONS_CAPACITY * this.words];
+		this.decisions = 0;
+		var tileTable = tileMap.getTileTable();
+		if(tileMap.isWeighted()) {
+			this.initializeWeights(tileTable.getWeights());
+		}
+		this.sideCells = topology.getSideCells();
+		this.oppositeSides = topology.getOppositeSides();
+		this.adjacents = tileTable.getAdjacents();
+		this.sideEntropies = new long[this.oppositeSides.length * this.words];
+		this.tiles = new long[this.words];
+		this.entropy = new long[this.words];
+		this.entropyAdjacents = new long[this.words];
+		this.removedTiles = new long[this.words];
+		this.unsupportedTiles = new long[this.words];
+		this.pendingCells = new CellQueue(0);
+		this.pendingTiles = new CellQueue(this.words);
+		this.propagation = Propagation.Adjacent;
+		this.searchPolicy = SearchPolicy.unlimited();
+		this.backjumping = true;
+		this.bitsetOperations = Bitsets.SCALAR;
+		this.setInitialEntropy(initialEntropy);
+	}
+
+	/**
+	 * Puts the grid back in the state it had when created without initial entropy, so it can be run again.
+	 * The settings and the counters are kept, and the arrays of the state are reused, so generating many grids of
+	 * the same size with one instance doesn't allocate them again
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void reset() {
+		this.grid.reset();
+		this.collapsableCells.reset(this.tilesNumber);
+		Arrays.fill(this.reasons, 0);
+		this.trail.clear();
+		this.decisions = 0;
+		if(this.weights != null) {
+			Arrays.fill(this.weightSums, this.initialWeightSum);
+			Arrays.fill(this.weightLogWeightSums, this.initialWeightLogWeightSum);
+		}
+		this.cancelled = false;
+		this.pending = false;
+		this.random = null;
+	}
+
+	/**
+	 * Restricts the possible tiles of a cell before running the WFC algorithm
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	entropy Binary encoded possible tiles, in as many words as needed for the tiles of the tilemap
+	 */
+	protected final void setInitialEntropy(int cell, long[] entropy) {
+		System.arraycopy(entropy, 0, this.entropies, cell * this.words, this.words);
+		this.collapsableCells.update(cell, Bitsets.bitCount(entropy, 0, this.words));
+		if(this.weights != null) {
+			this.weightSums[cell] = 0;
+			this.weightLogWeightSums[cell] = 0;
+			this.addWeights(cell, entropy, 0);
+		}
+	}
+
+	/**
+	 * Restricts the possible tiles of some cells before running the WFC algorithm
+	 * 
+	 * @param	initialEntropy Map from cell index to binary encoded possible tiles
+	 */
+	protected final void setInitialEntropy(Map<Integer, long[]> initialEntropy) {
+		for(var ieEntry : initialEntropy.entrySet()) {
+			this.setInitialEntropy(ieEntry.getKey(), ieEntry.getValue());
+		}
+	}
+	
+	/**
+	 * Runs the WFC algorithm to populate the tile values for the cells of the grid,
+	 * following the search policy to limit the backtracking and to restart the search.
+	 * The backtracking search keeps its pending decisions in a heap-allocated stack,
+	 * so the size of the grid is not limited by the size of the thread stack.
+	 * Each decision keeps the tiles still to be tried for its cell as a mask,
+	 * from which they are picked at random without allocating anything.
+	 * The random choices are made by a new {@link SplittableRandom} with a random seed
+	 * 
+	 * @return	Boolean indicating whether the algorithm finished successfully or not
+	 * 
+	 * @version	2.0.0
+	 * @since	1.0.0
+	 */
+	public boolean run() throws TileException {
+		return this.run(new SplittableRandom());
+	}
+
+	/**
+	 * Runs the WFC algorithm making the random choices with a {@link SplittableRandom} created with the given seed.
+	 * The same seed always gives the same grid for the same tilemap and settings
+	 * 
+	 * @param	seed The seed of the random generator
+	 * @return	Boolean indicating whether the algorithm finished successfully or not
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public boolean run(long seed) throws TileException {
+		return this.run(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Runs the WFC algorithm making the random choices from the given generator, which is only used by the thread
+	 * running the algorithm. The run draws a single seed from it for a generator of its own, whose state is saved by
+	 * the checkpoints. Restarted attempts keep drawing from the generator of the run, so they make different choices
+	 * but the whole run is still reproducible. Solvers running in parallel should get their own generators, e.g. split from a
+	 * {@link SplittableRandom} or from an {@code L64X128MixRandom}
+	 * 
+	 * @param	random The random generator
+	 * @return	Boolean indicating whether the algorithm finished successfully or not
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public boolean run(RandomGenerator random) throws TileException {
+		return this.solve(SolveBudget.unlimited(), random) == SolveOutcome.Solved;
+	}
+
+	/**
+	 * Runs the WFC algorithm within a budget, making the random choices with a new {@link SplittableRandom}
+	 * 
+	 * @param	budget The decisions, backtracks and time the run may take
+	 * @return	How the run ended
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome solve(SolveBudget budget) throws TileException {
+		return this.solve(budget, new SplittableRandom());
+	}
+
+	/**
+	 * Runs the WFC algorithm within a budget, making the random choices from the given generator, as
+	 * {@link #run(RandomGenerator)} does. The run also stops
+	 * when it is cancelled with {@link #cancel()} or its thread is interrupted, whose interrupted status is kept.
+	 * When it stops before the end, the cells collapsed so far are left in the grid, and solving it again reverts
+	 * their decisions to start over from the initial propagation, while {@link #resume(SolveBudget)} goes on with them
+	 * 
+	 * @param	budget The decisions, backtracks and time the run may take
+	 * @param	random The random generator
+	 * @return	How the run ended
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome solve(SolveBudget budget, RandomGenerator random) throws TileException {
+		if(this.decisions > 0 && (this.pending || (this.weights == null ? !this.collapsableCells.isEmpty() : !this.weightedCells.isEmpty()))) {
+			// The previous run stopped before the end, so its decisions are reverted to solve the grid from scratch
+			this.restart(this.initialHeight);
+		}
+		this.random = new SplitMixRandom(random.nextLong());
+		this.startBudget(budget);
+		this.pending = false;
+		if(this.weights != null) {
+			this.indexWeightedCells();
+		}
+		if(this.propagation == Propagation.AC3 && !this.propagateAllCells()) {
+			return SolveOutcome.Unsatisfiable;
+		} else if(this.propagation == Propagation.AC4 && !this.initializeSupports()) {
+			return SolveOutcome.Unsatisfiable;
+		}
+		
+		this.initialHeight = this.trail.size();
+		this.attempt = 0;
+		return this.searchAttempts(false);
+	}
+
+	/**
+	 * Resumes the run of the WFC algorithm that stopped before the end, or that was restored from a checkpoint, with
+	 * no limits
+	 * 
+	 * @return	How the run ended
+	 * @throws	IllegalStateException If the grid has not been run since it was created or reset, nor restored
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome resume() {
+		return this.resume(SolveBudget.unlimited());
+	}
+
+	/**
+	 * Resumes the run of the WFC algorithm that stopped before the end, or that was restored from a checkpoint, within
+	 * a new budget. The run goes on from the decision where it stopped, with the attempt of the search policy and
+	 * the random generator it had
+	 * 
+	 * @param	budget The decisions, backtracks and time the rest of the run may take
+	 * @return	How the run ended
+	 * @throws	IllegalStateException If the grid has not been run since it was created or reset, nor restored
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public SolveOutcome resume(SolveBudget budget) {
+		if(this.random == null) {
+			throw new IllegalStateException("There is no run to resume");
+		}
+		this.startBudget(budget);
+		return this.searchAttempts(true);
+	}
+
+	/**
+	 * Requests the run of the WFC algorithm to stop, from any thread. A run in progress, or the next one to start,
+	 * ends with {@link SolveOutcome#Cancelled} before its next decision or after its next backtrack.
+	 * The request is cleared by the run it stops, so the runs after it are not cancelled
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * Sets the policy that limits the backtracking of the search and restarts it
+	 * 
+	 * @param	searchPolicy The search policy, {@link SearchPolicy#unlimited()} by default
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setSearchPolicy(SearchPolicy searchPolicy) {
+		this.searchPolicy = searchPolicy;
+	}
+
+	public SearchPolicy getSearchPolicy() {
+		return this.searchPolicy;
+	}
+
+	/**
+	 * Sets the strategy used to propagate the collapse of each cell through the grid
+	 * 
+	 * @param	propagation The propagation strategy, {@link Propagation#Adjacent} by default
+	 * @throws	DimensionException If the grid has too many cells for the support counters of {@link Propagation#AC4}
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setPropagation(Propagation propagation) throws DimensionException {
+		this.createSupportCounter(propagation);
+		this.propagation = propagation;
+	}
+
+	public Propagation getPropagation() {
+		return this.propagation;
+	}
+
+	/**
+	 * Sets whether the mask operations of the propagation use the Vector API, which combines several words of the
+	 * entropies per instruction and pays off for tilesets of some hundreds of tiles. It only takes effect when the
+	 * library is built with the {@code vector} Maven profile ({@code mvn -Pvector package}) and the JVM is started with
+	 * {@code --add-modules jdk.incubator.vector}. The default artifact doesn't contain the Vector API operations, so
+	 * with it the scalar operations are used regardless, which {@link #isVectorized()} tells
+	 * 
+	 * @param	vectorized Whether to use the Vector API if available, false by default
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setVectorized(boolean vectorized) {
+		this.bitsetOperations = vectorized && Bitsets.VECTOR != null ? Bitsets.VECTOR : Bitsets.SCALAR;
+	}
+
+	/**
+	 * Get whether the mask operations of the propagation use the Vector API
+	 * 
+	 * @return	False if not requested or if the Vector API operations are not available
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public boolean isVectorized() {
+		return this.bitsetOperations != Bitsets.SCALAR;
+	}
+
+	/**
+	 * Sets whether a decision that runs out of tiles reverts every decision after the latest one that reduced the
+	 * entropy of the cells involved in its conflicts, instead of only the previous decision. Decisions in between
+	 * had nothing to do with the conflicts, so trying other tiles for them would fail the same way
+	 * 
+	 * @param	backjumping Whether to jump back over unrelated decisions, true by default
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setBackjumping(boolean backjumping) {
+		this.backjumping = backjumping;
+	}
+
+	public boolean isBackjumping() {
+		return this.backjumping;
+	}
+
+	/**
+	 * Get the number of collapsed cells that had to be reverted during the runs of the WFC algorithm, either to try
+	 * another tile for them or because no tile was left for the cell collapsed after them
+	 * 
+	 * @return	Number of backtracks
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long getBacktracks() {
+		return this.backtracks;
+	}
+
+	/**
+	 * Get the number of cells chosen to be collapsed during the runs of the WFC algorithm,
+	 * including the ones reverted afterwards
+	 * 
+	 * @return	Number of decisions
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long getDecisions() {
+		return this.totalDecisions;
+	}
+
+	/**
+	 * Get the number of times the search was started again from the initial grid during the runs of the
+	 * WFC algorithm, because an attempt reached the limit of the search policy
+	 * 
+	 * @return	Number of restarts
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long getRestarts() {
+		return this.restarts;
+	}
+
+	/**
+	 * Sets a file where the runs write a checkpoint of their state periodically, before a decision, so a run that is
+	 * lost can be resumed from the last one with {@link #restore(Path)}. Each checkpoint is written to a temporary
+	 * file next to it and then moved over it, so the file always holds a complete checkpoint. A checkpoint that
+	 * can't be written ends the run with an {@link UncheckedIOException}
+	 * 
+	 * @param	checkpointFile The file of the checkpoints, or null to disable them, which is the default
+	 * @param	checkpointInterval The minimum time between the start of the run, or the end of a checkpoint, and the
+	 * 			next checkpoint
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setCheckpoint(Path checkpointFile, Duration checkpointInterval) {
+		if(checkpointInterval.isNegative()) {
+			throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+		}
+		this.checkpointFile = checkpointFile;
+		this.checkpointInterval = checkpointInterval.toNanos();
+	}
+
+	public Path getCheckpointFile() {
+		return this.checkpointFile;
+	}
+
+	public Duration getCheckpointInterval() {
+		return Duration.ofNanos(this.checkpointInterval);
+	}
+
+	/**
+	 * Writes the state of the run to a binary file through a {@link java.nio.channels.FileChannel}: the entropies
+	 * and tiles of the cells, the index of the cells to collapse, the trail, the decision stack, the counters and the
+	 * attempt of the search policy, and the state of the random generator of the run, which is saved without drawing
+	 * from it, so writing a checkpoint doesn't change the choices of the run and a restored run makes the same choices
+	 * as the run that wrote the checkpoint. Must not be called while the grid is running in another thread
+	 * 
+	 * @param	file The file to write, which is replaced
+	 * @throws	IOException If the file can't be written
+	 * @throws	IllegalStateException If the grid has not been run since it was created or reset, nor restored
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void checkpoint(Path file) throws IOException {
+		if(this.random == null) {
+			throw new IllegalStateException("There is no run to checkpoint");
+		}
+		var cellsNumber = this.grid.getCellsNumber();
+		var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try(var writer = new Checkpoint.Writer(temporaryFile)) {
+			writer.putInt(Checkpoint.MAGIC);
+			writer.putInt(Checkpoint.VERSION);
+			writer.putInt(this.gridSizes.length);
+			for(var gridSize : this.gridSizes) {
+				writer.putInt(gridSize);
+			}
+			writer.putInt(this.tilesNumber);
+			writer.putInt(this.words);
+			writer.putInt(this.oppositeSides.length);
+			writer.putInt(this.getTileMapHash());
+			writer.putInt(this.propagation.ordinal());
+			
+			writer.putLong(this.random.getState());
+			writer.putInt(this.initialHeight);
+			writer.putLong(this.attempt);
+			writer.putInt(this.pending ? 1 : 0);
+			writer.putLong(this.attemptLimit);
+			writer.putLong(this.attemptBacktracks);
+			writer.putLong(this.attemptDecisions);
+			writer.putLong(this.backtracks);
+			writer.putLong(this.totalDecisions);
+			writer.putLong(this.restarts);
+			
+			this.grid.write(writer);
+			writer.putInts(this.reasons, cellsNumber);
+			this.collapsableCells.write(writer);
+			this.trail.write(writer);
+			writer.putInt(this.decisions);
+			writer.putInts(this.decisionCells, this.decisions);
+			writer.putInts(this.decisionConflicts, this.decisions);
+			writer.putLongs(this.decisionTiles, this.decisions * this.words);
+			if(this.weights != null) {
+				writer.putDoubles(this.decisionWeights, this.decisions);
+				writer.putDoubles(this.weightSums, cellsNumber);
+				writer.putDoubles(this.weightLogWeightSums, cellsNumber);
+				writer.putDoubles(this.entropyNoises, cellsNumber);
+			}
+			if(this.propagation == Propagation.AC4) {
+				this.supportCounter.write(writer);
+			}
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Replaces the state of the grid with the one of a checkpoint of a grid of the same size and tilemap, which is read
+	 * mapping the file in memory, so the run can be resumed with {@link #resume(SolveBudget)}. The propagation is set
+	 * to the one of the checkpoint, while the other settings are kept. The whole file is checked before replacing
+	 * anything, so when the checkpoint can't be restored the grid is left as it was
+	 * 
+	 * @param	file The checkpoint file
+	 * @throws	IOException If the file can't be read, is not a checkpoint, or is truncated or corrupt
+	 * @throws	TileException If the checkpoint was written with another tilemap
+	 * @throws	DimensionException If the checkpoint was written by a grid of another size or number of dimensions
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void restore(Path file) throws IOException, TileException, DimensionException {
+		var cellsNumber = this.grid.getCellsNumber();
+		var reader = new Checkpoint.Reader(file);
+		try {
+			if(reader.getInt() != Checkpoint.MAGIC) {
+				throw new IOException("Not a checkpoint file");
+			} else if(reader.getInt() != Checkpoint.VERSION) {
+				throw new IOException("Unsupported checkpoint version");
+			} else if(reader.getInt() != this.gridSizes.length) {
+				throw new DimensionException("Checkpoint was written by a grid of another number of dimensions");
+			}
+			for(var gridSize : this.gridSizes) {
+				if(reader.getInt() != gridSize) {
+					throw new DimensionException("Checkpoint was written by a grid of another size");
+				}
+			}
+			if(
+				reader.getInt() != this.tilesNumber ||
+				reader.getInt() != this.words ||
+				reader.getInt() != this.oppositeSides.length ||
+				reader.getInt() != this.getTileMapHash()
+			) {
+				throw new TileException("Checkpoint was written with another tilemap");
+			}
+			var propagationOrdinal = reader.getInt();
+			if(propagationOrdinal < 0 || propagationOrdinal >= Propagation.values().length) {
+				throw new IOException("Corrupt checkpoint: unknown propagation");
+			}
+			var propagation = Propagation.values()[propagationOrdinal];
+			this.createSupportCounter(propagation);
+			
+			// The whole checkpoint is checked before changing anything, so a checkpoint that can't be restored leaves the
+			// state of the grid as it was
+			var start = reader.position();
+			this.skipState(reader, propagation);
+			if(reader.hasRemaining()) {
+				throw new IOException("Corrupt checkpoint: unexpected data after the end");
+			}
+			reader.position(start);
+			
+			this.propagation = propagation;
+			this.random = new SplitMixRandom(reader.getLong());
+			this.initialHeight = reader.getInt();
+			this.attempt = reader.getLong();
+			this.pending = reader.getInt() != 0;
+			this.attemptLimit = reader.getLong();
+			this.attemptBacktracks = reader.getLong();
+			this.attemptDecisions = reader.getLong();
+			this.backtracks = reader.getLong();
+			this.totalDecisions = reader.getLong();
+			this.restarts = reader.getLong();
+			
+			this.grid.read(reader);
+			reader.getInts(this.reasons, cellsNumber);
+			this.collapsableCells.read(reader);
+			this.trail.read(reader);
+			this.decisions = reader.getInt();
+			while(this.decisionCells.length < this.decisions) {
+				this.growDecisions();
+			}
+			reader.getInts(this.decisionCells, this.decisions);
+			reader.getInts(this.decisionConflicts, this.decisions);
+			reader.getLongs(this.decisionTiles, this.decisions * this.words);
+			if(this.weights != null) {
+				reader.getDoubles(this.decisionWeights, this.decisions);
+				reader.getDoubles(this.weightSums, cellsNumber);
+				reader.getDoubles(this.weightLogWeightSums, cellsNumber);
+				reader.getDoubles(this.entropyNoises, cellsNumber);
+				this.restoreWeightedCells();
+			}
+			if(this.propagation == Propagation.AC4) {
+				this.supportCounter.read(reader);
+			}
+		} catch(BufferUnderflowException e) {
+			throw new IOException("Truncated checkpoint", e);
+		}
+	}
+
+	/**
+	 * Skips the state of the run written in a checkpoint after its header, checking the sizes of its sections against
+	 * the grid, the decision levels of the search against the ones of the trail and the end of the file without
+	 * changing anything
+	 */
+	private void skipState(Checkpoint.Reader reader, Propagation propagation) throws IOException {
+		var cellsNumber = this.grid.getCellsNumber();
+		reader.skip(1, Long.BYTES);
+		var initialHeight = reader.getInt();
+		if(initialHeight < 0) {
+			throw new IOException("Corrupt checkpoint: negative initial height of the trail");
+		}
+		reader.skip(1, Long.BYTES);
+		reader.skip(1, Integer.BYTES);
+		reader.skip(6, Long.BYTES);
+		
+		this.grid.skip(reader);
+		var maxReason = 0;
+		for(var cell = 0; cell < cellsNumber; cell++) {
+			var reason = reader.getInt();
+			if(reason < 0) {
+				throw new IOException("Corrupt checkpoint: negative reason of a cell");
+			}
+			maxReason = Math.max(maxReason, reason);
+		}
+		this.collapsableCells.skip(reader);
+		var depth = this.trail.skip(reader, cellsNumber, initialHeight);
+		var decisions = reader.getInt();
+		if(decisions < 0 || decisions > cellsNumber) {
+			throw new IOException("Corrupt checkpoint: wrong number of decisions");
+		} else if(decisions != depth) {
+			throw new IOException("Corrupt checkpoint: decisions don't match the decision levels of the trail");
+		} else if(maxReason > decisions) {
+			throw new IOException("Corrupt checkpoint: reason of a cell beyond the decisions");
+		}
+		for(var decision = 0; decision < decisions; decision++) {
+			var cell = reader.getInt();
+			if(cell < 0 || cell >= cellsNumber) {
+				throw new IOException("Corrupt checkpoint: decision on a cell outside the grid");
+			}
+		}
+		for(var decision = 0; decision < decisions; decision++) {
+			var conflict = reader.getInt();
+			if(conflict < 0 || conflict > decision) {
+				throw new IOException("Corrupt checkpoint: conflict level of a decision beyond it");
+			}
+		}
+		reader.skip((long) decisions * this.words, Long.BYTES);
+		if(this.weights != null) {
+			reader.skip(decisions + 3L * cellsNumber, Double.BYTES);
+		}
+		if(propagation == Propagation.AC4) {
+			this.supportCounter.skip(reader);
+		}
+	}
+
+	/**
+	 * Get the tiles of the grid as the ids of the tiles in the compiled tilemap, indexed by cell like the grid state,
+	 * e.g. {@code indX * gridSizeY + indY} in 2 dimensions, without creating any tile list
+	 * 
+	 * @return	Copy of the ids of the tiles, -1 for the cells not collapsed
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int[] getTileIndices() {
+		return this.grid.getTiles().clone();
+	}
+
+	/**
+	 * Get the tiles of the grid as {@link #getTileIndices()} in half the memory, for tilemaps of up to
+	 * {@code Short.MAX_VALUE + 1} tiles
+	 * 
+	 * @return	Copy of the ids of the tiles, -1 for the cells not collapsed
+	 * @throws	IllegalStateException If the ids of the tiles don't fit in a {@code short}
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public short[] getShortTileIndices() {
+		if(this.idBytes > Short.BYTES) {
+			throw new IllegalStateException("Tile ids don't fit in a short");
+		}
+		var tiles = this.grid.getTiles();
+		var tileIndices = new short[tiles.length];
+		for(var cell = 0; cell < tiles.length; cell++) {
+			tileIndices[cell] = (short) tiles[cell];
+		}
+		return tileIndices;
+	}
+
+	/**
+	 * Get the tiles of the grid as {@link #getTileIndices()} in a quarter of the memory, for tilemaps of up to
+	 * {@code Byte.MAX_VALUE + 1} tiles
+	 * 
+	 * @return	Copy of the ids of the tiles, -1 for the cells not collapsed
+	 * @throws	IllegalStateException If the ids of the tiles don't fit in a {@code byte}
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public byte[] getByteTileIndices() {
+		if(this.idBytes > Byte.BYTES) {
+			throw new IllegalStateException("Tile ids don't fit in a byte");
+		}
+		var tiles = this.grid.getTiles();
+		var tileIndices = new byte[tiles.length];
+		for(var cell = 0; cell < tiles.length; cell++) {
+			tileIndices[cell] = (byte) tiles[cell];
+		}
+		return tileIndices;
+	}
+
+	/**
+	 * Get the tiles of the grid as {@link #getTileIndices()} in the narrowest type that fits the ids of the tilemap,
+	 * given by {@link CompiledTileMap#getIdBytes()}
+	 * 
+	 * @return	{@link ByteBuffer}, {@link ShortBuffer} or {@link IntBuffer} wrapping a copy of the ids of the tiles, -1
+	 * 			for the cells not collapsed
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public Buffer getCompactTileIndices() {
+		switch(this.idBytes) {
+			case Byte.BYTES:
+				return ByteBuffer.wrap(this.getByteTileIndices());
+			case Short.BYTES:
+				return ShortBuffer.wrap(this.getShortTileIndices());
+			default:
+				return IntBuffer.wrap(this.getTileIndices());
+		}
+	}
+
+	/**
+	 * Get a read-only view of the ids of the tiles of the grid, indexed by cell as {@link #getTileIndices()}, which
+	 * shares the array of the grid state instead of copying it, so it shows the changes of later runs
+	 * 
+	 * @return	View of the ids of the tiles, -1 for the cells not collapsed
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public IntBuffer getTileView() {
+		return IntBuffer.wrap(this.grid.getTiles()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Get the tile a cell collapsed to
+	 * 
+	 * @param	cell Index of the cell
+	 * @return	Index of the tile in the tileset, or -1 if the cell is not collapsed
+	 */
+	protected final int getTile(int cell) {
+		return this.grid.getTile(cell);
+	}
+
+	/**
+	 * Collapses a cell to a tile outside of a run, e.g. to copy into the grid the solution of a part of it solved
+	 * separately. The tiles of the other cells are not propagated
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	tile Index of the tile in the tileset
+	 */
+	protected final void setTile(int cell, int tile) {
+		Bitsets.clear(this.tiles, 0, this.words);
+		Bitsets.add(this.tiles, 0, tile);
+		this.setInitialEntropy(cell, this.tiles);
+		this.collapsableCells.remove(cell);
+		this.grid.setTile(cell, tile);
+	}
+
+	private void initializeWeights(double[] weights) {
+		this.weights = weights;
+		this.weightLogWeights = new double[weights.length];
+		var weightSum = 0.0;
+		var weightLogWeightSum = 0.0;
+		for(var tile = 0; tile < weights.length; tile++) {
+			this.weightLogWeights[tile] = weights[tile] * Math.log(weights[tile]);
+			weightSum += weights[tile];
+			weightLogWeightSum += this.weightLogWeights[tile];
+		}
+		
+		this.initialWeightSum = weightSum;
+		this.initialWeightLogWeightSum = weightLogWeightSum;
+		this.weightSums = new double[this.grid.getCellsNumber()];
+		this.weightLogWeightSums = new double[this.grid.getCellsNumber()];
+		Arrays.fill(this.weightSums, weightSum);
+		Arrays.fill(this.weightLogWeightSums, weightLogWeightSum);
+		this.entropyNoises = new double[this.grid.getCellsNumber()];
+		this.decisionWeights = new double[INITIAL_DECISIONS_CAPACITY];
+	}
+
+	private void indexWeightedCells() {
+		this.clearWeightedCells();
+		for(var cell = 0; cell < this.grid.getCellsNumber(); cell++) {
+			this.entropyNoises[cell] = this.random.nextDouble() * ENTROPY_NOISE;
+			if(this.collapsableCells.contains(cell)) {
+				this.weightedCells.add(cell, this.getShannonEntropy(cell));
+			}
+		}
+	}
+
+	/**
+	 * Empties the index of weighted cells, which is only allocated by the first run so the next ones reuse it
+	 */
+	private void clearWeightedCells() {
+		if(this.weightedCells == null) {
+			this.weightedCells = new EntropyHeap(this.grid.getCellsNumber());
+		} else {
+			this.weightedCells.clear();
+		}
+	}
+
+	private double getShannonEntropy(int cell) {
+		var weightSum = this.weightSums[cell];
+		return Math.log(weightSum) - this.weightLogWeightSums[cell] / weightSum + this.entropyNoises[cell];
+	}
+
+	/**
+	 * Runs one attempt of the backtracking search, which stops when the counter limited by the search policy goes
+	 * over the given limit
+	 */
+	private boolean search(long limit, boolean resuming) {
+		this.attemptLimit = limit;
+		if(!resuming) {
+			this.attemptBacktracks = 0;
+			this.attemptDecisions = 0;
+		}
+		this.limitReached = false;
+		var decisionLimit = this.searchPolicy.getLimit() == SearchLimit.Decisions;
+		while(this.pending || (this.weights == null ? !this.collapsableCells.isEmpty() : !this.weightedCells.isEmpty())) {
+			if(!this.pending) {
+				if(this.checkpointFile != null && System.nanoTime() - this.lastCheckpoint >= this.checkpointInterval) {
+					this.writeCheckpoint();
+				}
+				if(decisionLimit && this.attemptDecisions++ >= limit) {
+					this.limitReached = true;
+					return false;
+				} else if(this.isStopped(true)) {
+					return false;
+				}
+				var cell = this.nextCell();
+				this.pushDecision(cell);
+				this.trail.pushLevel();
+				this.totalDecisions++;
+				// The decision waits for a tile until one is collapsed, also when the run stops while backtracking
+				this.pending = true;
+			}
+			
+			while(!this.collapseNextTile()) {
+				if(this.limitReached) {
+					return false;
+				}
+				var level = this.backjumping ? this.decisionConflicts[this.decisions - 1] : this.decisions - 1;
+				this.popDecision();
+				while(this.decisions > level) {
+					this.revert();
+					this.popDecision();
+				}
+				if(this.decisions == 0) {
+					// The conflicts don't depend on any decision, so there is no solution whatever the limit
+					this.pending = false;
+					this.limitReached = false;
+					this.stopOutcome = null;
+					return false;
+				}
+				this.revert();
+				// The conflicts of the reverted decisions may involve earlier decisions too, so when this one runs out of
+				// tiles it goes back to the previous decision at least
+				this.decisionConflicts[this.decisions - 1] = Math.max(this.decisionConflicts[this.decisions - 1], this.decisions - 1);
+				if(this.limitReached) {
+					return false;
+				}
+			}
+			this.pending = false;
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the attempts of the search policy from the current one, restarting the search between them
+	 * 
+	 * @param	resuming Whether the current attempt goes on from where it stopped
+	 */
+	private SolveOutcome searchAttempts(boolean resuming) {
+		for(; ; this.attempt++) {
+			if(this.search(this.searchPolicy.getLimit(this.attempt), resuming)) {
+				return SolveOutcome.Solved;
+			} else if(this.stopOutcome != null) {
+				return this.stopOutcome;
+			} else if(!this.limitReached) {
+				return SolveOutcome.Unsatisfiable;
+			} else if(this.attempt == this.searchPolicy.getMaxRestarts()) {
+				return SolveOutcome.LimitReached;
+			}
+			this.restart(this.initialHeight);
+			this.restarts++;
+			resuming = false;
+		}
+	}
+
+	private void startBudget(SolveBudget budget) {
+		this.budget = budget;
+		this.budgetStart = System.nanoTime();
+		this.budgetDecisions = this.totalDecisions;
+		this.budgetBacktracks = this.backtracks;
+		this.stopOutcome = null;
+		this.lastCheckpoint = this.budgetStart;
+	}
+
+	private void writeCheckpoint() {
+		try {
+			this.checkpoint(this.checkpointFile);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.lastCheckpoint = System.nanoTime();
+	}
+
+	/**
+	 * Hash of the adjacencies and weights of the tilemap, to check that a checkpoint is restored with the same tilemap
+	 */
+	private int getTileMapHash() {
+		return 31 * Arrays.hashCode(this.adjacents) + (this.weights == null ? 0 : Arrays.hashCode(this.weights));
+	}
+
+	/**
+	 * Rebuilds the index of weighted cells of a restored run from the restored sums and noises, with the cells of the
+	 * restored index of cells to collapse, as when the run started, but the ones of the decisions, which are removed
+	 * from the index while they are on the stack
+	 */
+	private void restoreWeightedCells() {
+		this.clearWeightedCells();
+		var decided = new boolean[this.grid.getCellsNumber()];
+		for(var decision = 0; decision < this.decisions; decision++) {
+			decided[this.decisionCells[decision]] = true;
+		}
+		for(var cell = 0; cell < this.grid.getCellsNumber(); cell++) {
+			if(!decided[cell] && this.collapsableCells.contains(cell)) {
+				this.weightedCells.add(cell, this.getShannonEntropy(cell));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the run has to stop because it was cancelled or it spent its budget, in which case the search
+	 * is also marked as having reached its limit
+	 * 
+	 * @param	deciding Whether the check is made before a decision, to check the decisions of the budget,
+	 * 			or before counting a backtrack, to check its backtracks
+	 */
+	private boolean isStopped(boolean deciding) {
+		if(this.cancelled || Thread.currentThread().isInterrupted()) {
+			this.cancelled = false;
+			this.stopOutcome = SolveOutcome.Cancelled;
+		} else if(deciding
+			? this.totalDecisions - this.budgetDecisions >= this.budget.getMaxDecisions()
+			: this.backtracks - this.budgetBacktracks >= this.budget.getMaxBacktracks()
+		) {
+			this.stopOutcome = SolveOutcome.LimitReached;
+		} else if(this.budget.getTimeoutNanos() != Long.MAX_VALUE && System.nanoTime() - this.budgetStart > this.budget.getTimeoutNanos()) {
+			this.stopOutcome = SolveOutcome.Timeout;
+		}
+		
+		if(this.stopOutcome != null) {
+			this.limitReached = true;
+		}
+		return this.stopOutcome != null;
+	}
+
+	/**
+	 * Reverts every decision of the search, leaving the grid as it was after the initial propagation
+	 */
+	private void restart(int initialHeight) {
+		this.rollback(initialHeight);
+		while(this.decisions > 0) {
+			this.grid.setTile(this.decisionCells[this.decisions - 1], -1);
+			this.popDecision();
+		}
+		this.pending = false;
+	}
+
+	private int nextCell() {
+		if(this.weights == null) {
+			var cell = this.collapsableCells.randomMinimum(this.random);
+			this.collapsableCells.remove(cell);
+			return cell;
+		}
+		var cell = this.weightedCells.minimum();
+		this.weightedCells.remove(cell);
+		return cell;
+	}
+
+	private void indexCell(int cell) {
+		if(this.weights == null) {
+			this.collapsableCells.add(cell, this.getBitCount(cell));
+		} else {
+			this.weightedCells.add(cell, this.getShannonEntropy(cell));
+		}
+	}
+
+	private void updateCell(int cell) {
+		if(this.weights == null) {
+			this.collapsableCells.update(cell, this.getBitCount(cell));
+		} else {
+			this.weightedCells.update(cell, this.getShannonEntropy(cell));
+		}
+	}
+
+	private void pushDecision(int cell) {
+		if(this.decisions == this.decisionCells.length) {
+			this.growDecisions();
+		}
+		this.decisionCells[this.decisions] = cell;
+		this.decisionConflicts[this.decisions] = this.reasons[cell];
+		System.arraycopy(this.entropies, cell * this.words, this.decisionTiles, this.decisions * this.words, this.words);
+		if(this.weights != null) {
+			this.decisionWeights[this.decisions] = this.weightSums[cell];
+		}
+		this.decisions++;
+	}
+
+	private void growDecisions() {
+		var capacity = this.decisionCells.length * 2;
+		this.decisionCells = Arrays.copyOf(this.decisionCells, capacity);
+		this.decisionConflicts = Arrays.copyOf(this.decisionConflicts, capacity);
+		this.decisionTiles = Arrays.copyOf(this.decisionTiles, capacity * this.words);
+		if(this.weights != null) {
+			this.decisionWeights = Arrays.copyOf(this.decisionWeights, capacity);
+		}
+	}
+
+	/**
+	 * Removes the last decision, whose tiles have been reverted, putting its cell back in the index
+	 */
+	private void popDecision() {
+		var cell = this.decisionCells[--this.decisions];
+		this.trail.popLevel();
+		this.indexCell(cell);
+	}
+
+	private boolean collapseNextTile() {
+		var decision = this.decisions - 1;
+		var cell = this.decisionCells[decision];
+		var offset = decision * this.words;
+		for(var remaining = Bitsets.bitCount(this.decisionTiles, offset, this.words); remaining > 0; remaining--) {
+			int tile;
+			if(this.weights == null) {
+				tile = Bitsets.select(this.decisionTiles, offset, this.words, this.random.nextInt(remaining));
+			} else {
+				tile = this.selectWeighted(offset, this.random.nextDouble() * this.decisionWeights[decision]);
+				this.decisionWeights[decision] -= this.weights[tile];
+			}
+			Bitsets.remove(this.decisionTiles, offset, tile);
+			if(this.collapseAndPropagate(cell, tile)) {
+				return true;
+			} else if(this.backjumping) {
+				this.decisionConflicts[decision] = Math.max(this.decisionConflicts[decision], this.getConflictLevel());
+			}
+			this.revert();
+			if(this.limitReached) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the tile reached by a given weight when adding up the weights of the tiles still to be tried
+	 * for a decision, so each tile is chosen with a probability proportional to its weight
+	 */
+	private int selectWeighted(int offset, double weight) {
+		var tile = -1;
+		for(var word = 0; word < this.words; word++) {
+			for(var remaining = this.decisionTiles[offset + word]; remaining != 0; remaining &= remaining - 1) {
+				tile = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+				weight -= this.weights[tile];
+				if(weight < 0) {
+					return tile;
+				}
+			}
+		}
+		return tile;
+	}
+
+	/**
+	 * Get the latest decision level, before the current one, that reduced the entropy of the cell left without tiles
+	 * or of any cell changed by the current decision. Reductions made at a level only depend on the decisions up to it,
+	 * so the conflict would happen the same with any other tiles for the decisions after the returned level
+	 */
+	private int getConflictLevel() {
+		var level = this.decisions;
+		var conflictLevel = this.reasons[this.conflictCell] < level ? this.reasons[this.conflictCell] : 0;
+		for(var entry = this.trail.getLevelStart(); entry < this.trail.size(); entry++) {
+			var reason = this.trail.getReason(entry);
+			if(reason < level && reason > conflictLevel) {
+				conflictLevel = reason;
+			}
+		}
+		return conflictLevel;
+	}
+
+	private boolean collapseAndPropagate(int cell, int tile) {
+		this.grid.setTile(cell, tile);
+		
+		if(this.propagation == Propagation.AC3) {
+			Bitsets.clear(this.tiles, 0, this.words);
+			Bitsets.add(this.tiles, 0, tile);
+			this.setEntropy(cell, this.tiles, 0);
+			
+			this.pendingCells.clear();
+			this.pendingCells.add(cell);
+			return this.propagate();
+		} else if(this.propagation == Propagation.AC4) {
+			this.pendingTiles.clear();
+			System.arraycopy(this.entropies, cell * this.words, this.tiles, 0, this.words);
+			this.tiles[tile / Long.SIZE] &= ~(1L << tile);
+			this.removeTiles(cell, this.tiles);
+			return this.propagateSupports();
+		}
+		
+		for(var side = 0; side < this.oppositeSides.length; side++) {
+			var sideCell = this.getSideCell(cell, side);
+			if(sideCell != -1 && !this.and(
+				this.sideEntropies, side * this.words,
+				this.entropies, sideCell * this.words,
+				this.adjacents, (tile * this.oppositeSides.length + side) * this.words
+			)) {
+				this.conflictCell = sideCell;
+				return false;
+			}
+		}
+		
+		for(var side = 0; side < this.oppositeSides.length; side++) {
+			var sideCell = this.getSideCell(cell, side);
+			if(sideCell != -1) {
+				this.setEntropy(sideCell, this.sideEntropies, side * this.words);
+			}
+		}
+		return true;
+	}
+
+	private boolean propagate() {
+		while(!this.pendingCells.isEmpty()) {
+			var cell = this.pendingCells.poll();
+			for(var side = 0; side < this.oppositeSides.length; side++) {
+				var sideCell = this.getSideCell(cell, side);
+				if(sideCell != -1) {
+					this.setEntropyAdjacents(cell, side);
+					if(!this.and(this.entropy, 0, this.entropies, sideCell * this.words, this.entropyAdjacents, 0)) {
+						this.conflictCell = sideCell;
+						return false;
+					} else if(!this.equals(this.entropy, 0, this.entropies, sideCell * this.words)) {
+						this.setEntropy(sideCell, this.entropy, 0);
+						this.pendingCells.add(sideCell);
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private void setEntropyAdjacents(int cell, int side) {
+		Bitsets.clear(this.entropyAdjacents, 0, this.words);
+		var offset = cell * this.words;
+		for(var word = 0; word < this.words; word++) {
+			for(var remaining = this.entropies[offset + word]; remaining != 0; remaining &= remaining - 1) {
+				var tile = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+				this.or(this.entropyAdjacents, 0, this.adjacents, (tile * this.oppositeSides.length + side) * this.words);
+			}
+		}
+	}
+
+	/**
+	 * Creates the support counters the first time the AC-4 propagation is used, so they are reused by the next runs
+	 */
+	private void createSupportCounter(Propagation propagation) throws DimensionException {
+		if(propagation == Propagation.AC4 && this.supportCounter == null) {
+			this.supportCounter = new SupportCounter(this.adjacents, this.tilesNumber, this.oppositeSides, this.grid.getCellsNumber());
+		}
+	}
+
+	private boolean initializeSupports() {
+		this.supportCounter.reset();
+		
+		this.pendingTiles.clear();
+		Bitsets.fill(this.entropy, 0, this.tilesNumber);
+		for(var cell = 0; cell < this.grid.getCellsNumber(); cell++) {
+			Bitsets.andNot(this.tiles, 0, this.entropy, 0, this.entropies, cell * this.words, this.words);
+			for(var side = 0; side < this.oppositeSides.length; side++) {
+				var sideCell = this.getSideCell(cell, side);
+				if(sideCell != -1) {
+					this.supportCounter.getUnsupportedTiles(side, this.unsupportedTiles);
+					this.supportCounter.removeSupports(sideCell, side, this.tiles, 0, this.unsupportedTiles);
+					if(!Bitsets.isEmpty(this.unsupportedTiles, 0, this.words)) {
+						this.pendingTiles.add(sideCell, this.unsupportedTiles, 0);
+					}
+				}
+			}
+		}
+		return this.propagateSupports();
+	}
+
+	/**
+	 * Removes the tiles pending in the queue of the AC-4 propagation from their cells, until the queue is empty or a
+	 * cell is left without tiles. Each entry is polled into a buffer that is reused, so nothing is allocated
+	 */
+	private boolean propagateSupports() {
+		while(!this.pendingTiles.isEmpty()) {
+			var cell = this.pendingTiles.poll(this.removedTiles, 0);
+			if(!this.and(this.removedTiles, 0, this.removedTiles, 0, this.entropies, cell * this.words)) {
+				continue;
+			} else if(this.equals(this.removedTiles, 0, this.entropies, cell * this.words)) {
+				this.conflictCell = cell;
+				return false;
+			}
+			this.removeTiles(cell, this.removedTiles);
+		}
+		return true;
+	}
+
+	private void removeTiles(int cell, long[] removedTiles) {
+		this.andNot(this.entropy, 0, this.entropies, cell * this.words, removedTiles, 0);
+		this.setEntropy(cell, this.entropy, 0);
+		for(var side = 0; side < this.oppositeSides.length; side++) {
+			var sideCell = this.getSideCell(cell, side);
+			if(sideCell != -1) {
+				Bitsets.clear(this.unsupportedTiles, 0, this.words);
+				if(this.supportCounter.removeSupports(sideCell, side, removedTiles, 0, this.unsupportedTiles)) {
+					this.pendingTiles.add(sideCell, this.unsupportedTiles, 0);
+				}
+			}
+		}
+	}
+
+	private boolean propagateAllCells() {
+		this.pendingCells.clear();
+		for(var cell = 0; cell < this.grid.getCellsNumber(); cell++) {
+			this.pendingCells.add(cell);
+		}
+		return this.propagate();
+	}
+
+	private int getSideCell(int cell, int side) {
+		return this.sideCells[cell * this.oppositeSides.length + side];
+	}
+
+	private int getBitCount(int cell) {
+		return Bitsets.bitCount(this.entropies, cell * this.words, this.words);
+	}
+
+	private void setEntropy(int cell, long[] entropy, int offset) {
+		if(this.weights == null) {
+			this.trail.push(cell, this.reasons[cell], this.entropies, cell * this.words);
+		} else {
+			this.trail.push(cell, this.reasons[cell], this.entropies, cell * this.words, this.weightSums[cell], this.weightLogWeightSums[cell]);
+			this.removeWeights(cell, entropy, offset);
+		}
+		this.reasons[cell] = this.decisions;
+		System.arraycopy(entropy, offset, this.entropies, cell * this.words, this.words);
+		this.updateCell(cell);
+	}
+
+	private void addWeights(int cell, long[] entropy, int offset) {
+		for(var word = 0; word < this.words; word++) {
+			for(var added = entropy[offset + word]; added != 0; added &= added - 1) {
+				var tile = word * Long.SIZE + Long.numberOfTrailingZeros(added);
+				this.weightSums[cell] += this.weights[tile];
+				this.weightLogWeightSums[cell] += this.weightLogWeights[tile];
+			}
+		}
+	}
+
+	/**
+	 * Subtracts from the sums of the weights of a cell the tiles it loses with a new entropy,
+	 * so the cost depends on the number of removed tiles and not on the size of the tileset
+	 */
+	private void removeWeights(int cell, long[] entropy, int offset) {
+		var cellOffset = cell * this.words;
+		for(var word = 0; word < this.words; word++) {
+			for(var removed = this.entropies[cellOffset + word] & ~entropy[offset + word]; removed != 0; removed &= removed - 1) {
+				var tile = word * Long.SIZE + Long.numberOfTrailingZeros(removed);
+				this.weightSums[cell] -= this.weights[tile];
+				this.weightLogWeightSums[cell] -= this.weightLogWeights[tile];
+			}
+		}
+	}
+
+	/**
+	 * Reverts the latest decision level. A revert made once the run has to stop, or once the attempt has gone over the
+	 * limit of its search policy, only leaves the grid as it was before the tile that failed, so the run can be resumed
+	 * from there, and is not counted as a backtrack, so a backjump over several decisions doesn't take the run further
+	 * over its limits
+	 */
+	private void revert() {
+		this.rollback(this.trail.getLevelStart());
+		this.grid.setTile(this.decisionCells[this.decisions - 1], -1);
+		if(this.limitReached || this.stopOutcome != null || this.isStopped(false)) {
+			return;
+		}
+		this.backtracks++;
+		if(this.searchPolicy.getLimit() == SearchLimit.Backtracks && ++this.attemptBacktracks > this.attemptLimit) {
+			this.limitReached = true;
+		}
+	}
+
+	private void rollback(int height) {
+		var previousEntropies = this.trail.getEntropies();
+		for(var entry = this.trail.size() - 1; entry >= height; entry--) {
+			var cell = this.trail.getCell(entry);
+			if(this.propagation == Propagation.AC4) {
+				this.andNot(this.tiles, 0, previousEntropies, entry * this.words, this.entropies, cell * this.words);
+				this.restoreSupports(cell, this.tiles);
+			}
+			System.arraycopy(previousEntropies, entry * this.words, this.entropies, cell * this.words, this.words);
+			this.reasons[cell] = this.trail.getReason(entry);
+			if(this.weights != null) {
+				this.weightSums[cell] = this.trail.getWeightSum(entry);
+				this.weightLogWeightSums[cell] = this.trail.getWeightLogWeightSum(entry);
+			}
+			this.updateCell(cell);
+		}
+		this.trail.truncate(height);
+	}
+
+	private void restoreSupports(int cell, long[] restoredTiles) {
+		for(var side = 0; side < this.oppositeSides.length; side++) {
+			var sideCell = this.getSideCell(cell, side);
+			if(sideCell != -1) {
+				this.supportCounter.restoreSupports(sideCell, side, restoredTiles, 0);
+			}
+		}
+	}
+
+	private boolean equals(long[] a, int aOffset, long[] b, int bOffset) {
+		return this.bitsetOperations.equals(a, aOffset, b, bOffset, this.words);
+	}
+
+	private boolean and(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset) {
+		return this.bitsetOperations.and(target, targetOffset, a, aOffset, b, bOffset, this.words);
+	}
+
+	private boolean andNot(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset) {
+		return this.bitsetOperations.andNot(target, targetOffset, a, aOffset, b, bOffset, this.words);
+	}
+
+	private void or(long[] target, int targetOffset, long[] set, int offset) {
+		this.bitsetOperations.or(target, targetOffset, set, offset, this.words);
+	}
+}
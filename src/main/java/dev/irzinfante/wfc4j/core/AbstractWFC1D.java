@@ -23,52 +23,87 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
-import java.util.Collections;
+import java.util.Arrays;
 
 import dev.irzinfante.wfc4j.exceptions.TileException;
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
 import dev.irzinfante.wfc4j.enums.Side1D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
 import dev.irzinfante.wfc4j.model.TileMap1D;
 import dev.irzinfante.wfc4j.model.Tile;
-import dev.irzinfante.wfc4j.model.Cell;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
-abstract public class AbstractWFC1D<T> {
+abstract public class AbstractWFC1D<T> extends AbstractWFC {
 
-	private TileMap1D<T> tileMap;
-	protected Cell[] grid;
-	private List<Integer> collapsableCells;
+	private static final Side1D[] SIDES = Side1D.values();
+
+	/**
+	 * Offset from a cell to its adjacent cell on each side, indexed by side, to build the {@link Topology} of the grid
+	 */
+	protected static final int[][] SIDE_OFFSETS = Arrays.stream(SIDES).map(Side1D::getOffset).toArray(int[][]::new);
+
+	private CompiledTileMap<T> tileMap;
+	protected int gridSizeX;
 	
-	protected AbstractWFC1D(TileMap1D<T> tileMap, int gridSizeX) throws TileException, DimensionException {
-		this(tileMap, gridSizeX, new HashMap<>());
+	protected AbstractWFC1D(TileMap1D<T> tileMap, int gridSizeX, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(compile(tileMap), gridSizeX, new HashMap<>(), topologyFactory);
 	}
 
 	protected AbstractWFC1D(
 		TileMap1D<T> tileMap,
 		int gridSizeX,
-		Map<Integer, Set<Tile<T>>> initialEntropy
+		Map<Integer, Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
 	) throws TileException, DimensionException {
-		
-		if(tileMap == null) {
-			throw new TileException("TileMap cannot be null");
-		} else if(gridSizeX < 1) {
-			throw new DimensionException("Invalid grid size");
-		}
+		this(compile(tileMap), gridSizeX, initialEntropy, topologyFactory);
+	}
+	
+	protected AbstractWFC1D(CompiledTileMap<T> tileMap, int gridSizeX, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(tileMap, gridSizeX, new HashMap<>(), topologyFactory);
+	}
+
+	protected AbstractWFC1D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		Map<Integer, Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		super(topology(tileMap, gridSizeX, topologyFactory), tileMap, entropies(tileMap, gridSizeX, initialEntropy));
 		
 		this.tileMap = tileMap;
-		this.grid = new Cell[gridSizeX];
-		this.collapsableCells = new ArrayList<>();
-		
-		var tilesNumber = this.tileMap.getTileSet().size();
-		for(int index = 0; index < gridSizeX; index++) {
-			this.grid[index] = new Cell(tilesNumber == Long.SIZE ? -1L : (1L << tilesNumber) - 1);
-			this.collapsableCells.add(index);
-		}
+		this.gridSizeX = gridSizeX;
+	}
 
+	/**
+	 * Puts the grid back in the state it had when created, initializing some cells with the given entropy,
+	 * so it can be run again reusing the arrays of its state
+	 *
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void reset(Map<Integer, Set<Tile<T>>> initialEntropy) throws TileException, DimensionException {
+		this.reset();
+		this.setInitialEntropy(entropies(this.tileMap, this.gridSizeX, initialEntropy));
+	}
+
+	/**
+	 * Encodes the initial entropy of the cells of the grid in the words of the tiles of the tilemap
+	 */
+	private static <T> Map<Integer, long[]> entropies(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		Map<Integer, Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		
+		var entropies = new HashMap<Integer, long[]>();
 		for(var ieEntry : initialEntropy.entrySet()) {
 			var index = ieEntry.getKey();
 			if(index < 0 || index >= gridSizeX) {
@@ -77,120 +112,67 @@ abstract public class AbstractWFC1D<T> {
 				throw new TileException("Cannot initialize cell with zero entropy");
 			}
 
-			var tileSet = this.tileMap.getTileSet();
-			if(!tileSet.containsAll(ieEntry.getValue())) {
-				throw new TileException("Tiles for initial entropy must exist in tilemap");
-			}
-
-			var entropy = 0L;
+			var entropy = new long[tileMap.getWords()];
 			for(var tile : ieEntry.getValue()) {
-				entropy += 1L << tileSet.indexOf(tile);
+				if(!tileMap.contains(tile)) {
+					throw new TileException("Tiles for initial entropy must exist in tilemap");
+				}
+				var tileId = tileMap.getTileId(tile);
+				entropy[tileId / Long.SIZE] |= 1L << tileId;
 			}
-			this.grid[index].popEntropy();
-			this.grid[index].pushEntropy(entropy);
+			entropies.put(index, entropy);
 		}
+		return entropies;
 	}
-	
+
 	/**
-	 * Runs the WFC algorithm to populate the tile values for the cells of the grid
+	 * Get the compiled tilemap of the grid, whose ids are the ones of {@link #getTileIndices()}
 	 * 
-	 * @return	Boolean indicating whether the algorithm finished successfully or not
+	 * @return	The compiled tilemap
 	 * 
-	 * @version	1.0.0
-	 * @since	1.0.0
+	 * @version	2.0.0
+	 * @since	2.0.0
 	 */
-	public boolean run() throws TileException {
-		if(this.collapsableCells.size() > 0) {
-			this.shuffleSortCollapsableCells();
-			var cellIndex = this.collapsableCells.remove(0);
-			var randomTileIndex = this.randomEntropyTilesFromCell(cellIndex);
-			for(var tileIndex : randomTileIndex) {
-				if(this.collapseAndPropagate(cellIndex, tileIndex)) {
-					if(run()) {
-						return true;
-					}
-					this.revert(cellIndex);
-				}
-			}
-			this.collapsableCells.add(cellIndex);
-			return false;
-		} else {
-			return true;
-		}
+	public CompiledTileMap<T> getTileMap() {
+		return this.tileMap;
+	}
+
+	public int getGridSizeX() {
+		return this.gridSizeX;
 	}
 
 	public List<Tile<T>> getGrid() {
 		var grid = new ArrayList<Tile<T>>();
-		for(var cell : this.grid) {
-			grid.add(this.tileMap.getTileSet().get(cell.getTile()));
+		for(var index = 0; index < this.gridSizeX; index++) {
+			grid.add(this.tileMap.getTile(this.getTile(index)));
 		}
 		return grid;
 	}
 
-	private void shuffleSortCollapsableCells() {
-		Collections.shuffle(this.collapsableCells);
-		this.collapsableCells.sort((Integer self, Integer other) -> this.grid[self].compareTo(this.grid[other]));
-	}
-
-	private List<Integer> randomEntropyTilesFromCell(int cellIndex) {
-		var entropy = this.grid[cellIndex].getEntropy();
-		var entropyBitStrings = new StringBuilder(Long.toBinaryString(entropy)).reverse().toString().split("");
-		var tiles = new ArrayList<Integer>();
-		for(var i = 0; i < entropyBitStrings.length; i++) {
-			if(entropyBitStrings[i].equals("1")) {
-				tiles.add(i);
-			}
-		}
-		Collections.shuffle(tiles);
-		return tiles;
-	}
-
-	private boolean collapseAndPropagate(int cellIndex, int tileIndex) throws TileException {
-		var tile = this.tileMap.getTileSet().get(tileIndex);
-
-		var newEntropies = new long[Side1D.values().length];
-		var sideCellIndexes = new int[Side1D.values().length];
-
-		for(var side : Side1D.values()) {
-			newEntropies[side.getValue()] = -1L;
-			var sideCellIndex = this.getSideCellIndex(cellIndex, side);
-			sideCellIndexes[side.getValue()] = sideCellIndex;
-			if(sideCellIndex != -1) {
-				var sideAdjacents = this.tileMap.getAdjacents(tile, side);
-				var sideCellEntropy = this.grid[sideCellIndex].getEntropy();
-				newEntropies[side.getValue()] = sideCellEntropy & sideAdjacents;
-			}
-		}
-
-		if(
-			newEntropies[Side1D.Left.getValue()] != 0 &&
-			newEntropies[Side1D.Right.getValue()] != 0
-		) {
-			for(var side : Side1D.values()) {
-				var sideCellIndex = sideCellIndexes[side.getValue()];
-				if(sideCellIndex != -1) {
-					this.grid[sideCellIndex].pushEntropy(newEntropies[side.getValue()]);
-				}
-			}
-
-			this.grid[cellIndex].setTile(tileIndex);
-
-			return true;
+	/**
+	 * Validates the arguments of the constructor and builds the topology of the grid with them, before the state of the
+	 * grid is set up
+	 */
+	private static Topology topology(
+		CompiledTileMap<?> tileMap,
+		int gridSizeX,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != SIDES.length) {
+			throw new TileException("TileMap must be compiled from a 1-dimensional tilemap");
+		} else if(gridSizeX < 1) {
+			throw new DimensionException("Invalid grid size");
 		}
-
-		return false;
+		return topologyFactory.create(new int[] {gridSizeX}, SIDE_OFFSETS);
 	}
 
-	private void revert(int cellIndex) {
-		for(var side : Side1D.values()) {
-			var sideCellIndex = this.getSideCellIndex(cellIndex, side);
-			if(sideCellIndex != -1) {
-				this.grid[sideCellIndex].popEntropy();
-			}
+	private static <T> CompiledTileMap<T> compile(TileMap1D<T> tileMap) throws TileException {
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
 		}
-
-		this.grid[cellIndex].setTile(-1);
+		return tileMap.compile();
 	}
-
-	abstract protected Integer getSideCellIndex(int cellIndex, Side1D side);
-}
\ No newline at end of file
+}
@@ -23,55 +23,92 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
-import java.util.Collections;
+import java.util.Arrays;
 
 import dev.irzinfante.wfc4j.exceptions.TileException;
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
 import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
 import dev.irzinfante.wfc4j.model.TileMap2D;
 import dev.irzinfante.wfc4j.model.Tile;
-import dev.irzinfante.wfc4j.model.Cell;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
-abstract public class AbstractWFC2D<T> {
+abstract public class AbstractWFC2D<T> extends AbstractWFC {
 
-	private TileMap2D<T> tileMap;
-	protected Cell[][] grid;
-	private List<Integer[]> collapsableCells;
+	private static final Side2D[] SIDES = Side2D.values();
+
+	/**
+	 * Offset from a cell to its adjacent cell on each side, indexed by side, to build the {@link Topology} of the grid
+	 */
+	protected static final int[][] SIDE_OFFSETS = Arrays.stream(SIDES).map(Side2D::getOffset).toArray(int[][]::new);
+
+	protected CompiledTileMap<T> tileMap;
+	protected int gridSizeX;
+	protected int gridSizeY;
 	
-	protected AbstractWFC2D(TileMap2D<T> tileMap, int gridSizeX, int gridSizeY) throws TileException, DimensionException {
-		this(tileMap, gridSizeX, gridSizeY, new HashMap<>());
+	protected AbstractWFC2D(TileMap2D<T> tileMap, int gridSizeX, int gridSizeY, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(compile(tileMap), gridSizeX, gridSizeY, new HashMap<>(), topologyFactory);
 	}
 
 	protected AbstractWFC2D(
 		TileMap2D<T> tileMap,
 		int gridSizeX,
 		int gridSizeY,
-		Map<Integer[], Set<Tile<T>>> initialEntropy
+		Map<Integer[], Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
 	) throws TileException, DimensionException {
-		
-		if(tileMap == null) {
-			throw new TileException("TileMap cannot be null");
-		} else if(gridSizeX < 1 || gridSizeY < 1) {
-			throw new DimensionException("Invalid grid size");
-		}
+		this(compile(tileMap), gridSizeX, gridSizeY, initialEntropy, topologyFactory);
+	}
+	
+	protected AbstractWFC2D(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(tileMap, gridSizeX, gridSizeY, new HashMap<>(), topologyFactory);
+	}
+
+	protected AbstractWFC2D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		Map<Integer[], Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		super(topology(tileMap, gridSizeX, gridSizeY, topologyFactory), tileMap, entropies(tileMap, gridSizeX, gridSizeY, initialEntropy));
 		
 		this.tileMap = tileMap;
-		this.grid = new Cell[gridSizeX][gridSizeY];
-		this.collapsableCells = new ArrayList<>();
-		
-		var tilesNumber = this.tileMap.getTileSet().size();
-		for(int indX = 0; indX < gridSizeX; indX++) {
-			for(int indY = 0; indY < gridSizeY; indY++) {
-				this.grid[indX][indY] = new Cell(tilesNumber == Long.SIZE ? -1L : (1L << tilesNumber) - 1);
-				this.collapsableCells.add(new Integer[] {indX, indY});
-			}
-		}
+		this.gridSizeX = gridSizeX;
+		this.gridSizeY = gridSizeY;
+	}
+
+	/**
+	 * Puts the grid back in the state it had when created, initializing some cells with the given entropy,
+	 * so it can be run again reusing the arrays of its state
+	 *
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void reset(Map<Integer[], Set<Tile<T>>> initialEntropy) throws TileException, DimensionException {
+		this.reset();
+		this.setInitialEntropy(entropies(this.tileMap, this.gridSizeX, this.gridSizeY, initialEntropy));
+	}
 
+	/**
+	 * Encodes the initial entropy of the cells of the grid in the words of the tiles of the tilemap
+	 */
+	private static <T> Map<Integer, long[]> entropies(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		
+		var entropies = new HashMap<Integer, long[]>();
 		for(var ieEntry : initialEntropy.entrySet()) {
 			var index = ieEntry.getKey();
 			if(
@@ -83,126 +120,78 @@ abstract public class AbstractWFC2D<T> {
 				throw new TileException("Cannot initialize cell with zero entropy");
 			}
 
-			var tileSet = this.tileMap.getTileSet();
-			if(!tileSet.containsAll(ieEntry.getValue())) {
-				throw new TileException("Tiles for initial entropy must exist in tilemap");
-			}
-
-			var entropy = 0L;
+			var entropy = new long[tileMap.getWords()];
 			for(var tile : ieEntry.getValue()) {
-				entropy += 1L << tileSet.indexOf(tile);
+				if(!tileMap.contains(tile)) {
+					throw new TileException("Tiles for initial entropy must exist in tilemap");
+				}
+				var tileId = tileMap.getTileId(tile);
+				entropy[tileId / Long.SIZE] |= 1L << tileId;
 			}
-			this.grid[index[0]][index[1]].popEntropy();
-			this.grid[index[0]][index[1]].pushEntropy(entropy);
+			entropies.put(index[0] * gridSizeY + index[1], entropy);
 		}
+		return entropies;
 	}
-	
+
 	/**
-	 * Runs the WFC algorithm to populate the tile values for the cells of the grid
+	 * Get the compiled tilemap of the grid, whose ids are the ones of {@link #getTileIndices()}
 	 * 
-	 * @return	Boolean indicating whether the algorithm finished successfully or not
+	 * @return	The compiled tilemap
 	 * 
-	 * @version	1.0.0
-	 * @since	1.0.0
+	 * @version	2.0.0
+	 * @since	2.0.0
 	 */
-	public boolean run() throws TileException {
-		if(this.collapsableCells.size() > 0) {
-			this.shuffleSortCollapsableCells();
-			var cellIndex = this.collapsableCells.remove(0);
-			var randomTileIndex = this.randomEntropyTilesFromCell(cellIndex);
-			for(var tileIndex : randomTileIndex) {
-				if(this.collapseAndPropagate(cellIndex, tileIndex)) {
-					if(run()) {
-						return true;
-					}
-					this.revert(cellIndex);
-				}
-			}
-			this.collapsableCells.add(cellIndex);
-			return false;
-		} else {
-			return true;
-		}
+	public CompiledTileMap<T> getTileMap() {
+		return this.tileMap;
+	}
+
+	public int getGridSizeX() {
+		return this.gridSizeX;
+	}
+
+	public int getGridSizeY() {
+		return this.gridSizeY;
 	}
 
 	public List<List<Tile<T>>> getGrid() {
 		var grid = new ArrayList<List<Tile<T>>>();
-		for(var row : this.grid) {
+		for(var indX = 0; indX < this.gridSizeX; indX++) {
 			var gridRow = new ArrayList<Tile<T>>();
-			for(var cell : row) {
-				gridRow.add(this.tileMap.getTileSet().get(cell.getTile()));
+			for(var indY = 0; indY < this.gridSizeY; indY++) {
+				gridRow.add(this.tileMap.getTile(this.getTile(indX * this.gridSizeY + indY)));
 			}
 			grid.add(gridRow);
 		}
 		return grid;
 	}
 
-	private void shuffleSortCollapsableCells() {
-		Collections.shuffle(this.collapsableCells);
-		this.collapsableCells.sort((Integer[] self, Integer[] other) -> this.grid[self[0]][self[1]].compareTo(this.grid[other[0]][other[1]]));
-	}
-
-	private List<Integer> randomEntropyTilesFromCell(Integer[] cellIndex) {
-		var entropy = this.grid[cellIndex[0]][cellIndex[1]].getEntropy();
-		var entropyBitStrings = new StringBuilder(Long.toBinaryString(entropy)).reverse().toString().split("");
-		var tiles = new ArrayList<Integer>();
-		for(var i = 0; i < entropyBitStrings.length; i++) {
-			if(entropyBitStrings[i].equals("1")) {
-				tiles.add(i);
-			}
-		}
-		Collections.shuffle(tiles);
-		return tiles;
-	}
-
-	private boolean collapseAndPropagate(Integer[] cellIndex, int tileIndex) throws TileException {
-		var tile = this.tileMap.getTileSet().get(tileIndex);
-
-		var newEntropies = new long[Side2D.values().length];
-		var sideCellIndexes = new Integer[Side2D.values().length][];
-
-		for(var side : Side2D.values()) {
-			newEntropies[side.getValue()] = -1L;
-			var sideCellIndex = this.getSideCellIndex(cellIndex, side);
-			sideCellIndexes[side.getValue()] = sideCellIndex;
-			if(sideCellIndex[0] != -1 && sideCellIndex[1] != -1) {
-				var sideAdjacents = this.tileMap.getAdjacents(tile, side);
-				var sideCellEntropy = this.grid[sideCellIndex[0]][sideCellIndex[1]].getEntropy();
-				newEntropies[side.getValue()] = sideCellEntropy & sideAdjacents;
-			}
-		}
-
-		if(
-			newEntropies[Side2D.Left.getValue()] != 0 &&
-			newEntropies[Side2D.Right.getValue()] != 0 &&
-			newEntropies[Side2D.Bottom.getValue()] != 0 &&
-			newEntropies[Side2D.Top.getValue()] != 0
-		) {
-			for(var side : Side2D.values()) {
-				var sideCellIndex = sideCellIndexes[side.getValue()];
-				if(sideCellIndex[0] != -1 && sideCellIndex[1] != -1) {
-					this.grid[sideCellIndex[0]][sideCellIndex[1]].pushEntropy(newEntropies[side.getValue()]);
-				}
-			}
-
-			this.grid[cellIndex[0]][cellIndex[1]].setTile(tileIndex);
-
-			return true;
+	/**
+	 * Validates the arguments of the constructor and builds the topology of the grid with them, before the state of the
+	 * grid is set up
+	 */
+	private static Topology topology(
+		CompiledTileMap<?> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != SIDES.length) {
+			throw new TileException("TileMap must be compiled from a 2-dimensional tilemap");
+		} else if(gridSizeX < 1 || gridSizeY < 1) {
+			throw new DimensionException("Invalid grid size");
+		} else if((long) gridSizeX * gridSizeY > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid too big: cannot exceed " + Integer.MAX_VALUE + " cells");
 		}
-
-		return false;
+		return topologyFactory.create(new int[] {gridSizeX, gridSizeY}, SIDE_OFFSETS);
 	}
 
-	private void revert(Integer[] cellIndex) {
-		for(var side : Side2D.values()) {
-			var sideCellIndex = this.getSideCellIndex(cellIndex, side);
-			if(sideCellIndex[0] != -1 && sideCellIndex[1] != -1) {
-				this.grid[sideCellIndex[0]][sideCellIndex[1]].popEntropy();
-			}
+	private static <T> CompiledTileMap<T> compile(TileMap2D<T> tileMap) throws TileException {
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
 		}
-
-		this.grid[cellIndex[0]][cellIndex[1]].setTile(-1);
+		return tileMap.compile();
 	}
-
-	abstract protected Integer[] getSideCellIndex(Integer[] cellIndex, Side2D side);
-}
\ No newline at end of file
+}
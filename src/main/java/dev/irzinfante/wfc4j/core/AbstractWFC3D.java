@@ -0,0 +1,224 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.Arrays;
+
+import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.enums.Side3D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.TileMap3D;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * Base of the 3-dimensional grids, whose cells are stored in the flat arrays of the grid state like the rest of grids,
+ * the cell at {@code (x, y, z)} having index {@code (x * gridSizeY + y) * gridSizeZ + z}
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+abstract public class AbstractWFC3D<T> extends AbstractWFC {
+
+	private static final Side3D[] SIDES = Side3D.values();
+
+	/**
+	 * Offset from a cell to its adjacent cell on each side, indexed by side, to build the {@link Topology} of the grid
+	 */
+	protected static final int[][] SIDE_OFFSETS = Arrays.stream(SIDES).map(Side3D::getOffset).toArray(int[][]::new);
+
+	protected CompiledTileMap<T> tileMap;
+	protected int gridSizeX;
+	protected int gridSizeY;
+	protected int gridSizeZ;
+	
+	protected AbstractWFC3D(TileMap3D<T> tileMap, int gridSizeX, int gridSizeY, int gridSizeZ, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(compile(tileMap), gridSizeX, gridSizeY, gridSizeZ, new HashMap<>(), topologyFactory);
+	}
+
+	protected AbstractWFC3D(
+		TileMap3D<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Map<Integer[], Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		this(compile(tileMap), gridSizeX, gridSizeY, gridSizeZ, initialEntropy, topologyFactory);
+	}
+	
+	protected AbstractWFC3D(CompiledTileMap<T> tileMap, int gridSizeX, int gridSizeY, int gridSizeZ, Topology.Factory topologyFactory) throws TileException, DimensionException {
+		this(tileMap, gridSizeX, gridSizeY, gridSizeZ, new HashMap<>(), topologyFactory);
+	}
+
+	protected AbstractWFC3D(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Map<Integer[], Set<Tile<T>>> initialEntropy,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		super(topology(tileMap, gridSizeX, gridSizeY, gridSizeZ, topologyFactory), tileMap, entropies(tileMap, gridSizeX, gridSizeY, gridSizeZ, initialEntropy));
+		
+		this.tileMap = tileMap;
+		this.gridSizeX = gridSizeX;
+		this.gridSizeY = gridSizeY;
+		this.gridSizeZ = gridSizeZ;
+	}
+
+	/**
+	 * Puts the grid back in the state it had when created, initializing some cells with the given entropy,
+	 * so it can be run again reusing the arrays of its state
+	 *
+	 * @param	initialEntropy Map from cell index to initial entropy
+	 * @throws	TileException If initial entropy is set with no tiles or tiles not existing in tilemap
+	 * @throws	DimensionException If initial entropy is set for cell outside the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void reset(Map<Integer[], Set<Tile<T>>> initialEntropy) throws TileException, DimensionException {
+		this.reset();
+		this.setInitialEntropy(entropies(this.tileMap, this.gridSizeX, this.gridSizeY, this.gridSizeZ, initialEntropy));
+	}
+
+	/**
+	 * Encodes the initial entropy of the cells of the grid in the words of the tiles of the tilemap
+	 */
+	private static <T> Map<Integer, long[]> entropies(
+		CompiledTileMap<T> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Map<Integer[], Set<Tile<T>>> initialEntropy
+	) throws TileException, DimensionException {
+		
+		var entropies = new HashMap<Integer, long[]>();
+		for(var ieEntry : initialEntropy.entrySet()) {
+			var index = ieEntry.getKey();
+			if(
+				index[0] < 0 || index[0] >= gridSizeX ||
+				index[1] < 0 || index[1] >= gridSizeY ||
+				index[2] < 0 || index[2] >= gridSizeZ
+			) {
+				throw new DimensionException("Cannot set initial entropy for cell outside the grid");
+			} else if (ieEntry.getValue().isEmpty()) {
+				throw new TileException("Cannot initialize cell with zero entropy");
+			}
+
+			var entropy = new long[tileMap.getWords()];
+			for(var tile : ieEntry.getValue()) {
+				if(!tileMap.contains(tile)) {
+					throw new TileException("Tiles for initial entropy must exist in tilemap");
+				}
+				var tileId = tileMap.getTileId(tile);
+				entropy[tileId / Long.SIZE] |= 1L << tileId;
+			}
+			entropies.put((index[0] * gridSizeY + index[1]) * gridSizeZ + index[2], entropy);
+		}
+		return entropies;
+	}
+
+	/**
+	 * Get the compiled tilemap of the grid, whose ids are the ones of {@link #getTileIndices()}
+	 * 
+	 * @return	The compiled tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public CompiledTileMap<T> getTileMap() {
+		return this.tileMap;
+	}
+
+	public int getGridSizeX() {
+		return this.gridSizeX;
+	}
+
+	public int getGridSizeY() {
+		return this.gridSizeY;
+	}
+
+	public int getGridSizeZ() {
+		return this.gridSizeZ;
+	}
+
+	/**
+	 * Get the tiles of the grid as nested lists indexed by X, Y and Z. It creates a list for each row of the volume,
+	 * so for big volumes {@link #getTileIndices()} or {@link #getTileView()} should be used instead
+	 * 
+	 * @return	The tiles of the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public List<List<List<Tile<T>>>> getGrid() {
+		var grid = new ArrayList<List<List<Tile<T>>>>();
+		for(var indX = 0; indX < this.gridSizeX; indX++) {
+			var gridLayer = new ArrayList<List<Tile<T>>>();
+			for(var indY = 0; indY < this.gridSizeY; indY++) {
+				var gridRow = new ArrayList<Tile<T>>();
+				for(var indZ = 0; indZ < this.gridSizeZ; indZ++) {
+					gridRow.add(this.tileMap.getTile(this.getTile((indX * this.gridSizeY + indY) * this.gridSizeZ + indZ)));
+				}
+				gridLayer.add(gridRow);
+			}
+			grid.add(gridLayer);
+		}
+		return grid;
+	}
+
+	/**
+	 * Validates the arguments of the constructor and builds the topology of the grid with them, before the state of the
+	 * grid is set up
+	 */
+	private static Topology topology(
+		CompiledTileMap<?> tileMap,
+		int gridSizeX,
+		int gridSizeY,
+		int gridSizeZ,
+		Topology.Factory topologyFactory
+	) throws TileException, DimensionException {
+		
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		} else if(tileMap.getSidesNumber() != SIDES.length) {
+			throw new TileException("TileMap must be compiled from a 3-dimensional tilemap");
+		} else if(gridSizeX < 1 || gridSizeY < 1 || gridSizeZ < 1) {
+			throw new DimensionException("Invalid grid size");
+		} else if((long) gridSizeX * gridSizeY * gridSizeZ > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid too big: cannot exceed " + Integer.MAX_VALUE + " cells");
+		}
+		return topologyFactory.create(new int[] {gridSizeX, gridSizeY, gridSizeZ}, SIDE_OFFSETS);
+	}
+
+	private static <T> CompiledTileMap<T> compile(TileMap3D<T> tileMap) throws TileException {
+		if(tileMap == null) {
+			throw new TileException("TileMap cannot be null");
+		}
+		return tileMap.compile();
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+/**
+ * Mask operations of {@link Bitsets} used by the propagation, which the grids call through this interface so they can
+ * use either the scalar ones or the Vector API ones of {@code VectorBitsets}, which are only compiled with the
+ * {@code vector} Maven profile and loaded when the {@code jdk.incubator.vector} module is available
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+interface BitsetOperations {
+
+	boolean equals(long[] a, int aOffset, long[] b, int bOffset, int words);
+
+	/**
+	 * Stores the intersection of two sets
+	 * 
+	 * @return	Boolean indicating whether the intersection has any tile
+	 */
+	boolean and(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words);
+
+	/**
+	 * Stores the tiles of a set which are not in another one
+	 * 
+	 * @return	Boolean indicating whether the difference has any tile
+	 */
+	boolean andNot(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words);
+
+	/**
+	 * Adds the tiles of a set to another one
+	 */
+	void or(long[] target, int targetOffset, long[] set, int offset, int words);
+}
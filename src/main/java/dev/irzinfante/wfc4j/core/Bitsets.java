@@ -0,0 +1,201 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+/**
+ * Operations over binary encoded sets of tiles stored as consecutive words of a {@code long} array, so the
+ * entropies of every cell of a grid can be kept in a single array. Each operation is a plain loop over the words,
+ * which the JIT compiler unrolls or vectorises, and which is a single iteration for tilesets of up to 64 tiles.
+ * The operations used by the propagation have an explicit Vector API version in {@code VectorBitsets}, behind
+ * {@link BitsetOperations}
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class Bitsets {
+
+	private static final String VECTOR_CLASS = "dev.irzinfante.wfc4j.core.VectorBitsets";
+
+	/**
+	 * The scalar mask operations, used by the grids unless they are vectorized
+	 */
+	static final BitsetOperations SCALAR = new BitsetOperations() {
+
+		@Override
+		public boolean equals(long[] a, int aOffset, long[] b, int bOffset, int words) {
+			return Bitsets.equals(a, aOffset, b, bOffset, words);
+		}
+
+		@Override
+		public boolean and(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+			return Bitsets.and(target, targetOffset, a, aOffset, b, bOffset, words);
+		}
+
+		@Override
+		public boolean andNot(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+			return Bitsets.andNot(target, targetOffset, a, aOffset, b, bOffset, words);
+		}
+
+		@Override
+		public void or(long[] target, int targetOffset, long[] set, int offset, int words) {
+			Bitsets.or(target, targetOffset, set, offset, words);
+		}
+	};
+
+	/**
+	 * The Vector API mask operations, or null if {@code VectorBitsets} was left out of the build, as it is unless the
+	 * {@code vector} Maven profile is active, or the {@code jdk.incubator.vector} module is not available (e.g. the JVM
+	 * was not started with {@code --add-modules jdk.incubator.vector})
+	 */
+	static final BitsetOperations VECTOR = loadVector();
+
+	private Bitsets() {}
+
+	private static BitsetOperations loadVector() {
+		if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+			return null;
+		}
+		try {
+			return (BitsetOperations) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+		} catch(ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Get the number of words needed to encode a tileset
+	 * 
+	 * @param	tilesNumber Number of tiles of the tileset
+	 * @return	Number of {@code long} words of each set of tiles
+	 */
+	static int words(int tilesNumber) {
+		return (tilesNumber + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	/**
+	 * Sets the bits of every tile of a tileset
+	 * 
+	 * @param	set Array holding the set
+	 * @param	offset Index of the first word of the set
+	 * @param	tilesNumber Number of tiles of the tileset
+	 */
+	static void fill(long[] set, int offset, int tilesNumber) {
+		var words = words(tilesNumber);
+		for(var word = 0; word < words; word++) {
+			var bits = tilesNumber - word * Long.SIZE;
+			set[offset + word] = bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+		}
+	}
+
+	static void clear(long[] set, int offset, int words) {
+		for(var word = 0; word < words; word++) {
+			set[offset + word] = 0;
+		}
+	}
+
+	static void add(long[] set, int offset, int tile) {
+		set[offset + tile / Long.SIZE] |= 1L << tile;
+	}
+
+	static void remove(long[] set, int offset, int tile) {
+		set[offset + tile / Long.SIZE] &= ~(1L << tile);
+	}
+
+	/**
+	 * Get the tile of a given rank among the tiles of a set
+	 * 
+	 * @param	rank Position of the tile in the set, from 0 to the number of tiles minus one
+	 * @return	Index of the tile in the tileset
+	 */
+	static int select(long[] set, int offset, int words, int rank) {
+		var word = 0;
+		for(var count = Long.bitCount(set[offset]); rank >= count; count = Long.bitCount(set[offset + ++word])) {
+			rank -= count;
+		}
+		var bits = set[offset + word];
+		for(; rank > 0; rank--) {
+			bits &= bits - 1;
+		}
+		return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+	}
+
+	static boolean contains(long[] set, int offset, int tile) {
+		return (set[offset + tile / Long.SIZE] & (1L << tile)) != 0;
+	}
+
+	static int bitCount(long[] set, int offset, int words) {
+		var count = 0;
+		for(var word = 0; word < words; word++) {
+			count += Long.bitCount(set[offset + word]);
+		}
+		return count;
+	}
+
+	static boolean isEmpty(long[] set, int offset, int words) {
+		var bits = 0L;
+		for(var word = 0; word < words; word++) {
+			bits |= set[offset + word];
+		}
+		return bits == 0;
+	}
+
+	static boolean equals(long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var diff = 0L;
+		for(var word = 0; word < words; word++) {
+			diff |= a[aOffset + word] ^ b[bOffset + word];
+		}
+		return diff == 0;
+	}
+
+	/**
+	 * Stores the intersection of two sets
+	 * 
+	 * @return	Boolean indicating whether the intersection has any tile
+	 */
+	static boolean and(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var bits = 0L;
+		for(var word = 0; word < words; word++) {
+			bits |= target[targetOffset + word] = a[aOffset + word] & b[bOffset + word];
+		}
+		return bits != 0;
+	}
+
+	/**
+	 * Stores the tiles of a set which are not in another one
+	 * 
+	 * @return	Boolean indicating whether the difference has any tile
+	 */
+	static boolean andNot(long[] target, int targetOffset, long[] a, int aOffset, long[] b, int bOffset, int words) {
+		var bits = 0L;
+		for(var word = 0; word < words; word++) {
+			bits |= target[targetOffset + word] = a[aOffset + word] & ~b[bOffset + word];
+		}
+		return bits != 0;
+	}
+
+	/**
+	 * Adds the tiles of a set to another one
+	 */
+	static void or(long[] target, int targetOffset, long[] set, int offset, int words) {
+		for(var word = 0; word < words; word++) {
+			target[targetOffset + word] |= set[offset + word];
+		}
+	}
+}
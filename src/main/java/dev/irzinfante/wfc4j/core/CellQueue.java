@@ -0,0 +1,133 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+/**
+ * First-in first-out queue of the cells pending to be propagated, kept in a ring of primitive arrays that is reused
+ * by every propagation and only grows when it is full. Each entry may also keep some binary encoded tiles, in as many
+ * words as the tileset needs, so the propagation doesn't allocate anything once the queue has grown enough
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class CellQueue {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final int words;
+	private int[] cells;
+	private long[] tiles;
+	private int head;
+	private int size;
+
+	/**
+	 * Creates an empty queue
+	 * 
+	 * @param	words Number of words of the tiles kept by each entry, 0 for entries with only the cell
+	 */
+	CellQueue(int words) {
+		this.words = words;
+		this.cells = new int[INITIAL_CAPACITY];
+		this.tiles = new long[INITIAL_CAPACITY * words];
+		this.head = 0;
+		this.size = 0;
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Removes every entry, keeping the arrays of the queue
+	 */
+	void clear() {
+		this.head = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a cell at the end of the queue
+	 * 
+	 * @param	cell Index of the cell
+	 */
+	void add(int cell) {
+		if(this.size == this.cells.length) {
+			this.grow();
+		}
+		this.cells[(this.head + this.size++) & (this.cells.length - 1)] = cell;
+	}
+
+	/**
+	 * Adds a cell at the end of the queue with some tiles
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	tiles Array holding the binary encoded tiles of the entry
+	 * @param	offset Index of the first word of the tiles
+	 */
+	void add(int cell, long[] tiles, int offset) {
+		if(this.size == this.cells.length) {
+			this.grow();
+		}
+		var entry = (this.head + this.size++) & (this.cells.length - 1);
+		this.cells[entry] = cell;
+		System.arraycopy(tiles, offset, this.tiles, entry * this.words, this.words);
+	}
+
+	/**
+	 * Removes the cell at the start of the queue
+	 * 
+	 * @return	Index of the cell
+	 */
+	int poll() {
+		var cell = this.cells[this.head];
+		this.head = (this.head + 1) & (this.cells.length - 1);
+		this.size--;
+		return cell;
+	}
+
+	/**
+	 * Removes the cell at the start of the queue, copying the tiles of its entry
+	 * 
+	 * @param	tiles Array where the binary encoded tiles of the entry are stored
+	 * @param	offset Index of the first word where the tiles are stored
+	 * @return	Index of the cell
+	 */
+	int poll(long[] tiles, int offset) {
+		System.arraycopy(this.tiles, this.head * this.words, tiles, offset, this.words);
+		return this.poll();
+	}
+
+	/**
+	 * Doubles the capacity of the queue, moving its entries to the start of the new arrays
+	 */
+	private void grow() {
+		var capacity = this.cells.length;
+		var cells = new int[capacity * 2];
+		var tiles = new long[capacity * 2 * this.words];
+		var first = capacity - this.head;
+		System.arraycopy(this.cells, this.head, cells, 0, first);
+		System.arraycopy(this.cells, 0, cells, first, this.head);
+		System.arraycopy(this.tiles, this.head * this.words, tiles, 0, first * this.words);
+		System.arraycopy(this.tiles, 0, tiles, first * this.words, this.head * this.words);
+		this.cells = cells;
+		this.tiles = tiles;
+		this.head = 0;
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file holding the state of a run of the WFC algorithm, written and read as a sequence of primitive values and
+ * arrays. Arrays are copied in bulk between the file and the heap: the writer streams them through a reusable
+ * direct buffer to a {@link FileChannel}, and the reader maps the whole file in memory
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class Checkpoint {
+
+	/**
+	 * First bytes of every checkpoint file, {@code WFC4} in ASCII
+	 */
+	static final int MAGIC = 0x57464334;
+
+	/**
+	 * Version of the layout of the file, increased whenever the layout changes
+	 */
+	static final int VERSION = 1;
+
+	private Checkpoint() {}
+
+	/**
+	 * Writes the values of a checkpoint to a file, replacing its content
+	 */
+	static final class Writer implements Closeable {
+
+		private static final int BUFFER_SIZE = 1 << 16;
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+
+		Writer(Path file) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+
+		void putInt(int value) throws IOException {
+			this.ensureRemaining(Integer.BYTES);
+			this.buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			this.ensureRemaining(Long.BYTES);
+			this.buffer.putLong(value);
+		}
+
+		void putInts(int[] values, int length) throws IOException {
+			for(var offset = 0; offset < length; ) {
+				this.ensureRemaining(Integer.BYTES);
+				var count = Math.min(length - offset, this.buffer.remaining() / Integer.BYTES);
+				this.buffer.asIntBuffer().put(values, offset, count);
+				this.buffer.position(this.buffer.position() + count * Integer.BYTES);
+				offset += count;
+			}
+		}
+
+		void putLongs(long[] values, int length) throws IOException {
+			for(var offset = 0; offset < length; ) {
+				this.ensureRemaining(Long.BYTES);
+				var count = Math.min(length - offset, this.buffer.remaining() / Long.BYTES);
+				this.buffer.asLongBuffer().put(values, offset, count);
+				this.buffer.position(this.buffer.position() + count * Long.BYTES);
+				offset += count;
+			}
+		}
+
+		void putDoubles(double[] values, int length) throws IOException {
+			for(var offset = 0; offset < length; ) {
+				this.ensureRemaining(Double.BYTES);
+				var count = Math.min(length - offset, this.buffer.remaining() / Double.BYTES);
+				this.buffer.asDoubleBuffer().put(values, offset, count);
+				this.buffer.position(this.buffer.position() + count * Double.BYTES);
+				offset += count;
+			}
+		}
+
+		/**
+		 * Writes the buffered values and forces them to the storage device, so the file is complete when it is closed
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				this.flush();
+				this.channel.force(false);
+			} finally {
+				this.channel.close();
+			}
+		}
+
+		private void ensureRemaining(int bytes) throws IOException {
+			if(this.buffer.remaining() < bytes) {
+				this.flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			this.buffer.flip();
+			while(this.buffer.hasRemaining()) {
+				this.channel.write(this.buffer);
+			}
+			this.buffer.clear();
+		}
+	}
+
+	/**
+	 * Reads the values of a checkpoint from a file mapped in memory, in the same order they were written. Reading or
+	 * skipping past the end of the file throws a {@link java.nio.BufferUnderflowException}
+	 */
+	static final class Reader {
+
+		private final ByteBuffer buffer;
+
+		Reader(Path file) throws IOException {
+			try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				if(channel.size() > Integer.MAX_VALUE) {
+					throw new IOException("Checkpoint too big: cannot exceed " + Integer.MAX_VALUE + " bytes");
+				}
+				this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+
+		int getInt() {
+			return this.buffer.getInt();
+		}
+
+		long getLong() {
+			return this.buffer.getLong();
+		}
+
+		void getInts(int[] values, int length) {
+			this.buffer.asIntBuffer().get(values, 0, length);
+			this.buffer.position(this.buffer.position() + length * Integer.BYTES);
+		}
+
+		void getLongs(long[] values, int length) {
+			this.buffer.asLongBuffer().get(values, 0, length);
+			this.buffer.position(this.buffer.position() + length * Long.BYTES);
+		}
+
+		void getDoubles(double[] values, int length) {
+			this.buffer.asDoubleBuffer().get(values, 0, length);
+			this.buffer.position(this.buffer.position() + length * Double.BYTES);
+		}
+
+		/**
+		 * Skips some values without reading them, as long as they are in the file
+		 * 
+		 * @param	length Number of values to skip
+		 * @param	bytes Size of each value
+		 */
+		void skip(long length, int bytes) {
+			if(length * bytes > this.buffer.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			this.buffer.position(this.buffer.position() + (int) (length * bytes));
+		}
+
+		int position() {
+			return this.buffer.position();
+		}
+
+		/**
+		 * Goes back to a position of the file read before, to read it again
+		 * 
+		 * @param	position Position returned by {@link #position()}
+		 */
+		void position(int position) {
+			this.buffer.position(position);
+		}
+
+		boolean hasRemaining() {
+			return this.buffer.hasRemaining();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.util.Arrays;
+
+/**
+ * Index of the cells still to be collapsed ordered by a real-valued entropy (e.g. the Shannon entropy of weighted
+ * tiles), kept as a binary min-heap with the position of each cell in it, so the cell of lowest entropy is found in
+ * constant time and changing the entropy of a cell takes logarithmic time
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class EntropyHeap {
+
+	private final int[] heap;
+	private final int[] positions;
+	private final double[] entropies;
+	private int size;
+
+	/**
+	 * Creates an index with no cells on it
+	 * 
+	 * @param	cellsNumber Number of cells of the grid
+	 */
+	EntropyHeap(int cellsNumber) {
+		this.heap = new int[cellsNumber];
+		this.positions = new int[cellsNumber];
+		this.entropies = new double[cellsNumber];
+		this.size = 0;
+		Arrays.fill(this.positions, -1);
+	}
+
+	/**
+	 * Removes every cell from the index, keeping its arrays so it is filled again without allocating them
+	 */
+	void clear() {
+		for(var position = 0; position < this.size; position++) {
+			this.positions[this.heap[position]] = -1;
+		}
+		this.size = 0;
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	boolean contains(int cell) {
+		return this.positions[cell] != -1;
+	}
+
+	void add(int cell, double entropy) {
+		this.heap[this.size] = cell;
+		this.positions[cell] = this.size;
+		this.entropies[cell] = entropy;
+		this.siftUp(this.size++);
+	}
+
+	void remove(int cell) {
+		var position = this.positions[cell];
+		this.positions[cell] = -1;
+		if(position == --this.size) {
+			return;
+		}
+		var last = this.heap[this.size];
+		this.heap[position] = last;
+		this.positions[last] = position;
+		this.siftDown(this.siftUp(position));
+	}
+
+	/**
+	 * Changes the entropy of a cell, if it is indexed
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	entropy New entropy of the cell
+	 */
+	void update(int cell, double entropy) {
+		var position = this.positions[cell];
+		if(position != -1) {
+			this.entropies[cell] = entropy;
+			this.siftDown(this.siftUp(position));
+		}
+	}
+
+	/**
+	 * Get the indexed cell with the lowest entropy
+	 * 
+	 * @return	Index of the cell, or -1 if there are no cells in the index
+	 */
+	int minimum() {
+		return this.size == 0 ? -1 : this.heap[0];
+	}
+
+	private int siftUp(int position) {
+		var cell = this.heap[position];
+		while(position > 0) {
+			var parent = (position - 1) / 2;
+			var parentCell = this.heap[parent];
+			if(this.entropies[parentCell] <= this.entropies[cell]) {
+				break;
+			}
+			this.heap[position] = parentCell;
+			this.positions[parentCell] = position;
+			position = parent;
+		}
+		this.heap[position] = cell;
+		this.positions[cell] = position;
+		return position;
+	}
+
+	private void siftDown(int position) {
+		var cell = this.heap[position];
+		for(var child = 2 * position + 1; child < this.size; child = 2 * position + 1) {
+			var childCell = this.heap[child];
+			if(child + 1 < this.size && this.entropies[this.heap[child + 1]] < this.entropies[childCell]) {
+				childCell = this.heap[++child];
+			}
+			if(this.entropies[cell] <= this.entropies[childCell]) {
+				break;
+			}
+			this.heap[position] = childCell;
+			this.positions[childCell] = position;
+			position = child;
+		}
+		this.heap[position] = cell;
+		this.positions[cell] = position;
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Index of the cells still to be collapsed, bucketed by their entropy (number of possible tiles).
+ * Each bucket keeps its cells in an array of its own, where a cell is removed by moving the last cell of the bucket
+ * to its place, so adding, removing and moving a cell take constant time. The lowest bucket that may hold cells is
+ * tracked as cells reach it, so a random cell of the lowest entropy is picked without scanning the empty buckets below
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class EntropyIndex {
+
+	private static final int INITIAL_BUCKET_CAPACITY = 16;
+	private static final int REMOVED = -1;
+
+	private final int[][] bucketCells;
+	private final int[] bucketSizes;
+	private final int[] positions;
+	private final int[] buckets;
+	private int size;
+	private int minimum;
+
+	/**
+	 * Creates an index with no cells on it
+	 * 
+	 * @param	cellsNumber Number of cells of the grid
+	 * @param	maxEntropy Highest entropy a cell can have (i.e. the number of tiles)
+	 */
+	EntropyIndex(int cellsNumber, int maxEntropy) {
+		this.bucketCells = new int[maxEntropy + 1][];
+		this.bucketSizes = new int[maxEntropy + 1];
+		this.positions = new int[cellsNumber];
+		this.buckets = new int[cellsNumber];
+		Arrays.fill(this.buckets, REMOVED);
+		this.size = 0;
+		this.minimum = this.bucketSizes.length;
+	}
+
+	/**
+	 * Puts every cell in the index with the same entropy, in the order of their indices, so the cells picked
+	 * afterwards only depend on the random generator and not on the previous use of the index
+	 * 
+	 * @param	entropy Number of possible tiles of every cell
+	 */
+	void reset(int entropy) {
+		Arrays.fill(this.bucketSizes, 0);
+		this.ensureCapacity(entropy, this.buckets.length);
+		for(var cell = 0; cell < this.buckets.length; cell++) {
+			this.bucketCells[entropy][cell] = cell;
+			this.positions[cell] = cell;
+			this.buckets[cell] = entropy;
+		}
+		this.bucketSizes[entropy] = this.buckets.length;
+		this.size = this.buckets.length;
+		this.minimum = entropy;
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	boolean contains(int cell) {
+		return this.buckets[cell] != REMOVED;
+	}
+
+	/**
+	 * Adds a cell to the index with the given entropy
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	entropy Number of possible tiles of the cell
+	 */
+	void add(int cell, int entropy) {
+		if(this.contains(cell)) {
+			this.move(cell, entropy);
+		} else {
+			this.insert(cell, entropy);
+			this.size++;
+		}
+	}
+
+	/**
+	 * Removes a cell from the index, so it won't be picked nor updated until it is added back
+	 * 
+	 * @param	cell Index of the cell
+	 */
+	void remove(int cell) {
+		if(this.contains(cell)) {
+			this.delete(cell);
+			this.buckets[cell] = REMOVED;
+			this.size--;
+		}
+	}
+
+	/**
+	 * Moves an indexed cell to the bucket of its new entropy. Cells not in the index are left untouched
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	entropy Number of possible tiles of the cell
+	 */
+	void update(int cell, int entropy) {
+		if(this.contains(cell)) {
+			this.move(cell, entropy);
+		}
+	}
+
+	/**
+	 * Picks uniformly at random one of the indexed cells with the lowest entropy
+	 * 
+	 * @param	random The random generator for the pick
+	 * @return	Index of the picked cell, or -1 if the index is empty
+	 */
+	int randomMinimum(RandomGenerator random) {
+		if(this.size == 0) {
+			return -1;
+		}
+		// The buckets below the tracked minimum are empty, and the ones it skips now stay empty until a cell is put in
+		// them, which lowers the minimum again
+		while(this.bucketSizes[this.minimum] == 0) {
+			this.minimum++;
+		}
+		return this.bucketCells[this.minimum][random.nextInt(this.bucketSizes[this.minimum])];
+	}
+
+	/**
+	 * Writes the cells of every bucket in their order, which decides the cell picked for a random number
+	 * 
+	 * @param	writer The writer of the checkpoint
+	 * @throws	IOException If the checkpoint can't be written
+	 */
+	void write(Checkpoint.Writer writer) throws IOException {
+		writer.putInts(this.bucketSizes, this.bucketSizes.length);
+		for(var bucket = 0; bucket < this.bucketSizes.length; bucket++) {
+			writer.putInts(this.bucketCells[bucket], this.bucketSizes[bucket]);
+		}
+	}
+
+	/**
+	 * Skips the index written in a checkpoint, checking that it fits this index without changing it
+	 * 
+	 * @param	reader The reader of the checkpoint
+	 * @throws	IOException If the buckets hold more cells than the grid, or cells outside it
+	 */
+	void skip(Checkpoint.Reader reader) throws IOException {
+		var sizes = new int[this.bucketSizes.length];
+		reader.getInts(sizes, sizes.length);
+		var size = 0L;
+		for(var bucketSize : sizes) {
+			if(bucketSize < 0) {
+				throw new IOException("Corrupt checkpoint: negative size of the index of cells");
+			}
+			size += bucketSize;
+		}
+		if(size > this.buckets.length) {
+			throw new IOException("Corrupt checkpoint: too many cells in the index of cells");
+		}
+		for(var position = 0; position < size; position++) {
+			var cell = reader.getInt();
+			if(cell < 0 || cell >= this.buckets.length) {
+				throw new IOException("Corrupt checkpoint: cell outside the grid in the index of cells");
+			}
+		}
+	}
+
+	void read(Checkpoint.Reader reader) {
+		reader.getInts(this.bucketSizes, this.bucketSizes.length);
+		Arrays.fill(this.buckets, REMOVED);
+		this.size = 0;
+		this.minimum = this.bucketSizes.length;
+		for(var bucket = 0; bucket < this.bucketSizes.length; bucket++) {
+			var size = this.bucketSizes[bucket];
+			this.ensureCapacity(bucket, size);
+			reader.getInts(this.bucketCells[bucket], size);
+			for(var position = 0; position < size; position++) {
+				var cell = this.bucketCells[bucket][position];
+				this.positions[cell] = position;
+				this.buckets[cell] = bucket;
+			}
+			if(size > 0 && this.minimum == this.bucketSizes.length) {
+				this.minimum = bucket;
+			}
+			this.size += size;
+		}
+	}
+
+	private void move(int cell, int bucket) {
+		if(this.buckets[cell] != bucket) {
+			this.delete(cell);
+			this.insert(cell, bucket);
+		}
+	}
+
+	/**
+	 * Appends a cell to a bucket, lowering the tracked minimum if the bucket is below it
+	 */
+	private void insert(int cell, int bucket) {
+		var size = this.bucketSizes[bucket];
+		this.ensureCapacity(bucket, size + 1);
+		this.bucketCells[bucket][size] = cell;
+		this.bucketSizes[bucket] = size + 1;
+		this.positions[cell] = size;
+		this.buckets[cell] = bucket;
+		if(bucket < this.minimum) {
+			this.minimum = bucket;
+		}
+	}
+
+	/**
+	 * Takes a cell out of its bucket, moving the last cell of the bucket to its place
+	 */
+	private void delete(int cell) {
+		var bucket = this.buckets[cell];
+		var last = --this.bucketSizes[bucket];
+		var lastCell = this.bucketCells[bucket][last];
+		this.bucketCells[bucket][this.positions[cell]] = lastCell;
+		this.positions[lastCell] = this.positions[cell];
+	}
+
+	private void ensureCapacity(int bucket, int capacity) {
+		var cells = this.bucketCells[bucket];
+		if(cells == null) {
+			this.bucketCells[bucket] = new int[Math.max(INITIAL_BUCKET_CAPACITY, capacity)];
+		} else if(cells.length < capacity) {
+			this.bucketCells[bucket] = Arrays.copyOf(cells, Math.max(cells.length * 2, capacity));
+		}
+	}
+}
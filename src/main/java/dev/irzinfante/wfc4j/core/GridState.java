@@ -0,0 +1,123 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+
+/**
+ * State of the cells of a grid kept in primitive arrays indexed by cell: the current entropy (binary encoded
+ * possible tiles, in as many words as the tileset needs) and the collapsed tile of each cell. Previous entropies
+ * are kept by the {@link Trail}
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class GridState {
+
+	private final int tilesNumber;
+	private final int words;
+	private final long[] entropies;
+	private final int[] tiles;
+
+	/**
+	 * Creates the state of a grid where no cell is collapsed and every cell can hold any tile
+	 * 
+	 * @param	cellsNumber Number of cells of the grid
+	 * @param	tilesNumber Number of tiles of the tilemap
+	 * @throws	DimensionException If the grid has too many cells to keep the entropies of all of them in one array
+	 */
+	GridState(int cellsNumber, int tilesNumber) throws DimensionException {
+		this.tilesNumber = tilesNumber;
+		this.words = Bitsets.words(tilesNumber);
+		if((long) cellsNumber * this.words > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid is too big for the entropies of its tiles");
+		}
+		this.entropies = new long[cellsNumber * this.words];
+		this.tiles = new int[cellsNumber];
+		this.reset();
+	}
+
+	/**
+	 * Uncollapses every cell and lets it hold any tile again, reusing the arrays of the state
+	 */
+	void reset() {
+		for(var cell = 0; cell < this.tiles.length; cell++) {
+			Bitsets.fill(this.entropies, cell * this.words, this.tilesNumber);
+		}
+		Arrays.fill(this.tiles, -1);
+	}
+
+	int getCellsNumber() {
+		return this.tiles.length;
+	}
+
+	/**
+	 * Get the number of words of the entropy of each cell
+	 * 
+	 * @return	Number of {@code long} words per cell
+	 */
+	int getWords() {
+		return this.words;
+	}
+
+	/**
+	 * Get the entropies of all the cells, the one of each cell starting at {@code cell * getWords()}
+	 * 
+	 * @return	Backing array of the entropies
+	 */
+	long[] getEntropies() {
+		return this.entropies;
+	}
+
+	int getTile(int cell) {
+		return this.tiles[cell];
+	}
+
+	/**
+	 * Get the collapsed tile of every cell, -1 for the cells not collapsed
+	 * 
+	 * @return	Backing array of the tiles
+	 */
+	int[] getTiles() {
+		return this.tiles;
+	}
+
+	void setTile(int cell, int tile) {
+		this.tiles[cell] = tile;
+	}
+
+	void write(Checkpoint.Writer writer) throws IOException {
+		writer.putLongs(this.entropies, this.entropies.length);
+		writer.putInts(this.tiles, this.tiles.length);
+	}
+
+	void skip(Checkpoint.Reader reader) {
+		reader.skip(this.entropies.length, Long.BYTES);
+		reader.skip(this.tiles.length, Integer.BYTES);
+	}
+
+	void read(Checkpoint.Reader reader) {
+		reader.getLongs(this.entropies, this.entropies.length);
+		reader.getInts(this.tiles, this.tiles.length);
+	}
+}
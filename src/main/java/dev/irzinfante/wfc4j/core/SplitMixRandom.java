@@ -0,0 +1,64 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator used by the runs of the WFC algorithm, following the SplitMix64 algorithm of
+ * {@link java.util.SplittableRandom} with a fixed gamma, whose whole state is a single {@code long}. Unlike the
+ * generators given to the runs, its state can be saved in a checkpoint and restored without changing the numbers it
+ * draws afterwards
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class SplitMixRandom implements RandomGenerator {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private long state;
+
+	/**
+	 * Creates a generator with the given state, which is the seed of a new generator or the state of a saved one
+	 * 
+	 * @param	state The state of the generator
+	 */
+	SplitMixRandom(long state) {
+		this.state = state;
+	}
+
+	/**
+	 * Get the state of the generator, from which a generator created with it draws the same numbers as this one
+	 * 
+	 * @return	The state of the generator
+	 */
+	long getState() {
+		return this.state;
+	}
+
+	@Override
+	public long nextLong() {
+		var z = this.state += GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
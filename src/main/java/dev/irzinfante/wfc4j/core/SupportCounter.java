@@ -0,0 +1,177 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.IOException;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+
+/**
+ * Support counters for the AC-4 propagation. For every cell, tile and side it keeps how many of the tiles still
+ * possible in the adjacent cell on that side allow the tile next to them, so removing a tile from a cell only
+ * decrements the counters it actually supported
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class SupportCounter {
+
+	private final int tilesNumber;
+	private final int sidesNumber;
+	private final int words;
+	private final int[] oppositeSides;
+	private final long[] adjacents;
+	private final long[] unsupportedTiles;
+	private final int[] initialSupports;
+	private final int[] supports;
+
+	/**
+	 * Creates the support counters for a grid where every cell can still hold any tile
+	 * 
+	 * @param	adjacents Binary encoded adjacent tiles, the ones of each tile and side starting at
+	 * 			{@code (tile * sidesNumber + side) * words}
+	 * @param	tilesNumber Number of tiles of the tilemap
+	 * @param	oppositeSides Opposite of each side, indexed by side
+	 * @param	cellsNumber Number of cells of the grid
+	 * @throws	DimensionException If the grid has too many cells to keep a counter for each of its tiles and sides
+	 */
+	SupportCounter(long[] adjacents, int tilesNumber, int[] oppositeSides, int cellsNumber) throws DimensionException {
+		if((long) cellsNumber * tilesNumber * oppositeSides.length > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid is too big for the supports of AC-4 propagation");
+		}
+		this.tilesNumber = tilesNumber;
+		this.sidesNumber = oppositeSides.length;
+		this.words = Bitsets.words(tilesNumber);
+		this.oppositeSides = oppositeSides;
+		this.adjacents = adjacents;
+		this.unsupportedTiles = new long[this.sidesNumber * this.words];
+		
+		var initialSupports = new int[tilesNumber * this.sidesNumber];
+		this.initialSupports = initialSupports;
+		for(var tile = 0; tile < tilesNumber; tile++) {
+			for(var side = 0; side < this.sidesNumber; side++) {
+				var opposite = oppositeSides[side];
+				var offset = (tile * this.sidesNumber + side) * this.words;
+				for(var word = 0; word < this.words; word++) {
+					for(var remaining = adjacents[offset + word]; remaining != 0; remaining &= remaining - 1) {
+						var adjacent = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+						initialSupports[adjacent * this.sidesNumber + opposite]++;
+					}
+				}
+			}
+		}
+		for(var tile = 0; tile < tilesNumber; tile++) {
+			for(var side = 0; side < this.sidesNumber; side++) {
+				if(initialSupports[tile * this.sidesNumber + this.oppositeSides[side]] == 0) {
+					Bitsets.add(this.unsupportedTiles, side * this.words, tile);
+				}
+			}
+		}
+		
+		this.supports = new int[cellsNumber * initialSupports.length];
+		this.reset();
+	}
+
+	/**
+	 * Puts back the counters of a grid where every cell can still hold any tile, reusing the array of the counters
+	 */
+	void reset() {
+		for(var offset = 0; offset < this.supports.length; offset += this.initialSupports.length) {
+			System.arraycopy(this.initialSupports, 0, this.supports, offset, this.initialSupports.length);
+		}
+	}
+
+	/**
+	 * Get the tiles that no tile allows on the given side
+	 * 
+	 * @param	side Side of the cell where the tiles would be placed
+	 * @param	unsupported Array where the binary encoded tiles without any support from the opposite side are stored
+	 */
+	void getUnsupportedTiles(int side, long[] unsupported) {
+		System.arraycopy(this.unsupportedTiles, side * this.words, unsupported, 0, this.words);
+	}
+
+	/**
+	 * Removes the supports given by some tiles of a cell to the adjacent cell on one of its sides
+	 * 
+	 * @param	sideCell Index of the adjacent cell
+	 * @param	side Side of the cell where the adjacent cell is
+	 * @param	removedTiles Array holding the binary encoded tiles removed from the cell
+	 * @param	removedOffset Index of the first word of the removed tiles
+	 * @param	unsupported Array where the binary encoded tiles of the adjacent cell which have just lost their last
+	 * 			support are added
+	 * @return	Boolean indicating whether any tile of the adjacent cell has just lost its last support
+	 */
+	boolean removeSupports(int sideCell, int side, long[] removedTiles, int removedOffset, long[] unsupported) {
+		var offset = sideCell * this.tilesNumber * this.sidesNumber + this.oppositeSides[side];
+		var found = false;
+		for(var removedWord = 0; removedWord < this.words; removedWord++) {
+			for(var removed = removedTiles[removedOffset + removedWord]; removed != 0; removed &= removed - 1) {
+				var removedTile = removedWord * Long.SIZE + Long.numberOfTrailingZeros(removed);
+				var adjacentsOffset = (removedTile * this.sidesNumber + side) * this.words;
+				for(var word = 0; word < this.words; word++) {
+					for(var remaining = this.adjacents[adjacentsOffset + word]; remaining != 0; remaining &= remaining - 1) {
+						var tile = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+						if(--this.supports[offset + tile * this.sidesNumber] == 0) {
+							unsupported[word] |= 1L << tile;
+							found = true;
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Gives back the supports previously removed with {@link #removeSupports(int, int, long[], int, long[])}
+	 * 
+	 * @param	sideCell Index of the adjacent cell
+	 * @param	side Side of the cell where the adjacent cell is
+	 * @param	restoredTiles Array holding the binary encoded tiles restored to the cell
+	 * @param	restoredOffset Index of the first word of the restored tiles
+	 */
+	void restoreSupports(int sideCell, int side, long[] restoredTiles, int restoredOffset) {
+		var offset = sideCell * this.tilesNumber * this.sidesNumber + this.oppositeSides[side];
+		for(var restoredWord = 0; restoredWord < this.words; restoredWord++) {
+			for(var restored = restoredTiles[restoredOffset + restoredWord]; restored != 0; restored &= restored - 1) {
+				var restoredTile = restoredWord * Long.SIZE + Long.numberOfTrailingZeros(restored);
+				var adjacentsOffset = (restoredTile * this.sidesNumber + side) * this.words;
+				for(var word = 0; word < this.words; word++) {
+					for(var remaining = this.adjacents[adjacentsOffset + word]; remaining != 0; remaining &= remaining - 1) {
+						this.supports[offset + (word * Long.SIZE + Long.numberOfTrailingZeros(remaining)) * this.sidesNumber]++;
+					}
+				}
+			}
+		}
+	}
+
+	void write(Checkpoint.Writer writer) throws IOException {
+		writer.putInts(this.supports, this.supports.length);
+	}
+
+	void skip(Checkpoint.Reader reader) {
+		reader.skip(this.supports.length, Integer.BYTES);
+	}
+
+	void read(Checkpoint.Reader reader) {
+		reader.getInts(this.supports, this.supports.length);
+	}
+}
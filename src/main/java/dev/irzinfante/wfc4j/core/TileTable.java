@@ -0,0 +1,63 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+/**
+ * Adjacency table and weights of a compiled tilemap, built once with the tilemap and read by every grid that uses it
+ * without copying them. Only the grids can read the arrays, so they can't be changed through the tilemap
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class TileTable {
+
+	private final long[] adjacents;
+	private final double[] weights;
+
+	/**
+	 * Creates a table sharing the given arrays, which must not be changed afterwards
+	 * 
+	 * @param	adjacents Binary encoded adjacent tiles, the ones of each tile and side starting at
+	 * 			{@code (tile * sidesNumber + side) * words}
+	 * @param	weights Weight of each tile, indexed by id
+	 */
+	public TileTable(long[] adjacents, double[] weights) {
+		this.adjacents = adjacents;
+		this.weights = weights;
+	}
+
+	/**
+	 * Get the adjacent tiles of every tile and side
+	 * 
+	 * @return	Backing array of the table
+	 */
+	long[] getAdjacents() {
+		return this.adjacents;
+	}
+
+	/**
+	 * Get the weights of the tiles
+	 * 
+	 * @return	Backing array of the weights
+	 */
+	double[] getWeights() {
+		return this.weights;
+	}
+}
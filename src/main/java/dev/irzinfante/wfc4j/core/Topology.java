@@ -0,0 +1,202 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.util.Arrays;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+
+/**
+ * Neighbourhood of the cells of a grid, precomputed in a flat table with the adjacent cell of every cell on each of
+ * its sides, so the WFC algorithm never computes cell indexes while running. Cells are numbered in row-major order,
+ * i.e. the index on the last axis changes the fastest
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class Topology {
+
+	private final int[] gridSizes;
+	private final int cellsNumber;
+	private final int sidesNumber;
+	private final int[] sideCells;
+	private final int[] oppositeSides;
+
+	private Topology(int[] gridSizes, int[][] sideOffsets, boolean toroidal) throws DimensionException {
+		var cellsNumber = 1L;
+		for(var gridSize : gridSizes) {
+			cellsNumber *= gridSize;
+		}
+		if(cellsNumber * sideOffsets.length > Integer.MAX_VALUE) {
+			throw new DimensionException("Grid too big: cannot exceed " + Integer.MAX_VALUE / sideOffsets.length + " cells");
+		}
+		this.gridSizes = gridSizes.clone();
+		this.cellsNumber = (int) cellsNumber;
+		this.sidesNumber = sideOffsets.length;
+		this.sideCells = new int[this.cellsNumber * this.sidesNumber];
+		
+		var cellIndex = new int[gridSizes.length];
+		for(var cell = 0; cell < this.cellsNumber; cell++) {
+			for(var side = 0; side < this.sidesNumber; side++) {
+				var sideCell = 0;
+				for(var axis = 0; axis < gridSizes.length; axis++) {
+					var index = cellIndex[axis] + sideOffsets[side][axis];
+					if(toroidal) {
+						index = Math.floorMod(index, gridSizes[axis]);
+					} else if(index < 0 || index >= gridSizes[axis]) {
+						sideCell = -1;
+						break;
+					}
+					sideCell = sideCell * gridSizes[axis] + index;
+				}
+				this.sideCells[cell * this.sidesNumber + side] = sideCell;
+			}
+			
+			for(var axis = gridSizes.length - 1; axis >= 0 && ++cellIndex[axis] == gridSizes[axis]; axis--) {
+				cellIndex[axis] = 0;
+			}
+		}
+		
+		this.oppositeSides = new int[this.sidesNumber];
+		for(var side = 0; side < this.sidesNumber; side++) {
+			var opposite = Arrays.stream(sideOffsets[side]).map(offset -> -offset).toArray();
+			for(var oppositeSide = 0; oppositeSide < this.sidesNumber; oppositeSide++) {
+				if(Arrays.equals(sideOffsets[oppositeSide], opposite)) {
+					this.oppositeSides[side] = oppositeSide;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the topology of a grid with borders, where cells on the border have no adjacent cell outwards
+	 * 
+	 * @param	gridSizes Size of the grid on each axis
+	 * @param	sideOffsets Offset from a cell to its adjacent cell on each axis, indexed by side. The opposite of each
+	 * 			side must be among them
+	 * @return	The topology of the grid
+	 * @throws	DimensionException If the table of adjacent cells is too big
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public static Topology euclidean(int[] gridSizes, int[][] sideOffsets) throws DimensionException {
+		return new Topology(gridSizes, sideOffsets, false);
+	}
+
+	/**
+	 * Builds the topology of a grid whose borders are stitched, so the cells on one border are adjacent to the cells
+	 * on the opposite border
+	 * 
+	 * @param	gridSizes Size of the grid on each axis
+	 * @param	sideOffsets Offset from a cell to its adjacent cell on each axis, indexed by side. The opposite of each
+	 * 			side must be among them
+	 * @return	The topology of the grid
+	 * @throws	DimensionException If the table of adjacent cells is too big
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public static Topology toroidal(int[] gridSizes, int[][] sideOffsets) throws DimensionException {
+		return new Topology(gridSizes, sideOffsets, true);
+	}
+
+	/**
+	 * Builds the topology of a grid from its sizes and the offsets of its sides, like {@link #euclidean(int[], int[][])}
+	 * and {@link #toroidal(int[], int[][])}. Grids take one when created, so they don't have to call an overridable
+	 * method from their constructors
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	@FunctionalInterface
+	public interface Factory {
+
+		/**
+		 * Builds the topology of a grid
+		 * 
+		 * @param	gridSizes Size of the grid on each axis
+		 * @param	sideOffsets Offset from a cell to its adjacent cell on each axis, indexed by side
+		 * @return	The topology of the grid
+		 * @throws	DimensionException If the table of adjacent cells is too big
+		 */
+		Topology create(int[] gridSizes, int[][] sideOffsets) throws DimensionException;
+	}
+
+	/**
+	 * Get the size of the grid on each axis
+	 * 
+	 * @return	Copy of the sizes of the grid
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int[] getGridSizes() {
+		return this.gridSizes.clone();
+	}
+
+	public int getCellsNumber() {
+		return this.cellsNumber;
+	}
+
+	public int getSidesNumber() {
+		return this.sidesNumber;
+	}
+
+	/**
+	 * Get the cell adjacent to a given cell on one of its sides
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	side Value of the side
+	 * @return	Index of the adjacent cell, or -1 if there is no cell on that side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int getSideCell(int cell, int side) {
+		return this.sideCells[cell * this.sidesNumber + side];
+	}
+
+	/**
+	 * Get the side facing a given side in the adjacent cell
+	 * 
+	 * @param	side Value of the side
+	 * @return	Value of the opposite side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int getOppositeSide(int side) {
+		return this.oppositeSides[side];
+	}
+
+	/**
+	 * Get the adjacent cells of every cell, the one on each side at {@code cell * sidesNumber + side}
+	 * 
+	 * @return	Backing array of the table
+	 */
+	int[] getSideCells() {
+		return this.sideCells;
+	}
+
+	int[] getOppositeSides() {
+		return this.oppositeSides;
+	}
+}
@@ -0,0 +1,274 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Undo log of the entropy changes made to the grid. Every change records the cell, the entropy it had before and
+ * the decision level that had reduced it last, and every decision of the search marks the height of the trail when it started, so undoing a decision is
+ * restoring the entries above its mark in reverse order. With weighted tiles the entries also keep the sums of the
+ * weights of the cell, so they are restored without recomputing them
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final class Trail {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final int words;
+	private int[] cells;
+	private int[] reasons;
+	private long[] entropies;
+	private double[] weightSums;
+	private int size;
+	private int[] levels;
+	private int depth;
+
+	/**
+	 * Creates an empty trail
+	 * 
+	 * @param	words Number of words of the entropy of each cell
+	 * @param	weighted Whether the entries keep the sums of the weights of the cell
+	 */
+	Trail(int words, boolean weighted) {
+		this.words = words;
+		this.cells = new int[INITIAL_CAPACITY];
+		this.reasons = new int[INITIAL_CAPACITY];
+		this.entropies = new long[INITIAL_CAPACITY * words];
+		this.weightSums = weighted ? new double[INITIAL_CAPACITY * 2] : null;
+		this.size = 0;
+		this.levels = new int[INITIAL_CAPACITY];
+		this.depth = 0;
+	}
+
+	/**
+	 * Records the entropy a cell had before changing it
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	reason Decision level of the last change of the cell
+	 * @param	entropies Array holding the binary encoded possible tiles before the change
+	 * @param	offset Index of the first word of the entropy of the cell
+	 */
+	void push(int cell, int reason, long[] entropies, int offset) {
+		if(this.size == this.cells.length) {
+			this.cells = Arrays.copyOf(this.cells, this.size * 2);
+			this.reasons = Arrays.copyOf(this.reasons, this.size * 2);
+			this.entropies = Arrays.copyOf(this.entropies, this.size * 2 * this.words);
+			if(this.weightSums != null) {
+				this.weightSums = Arrays.copyOf(this.weightSums, this.size * 2 * 2);
+			}
+		}
+		this.cells[this.size] = cell;
+		this.reasons[this.size] = reason;
+		System.arraycopy(entropies, offset, this.entropies, this.size * this.words, this.words);
+		this.size++;
+	}
+
+	/**
+	 * Records the entropy and the sums of the weights a cell had before changing it
+	 * 
+	 * @param	cell Index of the cell
+	 * @param	reason Decision level of the last change of the cell
+	 * @param	entropies Array holding the binary encoded possible tiles before the change
+	 * @param	offset Index of the first word of the entropy of the cell
+	 * @param	weightSum Sum of the weights of the possible tiles before the change
+	 * @param	weightLogWeightSum Sum of {@code w * log(w)} for the weights of the possible tiles before the change
+	 */
+	void push(int cell, int reason, long[] entropies, int offset, double weightSum, double weightLogWeightSum) {
+		this.push(cell, reason, entropies, offset);
+		this.weightSums[(this.size - 1) * 2] = weightSum;
+		this.weightSums[(this.size - 1) * 2 + 1] = weightLogWeightSum;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	int getCell(int entry) {
+		return this.cells[entry];
+	}
+
+	int getReason(int entry) {
+		return this.reasons[entry];
+	}
+
+	/**
+	 * Get the recorded entropies, the one of each entry starting at {@code entry * words}. The array is replaced
+	 * when the trail grows, so it must not be kept across calls to {@link #push(int, int, long[], int)}
+	 * 
+	 * @return	Backing array of the recorded entropies
+	 */
+	long[] getEntropies() {
+		return this.entropies;
+	}
+
+	double getWeightSum(int entry) {
+		return this.weightSums[entry * 2];
+	}
+
+	double getWeightLogWeightSum(int entry) {
+		return this.weightSums[entry * 2 + 1];
+	}
+
+	/**
+	 * Discards the entries above the given height, once they have been restored
+	 * 
+	 * @param	height Number of entries to keep
+	 */
+	void truncate(int height) {
+		this.size = height;
+	}
+
+	/**
+	 * Discards every entry and decision level
+	 */
+	void clear() {
+		this.size = 0;
+		this.depth = 0;
+	}
+
+	/**
+	 * Starts a new decision level at the current height of the trail
+	 */
+	void pushLevel() {
+		if(this.depth == this.levels.length) {
+			this.levels = Arrays.copyOf(this.levels, this.depth * 2);
+		}
+		this.levels[this.depth++] = this.size;
+	}
+
+	/**
+	 * Ends the last decision level
+	 * 
+	 * @return	Height of the trail when the level started
+	 */
+	int popLevel() {
+		return this.levels[--this.depth];
+	}
+
+	/**
+	 * Get the height of the trail when the last decision level started
+	 * 
+	 * @return	Height of the trail, or 0 if there is no decision level
+	 */
+	int getLevelStart() {
+		return this.depth == 0 ? 0 : this.levels[this.depth - 1];
+	}
+
+	int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Writes the entries and the decision levels of the trail
+	 * 
+	 * @param	writer The writer of the checkpoint
+	 * @throws	IOException If the checkpoint can't be written
+	 */
+	void write(Checkpoint.Writer writer) throws IOException {
+		writer.putInt(this.size);
+		writer.putInt(this.depth);
+		writer.putInts(this.cells, this.size);
+		writer.putInts(this.reasons, this.size);
+		writer.putLongs(this.entropies, this.size * this.words);
+		if(this.weightSums != null) {
+			writer.putDoubles(this.weightSums, this.size * 2);
+		}
+		writer.putInts(this.levels, this.depth);
+	}
+
+	/**
+	 * Skips the trail written in a checkpoint, checking its sizes and the order of its decision levels without changing
+	 * this trail
+	 * 
+	 * @param	reader The reader of the checkpoint
+	 * @param	cellsNumber Number of cells of the grid
+	 * @param	initialHeight Height of the trail before the first decision of the run
+	 * @return	Number of decision levels of the trail
+	 * @throws	IOException If the sizes of the trail are negative, its entries change cells outside the grid or have
+	 * 			reasons beyond its levels, or its levels don't go up from the initial height to its size
+	 */
+	int skip(Checkpoint.Reader reader, int cellsNumber, int initialHeight) throws IOException {
+		var size = reader.getInt();
+		var depth = reader.getInt();
+		if(size < 0 || depth < 0) {
+			throw new IOException("Corrupt checkpoint: negative size of the trail");
+		} else if(initialHeight > size) {
+			throw new IOException("Corrupt checkpoint: initial height beyond the entries of the trail");
+		}
+		for(var entry = 0; entry < size; entry++) {
+			var cell = reader.getInt();
+			if(cell < 0 || cell >= cellsNumber) {
+				throw new IOException("Corrupt checkpoint: cell outside the grid in the trail");
+			}
+		}
+		for(var entry = 0; entry < size; entry++) {
+			var reason = reader.getInt();
+			if(reason < 0 || reason > depth) {
+				throw new IOException("Corrupt checkpoint: reason beyond the decision levels of the trail");
+			}
+		}
+		reader.skip((long) size * this.words, Long.BYTES);
+		if(this.weightSums != null) {
+			reader.skip((long) size * 2, Double.BYTES);
+		}
+		var previousHeight = initialHeight;
+		for(var level = 0; level < depth; level++) {
+			var height = reader.getInt();
+			if(height < previousHeight || height > size) {
+				throw new IOException("Corrupt checkpoint: decision level out of order in the trail");
+			}
+			previousHeight = height;
+		}
+		return depth;
+	}
+
+	/**
+	 * Replaces the entries and the decision levels of the trail with the ones of a checkpoint, growing the arrays
+	 * when they don't fit
+	 * 
+	 * @param	reader The reader of the checkpoint
+	 */
+	void read(Checkpoint.Reader reader) {
+		this.size = reader.getInt();
+		this.depth = reader.getInt();
+		if(this.size > this.cells.length) {
+			this.cells = new int[this.size];
+			this.reasons = new int[this.size];
+			this.entropies = new long[this.size * this.words];
+			if(this.weightSums != null) {
+				this.weightSums = new double[this.size * 2];
+			}
+		}
+		if(this.depth > this.levels.length) {
+			this.levels = new int[this.depth];
+		}
+		reader.getInts(this.cells, this.size);
+		reader.getInts(this.reasons, this.size);
+		reader.getLongs(this.entropies, this.size * this.words);
+		if(this.weightSums != null) {
+			reader.getDoubles(this.weightSums, this.size * 2);
+		}
+		reader.getInts(this.levels, this.depth);
+	}
+}
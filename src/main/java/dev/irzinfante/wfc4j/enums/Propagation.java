@@ -16,48 +16,27 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
-package dev.irzinfante.wfc4j.model;
-
-import java.util.Stack;
+package dev.irzinfante.wfc4j.enums;
 
 /**
+ * Strategies to propagate the collapse of a cell through the grid
+ * 
  * @author	irzinfante iker@irzinfante.dev
- * @version 1.0.0
- * @since	1.0.0
+ * @version	2.0.0
+ * @since	2.0.0
  */
-final public class Cell implements Comparable<Cell> {
-
-	private int tile;
-    private Stack<Long> entropy;
-
-    public Cell(long entropy) {
-		this.tile = -1;
-		this.entropy = new Stack<>();
-        this.entropy.push(entropy);
-    }
-
-	public int getTile() {
-		return this.tile;
-	}
-	
-	public void setTile(int tile) {
-		this.tile = tile;
-	}
-
-    public long getEntropy() {
-		return this.entropy.peek();
-	}
-	
-	public void pushEntropy(long entropy) {
-		this.entropy.push(entropy);
-	}
-
-	public long popEntropy() {
-		return this.entropy.pop();
-	}
-
-    @Override
-	public int compareTo(Cell other) {
-		return Long.bitCount(this.entropy.peek()) - Long.bitCount(other.entropy.peek());
-	}
+public enum Propagation {
+	/**
+	 * Only the cells adjacent to the collapsed cell are constrained by its tile
+	 */
+	Adjacent,
+	/**
+	 * Every cell whose entropy changes constrains its own adjacent cells, until no entropy changes anymore (AC-3)
+	 */
+	AC3,
+	/**
+	 * Same result as {@link #AC3}, but keeping a counter of supporting tiles for every cell, tile and side,
+	 * so the cost of the propagation depends on the number of removed tiles instead of on the size of the entropies (AC-4)
+	 */
+	AC4;
 }
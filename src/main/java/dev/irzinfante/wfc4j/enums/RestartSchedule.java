@@ -0,0 +1,43 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.enums;
+
+/**
+ * Schedules for the limits of the successive attempts of a search with restarts
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+public enum RestartSchedule {
+	/**
+	 * Every attempt has the same limit
+	 */
+	None,
+	/**
+	 * The limit of the attempt {@code i} is the unit times the {@code i}-th term of the Luby sequence
+	 * (1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...), which is within a logarithmic factor of the optimal schedule
+	 * when nothing is known about the distribution of the time to solution
+	 */
+	Luby,
+	/**
+	 * The limit of the attempt {@code i} is the initial limit times the factor raised to {@code i}
+	 */
+	Geometric;
+}
@@ -20,7 +20,7 @@ package dev.irzinfante.wfc4j.enums;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 public enum Side1D {
@@ -36,4 +36,42 @@ public enum Side1D {
 	public int getValue() {
         return value;
     }
+
+	/**
+	 * Get the side facing this one in the adjacent cell
+	 * 
+	 * @return	The opposite side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public Side1D getOpposite() {
+		switch(this) {
+			case Left:
+				return Right;
+			case Right:
+				return Left;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Get the offset from a cell to the adjacent cell on this side
+	 * 
+	 * @return	Difference of the index of the adjacent cell on each axis (the X axis)
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int[] getOffset() {
+		switch(this) {
+			case Left:
+				return new int[] {-1};
+			case Right:
+				return new int[] {1};
+			default:
+				return null;
+		}
+	}
 }
\ No newline at end of file
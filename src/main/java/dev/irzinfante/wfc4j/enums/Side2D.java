@@ -20,7 +20,7 @@ package dev.irzinfante.wfc4j.enums;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 public enum Side2D {
@@ -38,4 +38,50 @@ public enum Side2D {
 	public int getValue() {
         return value;
     }
+
+	/**
+	 * Get the side facing this one in the adjacent cell
+	 * 
+	 * @return	The opposite side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public Side2D getOpposite() {
+		switch(this) {
+			case Left:
+				return Right;
+			case Right:
+				return Left;
+			case Bottom:
+				return Top;
+			case Top:
+				return Bottom;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Get the offset from a cell to the adjacent cell on this side
+	 * 
+	 * @return	Difference of the index of the adjacent cell on each axis (the X and Y axes)
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int[] getOffset() {
+		switch(this) {
+			case Left:
+				return new int[] {0, -1};
+			case Right:
+				return new int[] {0, 1};
+			case Bottom:
+				return new int[] {1, 0};
+			case Top:
+				return new int[] {-1, 0};
+			default:
+				return null;
+		}
+	}
 }
\ No newline at end of file
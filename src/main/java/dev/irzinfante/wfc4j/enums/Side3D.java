@@ -0,0 +1,100 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.enums;
+
+/**
+ * Faces of a 3-dimensional cell. The sides of the X and Y axes are named as in {@link Side2D}, so a layer of a
+ * 3-dimensional grid along the Z axis is laid out as a 2-dimensional grid
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+public enum Side3D {
+	Left(0),
+	Right(1),
+	Bottom(2),
+	Top(3),
+	Front(4),
+	Back(5);
+
+	private final int value;
+	
+	private Side3D(int value) {
+		this.value = value;
+	}
+	
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * Get the side facing this one in the adjacent cell
+	 * 
+	 * @return	The opposite side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public Side3D getOpposite() {
+		switch(this) {
+			case Left:
+				return Right;
+			case Right:
+				return Left;
+			case Bottom:
+				return Top;
+			case Top:
+				return Bottom;
+			case Front:
+				return Back;
+			case Back:
+				return Front;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Get the offset from a cell to the adjacent cell on this side
+	 * 
+	 * @return	Difference of the index of the adjacent cell on each axis (the X, Y and Z axes)
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int[] getOffset() {
+		switch(this) {
+			case Left:
+				return new int[] {0, -1, 0};
+			case Right:
+				return new int[] {0, 1, 0};
+			case Bottom:
+				return new int[] {1, 0, 0};
+			case Top:
+				return new int[] {-1, 0, 0};
+			case Front:
+				return new int[] {0, 0, -1};
+			case Back:
+				return new int[] {0, 0, 1};
+			default:
+				return null;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.enums;
+
+/**
+ * Ways a run of the WFC algorithm can end
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+public enum SolveOutcome {
+	/**
+	 * Every cell of the grid was collapsed
+	 */
+	Solved,
+	/**
+	 * The search explored every possibility, so the grid has no solution
+	 */
+	Unsatisfiable,
+	/**
+	 * The search gave up because it reached the decisions or backtracks of the budget, or the limit of its last
+	 * attempt allowed by the search policy
+	 */
+	LimitReached,
+	/**
+	 * The time of the budget ran out
+	 */
+	Timeout,
+	/**
+	 * The run was cancelled or its thread was interrupted
+	 */
+	Cancelled;
+}
@@ -0,0 +1,238 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+
+import dev.irzinfante.wfc4j.core.TileTable;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+/**
+ * Immutable snapshot of a tilemap where tiles are identified by their index in the tileset (their id) and the
+ * adjacencies are kept in a flat table, so it can be shared by solvers running in different threads.
+ * It is created with {@link TileMap1D#compile()} or {@link TileMap2D#compile()}
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class CompiledTileMap<T> {
+
+	private final List<Tile<T>> tileSet;
+	private final Map<Tile<T>, Integer> tileIds;
+	private final int sidesNumber;
+	private final int words;
+	private final long[] adjacents;
+	private final double[] weights;
+	private final boolean weighted;
+	private final TileTable tileTable;
+
+	/**
+	 * Creates a compiled tilemap
+	 * 
+	 * @param	tileSet The set of tiles, in the order of their ids
+	 * @param	sidesNumber Number of sides of the tiles
+	 * @param	adjacents Binary encoded adjacent tiles, the ones of each tile and side starting at
+	 * 			{@code (tile * sidesNumber + side) * words}
+	 * @param	weights Weight of each tile, indexed by id
+	 */
+	CompiledTileMap(List<Tile<T>> tileSet, int sidesNumber, long[] adjacents, double[] weights) {
+		this.tileSet = List.copyOf(tileSet);
+		this.tileIds = new HashMap<>();
+		for(var id = 0; id < tileSet.size(); id++) {
+			this.tileIds.put(tileSet.get(id), id);
+		}
+		this.sidesNumber = sidesNumber;
+		this.words = (tileSet.size() + Long.SIZE - 1) / Long.SIZE;
+		this.adjacents = adjacents;
+		this.weights = weights;
+		this.weighted = Arrays.stream(weights).anyMatch(weight -> weight != weights[0]);
+		this.tileTable = new TileTable(adjacents, weights);
+	}
+
+	public int getTilesNumber() {
+		return this.tileSet.size();
+	}
+
+	/**
+	 * Get the number of bytes of the narrowest signed integer type that fits the ids of the tiles
+	 * 
+	 * @return	1 for tilesets of up to {@code Byte.MAX_VALUE + 1} tiles, 2 for tilesets of up to
+	 * 			{@code Short.MAX_VALUE + 1} tiles and 4 for bigger tilesets
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int getIdBytes() {
+		var maxId = this.tileSet.size() - 1;
+		return maxId <= Byte.MAX_VALUE ? Byte.BYTES : maxId <= Short.MAX_VALUE ? Short.BYTES : Integer.BYTES;
+	}
+
+	public int getSidesNumber() {
+		return this.sidesNumber;
+	}
+
+	/**
+	 * Get the number of {@code long} words of each binary encoded set of tiles
+	 * 
+	 * @return	Number of words, one per 64 tiles of the tileset
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int getWords() {
+		return this.words;
+	}
+
+	public List<Tile<T>> getTileSet() {
+		return this.tileSet;
+	}
+
+	/**
+	 * Get the tile with a given id
+	 * 
+	 * @param	id Index of the tile in the tileset
+	 * @return	The tile
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public Tile<T> getTile(int id) {
+		return this.tileSet.get(id);
+	}
+
+	public boolean contains(Tile<T> tile) {
+		return this.tileIds.containsKey(tile);
+	}
+
+	/**
+	 * Get the id of a given tile
+	 * 
+	 * @param	tile The tile
+	 * @return	Index of the tile in the tileset
+	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public int getTileId(Tile<T> tile) throws TileException {
+		var id = this.tileIds.get(tile);
+		if(id == null) {
+			throw new TileException("Tile must exist in tilemap");
+		}
+		return id;
+	}
+
+	/**
+	 * Get the possible adjacent tiles to a specific side of a given tile
+	 * 
+	 * @param	tile Id of the tile
+	 * @param	side Value of the side
+	 * @return	Binary encoded tiles that can be adjacent to the tile from the side, where tile {@code i} is bit
+	 * 			{@code i % 64} of word {@code i / 64}
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long[] getAdjacents(int tile, int side) {
+		var offset = (tile * this.sidesNumber + side) * this.words;
+		return Arrays.copyOfRange(this.adjacents, offset, offset + this.words);
+	}
+
+	/**
+	 * Checks whether a tile can be adjacent to a specific side of a given tile
+	 * 
+	 * @param	tile Id of the given tile
+	 * @param	side Value of the side
+	 * @param	adjacent Id of the potential adjacent tile
+	 * @return	Boolean indicating whether the adjacent tile is allowed on that side
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public boolean isAdjacent(int tile, int side, int adjacent) {
+		return (this.adjacents[(tile * this.sidesNumber + side) * this.words + adjacent / Long.SIZE] & (1L << adjacent)) != 0;
+	}
+
+	/**
+	 * Get the weight of a tile, i.e. how often it is chosen relative to the other possible tiles of a cell
+	 * 
+	 * @param	tile Id of the tile
+	 * @return	Weight of the tile
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public double getWeight(int tile) {
+		return this.weights[tile];
+	}
+
+	/**
+	 * Get the weights of all the tiles
+	 * 
+	 * @return	Copy of the weights, indexed by id
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public double[] getWeights() {
+		return Arrays.copyOf(this.weights, this.weights.length);
+	}
+
+	/**
+	 * Checks whether the tiles have different weights, so the WFC algorithm has to take them into account
+	 * 
+	 * @return	False if all the tiles have the same weight
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public boolean isWeighted() {
+		return this.weighted;
+	}
+
+	/**
+	 * Get the possible adjacent tiles of every tile and side in a single table
+	 * 
+	 * @return	Copy of the binary encoded adjacent tiles, the ones of each tile and side starting at
+	 * 			{@code (tile * getSidesNumber() + side) * getWords()}
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long[] getAdjacencyTable() {
+		return Arrays.copyOf(this.adjacents, this.adjacents.length);
+	}
+
+	/**
+	 * Get the adjacency table and the weights of the tilemap as the grids read them, sharing the arrays of the
+	 * tilemap instead of copying them for every grid
+	 * 
+	 * @return	The table of the tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public TileTable getTileTable() {
+		return this.tileTable;
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.model;
+
+import dev.irzinfante.wfc4j.enums.RestartSchedule;
+import dev.irzinfante.wfc4j.enums.SearchLimit;
+
+/**
+ * Immutable policy of the search of the WFC algorithm: how many backtracks or decisions an attempt may take before
+ * it is abandoned, and how many times the search is restarted from the initial grid with a limit that follows a
+ * restart schedule. An attempt that fails without reaching its limit has explored every possibility, so the
+ * grid has no solution and the search is not restarted
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class SearchPolicy {
+
+	private static final SearchPolicy UNLIMITED = new SearchPolicy(SearchLimit.Backtracks, RestartSchedule.None, Long.MAX_VALUE, 1, 0);
+
+	private final SearchLimit limit;
+	private final RestartSchedule schedule;
+	private final long unit;
+	private final double factor;
+	private final long maxRestarts;
+
+	private SearchPolicy(SearchLimit limit, RestartSchedule schedule, long unit, double factor, long maxRestarts) {
+		this.limit = limit;
+		this.schedule = schedule;
+		this.unit = unit;
+		this.factor = factor;
+		this.maxRestarts = maxRestarts;
+	}
+
+	/**
+	 * Get the policy of a single attempt with unlimited chronological backtracking, which is the default one
+	 * 
+	 * @return	The policy
+	 */
+	public static SearchPolicy unlimited() {
+		return UNLIMITED;
+	}
+
+	/**
+	 * Get the policy of a single attempt that gives up at the first contradiction, as the original WFC algorithm.
+	 * Use {@link #withMaxRestarts(long)} to start again from the initial grid instead
+	 * 
+	 * @return	The policy
+	 */
+	public static SearchPolicy noBacktracking() {
+		return limited(0);
+	}
+
+	/**
+	 * Get the policy of a single attempt that gives up after a given number of backtracks
+	 * 
+	 * @param	maxBacktracks Number of backtracks allowed
+	 * @return	The policy
+	 */
+	public static SearchPolicy limited(long maxBacktracks) {
+		if(maxBacktracks < 0) {
+			throw new IllegalArgumentException("Limit must not be negative");
+		}
+		return new SearchPolicy(SearchLimit.Backtracks, RestartSchedule.None, maxBacktracks, 1, 0);
+	}
+
+	/**
+	 * Get the policy that restarts the search indefinitely, limiting the backtracks of each attempt by the Luby
+	 * sequence scaled by a given unit
+	 * 
+	 * @param	unit Limit of the first attempt
+	 * @return	The policy
+	 */
+	public static SearchPolicy luby(long unit) {
+		if(unit < 1) {
+			throw new IllegalArgumentException("Unit must be positive");
+		}
+		return new SearchPolicy(SearchLimit.Backtracks, RestartSchedule.Luby, unit, 2, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Get the policy that restarts the search indefinitely, multiplying the backtracks allowed to each attempt
+	 * by a given factor
+	 * 
+	 * @param	initial Limit of the first attempt
+	 * @param	factor Factor between the limits of two consecutive attempts, at least 1
+	 * @return	The policy
+	 */
+	public static SearchPolicy geometric(long initial, double factor) {
+		if(initial < 1) {
+			throw new IllegalArgumentException("Initial limit must be positive");
+		} else if(!(factor >= 1) || Double.isInfinite(factor)) {
+			throw new IllegalArgumentException("Factor must be a number not less than 1");
+		}
+		return new SearchPolicy(SearchLimit.Backtracks, RestartSchedule.Geometric, initial, factor, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Get a copy of this policy that limits another counter of the search
+	 * 
+	 * @param	limit The counter limited for each attempt
+	 * @return	The policy
+	 */
+	public SearchPolicy withLimit(SearchLimit limit) {
+		return new SearchPolicy(limit, this.schedule, this.unit, this.factor, this.maxRestarts);
+	}
+
+	/**
+	 * Get a copy of this policy with a given number of restarts, after which the search gives up
+	 * 
+	 * @param	maxRestarts Number of restarts allowed, 0 for a single attempt
+	 * @return	The policy
+	 */
+	public SearchPolicy withMaxRestarts(long maxRestarts) {
+		if(maxRestarts < 0) {
+			throw new IllegalArgumentException("Number of restarts must not be negative");
+		}
+		return new SearchPolicy(this.limit, this.schedule, this.unit, this.factor, maxRestarts);
+	}
+
+	public SearchLimit getLimit() {
+		return this.limit;
+	}
+
+	public RestartSchedule getSchedule() {
+		return this.schedule;
+	}
+
+	public long getMaxRestarts() {
+		return this.maxRestarts;
+	}
+
+	/**
+	 * Get the limit of a given attempt of the search
+	 * 
+	 * @param	attempt Number of restarts before the attempt
+	 * @return	Number of backtracks or decisions allowed to the attempt
+	 */
+	public long getLimit(long attempt) {
+		return switch(this.schedule) {
+			case None -> this.unit;
+			case Luby -> saturatedMultiply(this.unit, getLubyTerm(attempt));
+			case Geometric -> {
+				var limit = this.unit * Math.pow(this.factor, attempt);
+				yield limit >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) limit;
+			}
+		};
+	}
+
+	/**
+	 * Get a term of the Luby sequence, computed as in MiniSat: the sequence is split in complete subsequences of
+	 * {@code 2^k - 1} terms ending with {@code 2^(k-1)}, and the position is reduced into them until it is the last one
+	 */
+	private static long getLubyTerm(long attempt) {
+		var size = 1L;
+		var exponent = 0;
+		while(size < attempt + 1) {
+			size = 2 * size + 1;
+			exponent++;
+		}
+		while(size - 1 != attempt) {
+			size = (size - 1) >> 1;
+			exponent--;
+			attempt = attempt % size;
+		}
+		return exponent >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << exponent;
+	}
+
+	private static long saturatedMultiply(long a, long b) {
+		var high = Math.multiplyHigh(a, b);
+		var low = a * b;
+		return high != 0 || low < 0 ? Long.MAX_VALUE : low;
+	}
+}
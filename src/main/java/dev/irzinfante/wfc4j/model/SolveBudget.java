@@ -0,0 +1,131 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.model;
+
+import java.time.Duration;
+
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+
+/**
+ * Immutable budget of a run of the WFC algorithm: the decisions and backtracks it may make and the time it may take,
+ * all of them counted over every attempt of the search. The budget is checked before each decision and after each
+ * backtrack, so a run stops at most one propagation after it is spent
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class SolveBudget {
+
+	private static final SolveBudget UNLIMITED = new SolveBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+	private final long maxDecisions;
+	private final long maxBacktracks;
+	private final long timeoutNanos;
+
+	private SolveBudget(long maxDecisions, long maxBacktracks, long timeoutNanos) {
+		this.maxDecisions = maxDecisions;
+		this.maxBacktracks = maxBacktracks;
+		this.timeoutNanos = timeoutNanos;
+	}
+
+	/**
+	 * Get the budget without limits, which is the one of {@code run()}
+	 * 
+	 * @return	The budget
+	 */
+	public static SolveBudget unlimited() {
+		return UNLIMITED;
+	}
+
+	/**
+	 * Get the budget that only limits the time of the run
+	 * 
+	 * @param	timeout Time the run may take
+	 * @return	The budget
+	 */
+	public static SolveBudget timeout(Duration timeout) {
+		return UNLIMITED.withTimeout(timeout);
+	}
+
+	/**
+	 * Get a copy of this budget with a given time for the run
+	 * 
+	 * @param	timeout Time the run may take, measured from its start
+	 * @return	The budget
+	 */
+	public SolveBudget withTimeout(Duration timeout) {
+		if(timeout.isNegative()) {
+			throw new IllegalArgumentException("Timeout must not be negative");
+		}
+		long timeoutNanos;
+		try {
+			timeoutNanos = timeout.toNanos();
+		} catch(ArithmeticException e) {
+			timeoutNanos = Long.MAX_VALUE;
+		}
+		return new SolveBudget(this.maxDecisions, this.maxBacktracks, timeoutNanos);
+	}
+
+	/**
+	 * Get a copy of this budget with a given number of decisions. The run makes at most that many decisions, and stops
+	 * with {@link SolveOutcome#LimitReached} before the next one
+	 * 
+	 * @param	maxDecisions Number of cells the run may choose to collapse
+	 * @return	The budget
+	 */
+	public SolveBudget withMaxDecisions(long maxDecisions) {
+		if(maxDecisions < 0) {
+			throw new IllegalArgumentException("Number of decisions must not be negative");
+		}
+		return new SolveBudget(maxDecisions, this.maxBacktracks, this.timeoutNanos);
+	}
+
+	/**
+	 * Get a copy of this budget with a given number of backtracks. The run reverts at most that many collapsed cells,
+	 * and stops with {@link SolveOutcome#LimitReached} when it needs one more, so with zero
+	 * backtracks it stops at the first tile that fails
+	 * 
+	 * @param	maxBacktracks Number of collapsed cells the run may revert
+	 * @return	The budget
+	 */
+	public SolveBudget withMaxBacktracks(long maxBacktracks) {
+		if(maxBacktracks < 0) {
+			throw new IllegalArgumentException("Number of backtracks must not be negative");
+		}
+		return new SolveBudget(this.maxDecisions, maxBacktracks, this.timeoutNanos);
+	}
+
+	public long getMaxDecisions() {
+		return this.maxDecisions;
+	}
+
+	public long getMaxBacktracks() {
+		return this.maxBacktracks;
+	}
+
+	/**
+	 * Get the time the run may take
+	 * 
+	 * @return	Time in nanoseconds, {@link Long#MAX_VALUE} if not limited
+	 */
+	public long getTimeoutNanos() {
+		return this.timeoutNanos;
+	}
+}
@@ -20,6 +20,7 @@ package dev.irzinfante.wfc4j.model;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -30,37 +31,40 @@ import dev.irzinfante.wfc4j.exceptions.TileException;
 
 /**
  * @author	irzinfante iker@irzinfante.dev
- * @version	1.0.0
+ * @version	2.0.0
  * @since	1.0.0
  */
 final public class TileMap1D<T> {
 
 	private List<Tile<T>> tileSet;
-	private Map<Integer, Long[]> adjacents;
+	private Map<Integer, long[][]> adjacents;
+	private int words;
+	private double[] weights;
 
 	/**
 	 * Creates a tilemap for 1-dimensional tiles with the given tileset
 	 *
 	 * @param	tileSet The set of tiles (i.e. tileset) for the tilemap
 	 * @throws	TileException If tileSet is empty
-	 * @throws	DimensionException If tileSet is too big
+	 * @throws	DimensionException Not thrown since the size of the tileset is no longer limited to {@link Long#SIZE} tiles
 	 * 
-	 * @version	1.0.0
+	 * @version	2.0.0
 	 * @since	1.0.0
 	 */
 	public TileMap1D(Set<Tile<T>> tileSet) throws TileException, DimensionException {
 		
 		if(tileSet.isEmpty()) {
 			throw new TileException("Set of tiles cannot be empty");
-		} else if(tileSet.size() > Long.SIZE) {
-			throw new DimensionException(String.format("Set of tiles too big: cannot exceed %d tiles", Long.SIZE));
 		}
 		
 		this.tileSet = new ArrayList<>(tileSet);
 		this.adjacents = new HashMap<>();
+		this.words = (tileSet.size() + Long.SIZE - 1) / Long.SIZE;
+		this.weights = new double[tileSet.size()];
+		Arrays.fill(this.weights, 1);
 
 		tileSet.forEach(tile -> {
-			this.adjacents.put(this.tileSet.indexOf(tile), new Long[Side1D.values().length]);
+			this.adjacents.put(this.tileSet.indexOf(tile), new long[Side1D.values().length][this.words]);
 		});
 	}
 	
@@ -70,18 +74,44 @@ final public class TileMap1D<T> {
 	 * @param	tile The given tile for which to get the possible adjacent tiles
 	 * @param	side The side of the given tile from which to get the possible adjacent tiles
 	 * @return	Binary encoded list tiles that can be adjacent to the provided tile from the selected side
-	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * @throws	TileException If the given tile doesn't exist in tilemap, or if the tileset is bigger than
+	 * 			{@link Long#SIZE} tiles and can't be encoded in a single word
+	 * 
+	 * @deprecated	Only encodes tilesets of up to {@link Long#SIZE} tiles, use {@link #getAdjacentWords(Tile, Side1D)}
 	 * 
-	 * @version	1.0.0
+	 * @version	2.0.0
 	 * @since	1.0.0
 	 */
+	@Deprecated(since = "2.0.0")
 	public long getAdjacents(Tile<T> tile, Side1D side) throws TileException {
 		
+		if(this.words > 1) {
+			throw new TileException(String.format("Set of tiles too big to encode its adjacents in a single word: it exceeds %d tiles", Long.SIZE));
+		}
+		
+		return this.getAdjacentWords(tile, side)[0];
+	}
+	
+	/**
+	 * Get the possible adjacent tiles to a specific side of a given tile, for tilesets of any size
+	 *
+	 * @param	tile The given tile for which to get the possible adjacent tiles
+	 * @param	side The side of the given tile from which to get the possible adjacent tiles
+	 * @return	Binary encoded list tiles that can be adjacent to the provided tile from the selected side, where tile
+	 * 			{@code i} of the tileset is bit {@code i % 64} of word {@code i / 64}
+	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long[] getAdjacentWords(Tile<T> tile, Side1D side) throws TileException {
+		
 		if(!this.tileSet.contains(tile)) {
 			throw new TileException("Tile must exist in tilemap");
 		}
 		
-		return this.adjacents.get(this.tileSet.indexOf(tile))[side.getValue()];
+		var adjacents = this.adjacents.get(this.tileSet.indexOf(tile))[side.getValue()];
+		return Arrays.copyOf(adjacents, adjacents.length);
 	}
 	
 	/**
@@ -92,7 +122,7 @@ final public class TileMap1D<T> {
 	 * @param	adjacents The set of tiles to be set as the possible adjacent tiles for the given tile
 	 * @throws	TileException If the given tile or any of the potential adjacent tiles don't exist in tilemap
 	 * 
-	 * @version	1.0.0
+	 * @version	2.0.0
 	 * @since	1.0.0
 	 */
 	public void setAdjacents(Tile<T> tile, Side1D side, Set<Tile<T>> adjacents) throws TileException {
@@ -103,9 +133,10 @@ final public class TileMap1D<T> {
 			throw new TileException("All adjacent tiles must exist in tilemap");
 		}
 
-		var bynaryAdjacents = 0L;
+		var bynaryAdjacents = new long[this.words];
 		for(var adjacent : adjacents) {
-			bynaryAdjacents += (1L << tileSet.indexOf(adjacent));
+			var adjacentIndex = tileSet.indexOf(adjacent);
+			bynaryAdjacents[adjacentIndex / Long.SIZE] |= 1L << adjacentIndex;
 		}
 		
 		this.adjacents.get(tileSet.indexOf(tile))[side.getValue()] = bynaryAdjacents;
@@ -119,7 +150,7 @@ final public class TileMap1D<T> {
 	 * @param	adjacent A single tile to be added to the possible adjacent tiles for the given tile
 	 * @throws	TileException If the given tile or the potential adjacent tile to be added don't exist in tilemap
 	 * 
-	 * @version	1.0.0
+	 * @version	2.0.0
 	 * @since	1.0.0
 	 */
 	public void addAdjacent(Tile<T> tile, Side1D side, Tile<T> adjacent) throws TileException {
@@ -130,11 +161,75 @@ final public class TileMap1D<T> {
 			throw new TileException("Adjacent tile must exist in tilemap");
 		}
 		
-		var tileIndex = this.tileSet.indexOf(adjacent);
-		this.adjacents.get(tileIndex)[side.getValue()] |= (1L << tileIndex);
+		var adjacentIndex = this.tileSet.indexOf(adjacent);
+		this.adjacents.get(this.tileSet.indexOf(tile))[side.getValue()][adjacentIndex / Long.SIZE] |= 1L << adjacentIndex;
+	}
+	
+	/**
+	 * Set the weight of a given tile, i.e. how often it is chosen relative to the other possible tiles of a cell.
+	 * When the weights differ, cells are also collapsed in order of their Shannon entropy instead of their
+	 * number of possible tiles
+	 *
+	 * @param	tile The given tile for which to set the weight
+	 * @param	weight Positive weight of the tile, 1 by default
+	 * @throws	TileException If the given tile doesn't exist in tilemap or the weight is not a positive number
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setWeight(Tile<T> tile, double weight) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		} else if(!(weight > 0) || Double.isInfinite(weight)) {
+			throw new TileException("Weight of a tile must be a positive number");
+		}
+		
+		this.weights[this.tileSet.indexOf(tile)] = weight;
+	}
+	
+	/**
+	 * Get the weight of a given tile
+	 *
+	 * @param	tile The given tile for which to get the weight
+	 * @return	Weight of the tile
+	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public double getWeight(Tile<T> tile) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		}
+		
+		return this.weights[this.tileSet.indexOf(tile)];
 	}
 	
 	public List<Tile<T>> getTileSet() {
 		return this.tileSet;
 	}
+	
+	/**
+	 * Creates an immutable snapshot of the tilemap where tiles are identified by their index in the tileset,
+	 * to be shared by any number of WFC grids, also from different threads. Later changes to this tilemap
+	 * are not reflected in the snapshot
+	 *
+	 * @return	The compiled tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public CompiledTileMap<T> compile() {
+		var sidesNumber = Side1D.values().length;
+		var adjacents = new long[this.tileSet.size() * sidesNumber * this.words];
+		for(var tile = 0; tile < this.tileSet.size(); tile++) {
+			var tileAdjacents = this.adjacents.get(tile);
+			for(var side = 0; side < sidesNumber; side++) {
+				System.arraycopy(tileAdjacents[side], 0, adjacents, (tile * sidesNumber + side) * this.words, this.words);
+			}
+		}
+		return new CompiledTileMap<>(this.tileSet, sidesNumber, adjacents, Arrays.copyOf(this.weights, this.weights.length));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import dev.irzinfante.wfc4j.enums.Side3D;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+/**
+ * Tilemap for 3-dimensional tiles (i.e. voxels), where the possible adjacent tiles are set for each of the six faces
+ * 
+ * @author	irzinfante iker@irzinfante.dev
+ * @version	2.0.0
+ * @since	2.0.0
+ */
+final public class TileMap3D<T> {
+
+	private List<Tile<T>> tileSet;
+	private Map<Integer, long[][]> adjacents;
+	private int words;
+	private double[] weights;
+
+	/**
+	 * Creates a tilemap for 3-dimensional tiles with the given tileset
+	 *
+	 * @param	tileSet The set of tiles (i.e. tileset) for the tilemap
+	 * @throws	TileException If tileSet is empty
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public TileMap3D(Set<Tile<T>> tileSet) throws TileException {
+		
+		if(tileSet.isEmpty()) {
+			throw new TileException("Set of tiles cannot be empty");
+		}
+		
+		this.tileSet = new ArrayList<>(tileSet);
+		this.adjacents = new HashMap<>();
+		this.words = (tileSet.size() + Long.SIZE - 1) / Long.SIZE;
+		this.weights = new double[tileSet.size()];
+		Arrays.fill(this.weights, 1);
+
+		tileSet.forEach(tile -> {
+			this.adjacents.put(this.tileSet.indexOf(tile), new long[Side3D.values().length][this.words]);
+		});
+	}
+	
+	/**
+	 * Get the possible adjacent tiles to a specific side of a given tile
+	 *
+	 * @param	tile The given tile for which to get the possible adjacent tiles
+	 * @param	side The side of the given tile from which to get the possible adjacent tiles
+	 * @return	Binary encoded list tiles that can be adjacent to the provided tile from the selected side, where tile
+	 * 			{@code i} of the tileset is bit {@code i % 64} of word {@code i / 64}
+	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public long[] getAdjacentWords(Tile<T> tile, Side3D side) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		}
+		
+		var adjacents = this.adjacents.get(this.tileSet.indexOf(tile))[side.getValue()];
+		return Arrays.copyOf(adjacents, adjacents.length);
+	}
+	
+	/**
+	 * Set the possible adjacent tiles to a specific side of a given tile
+	 *
+	 * @param	tile The given tile for which to set the possible adjacent tiles
+	 * @param	side The side of the given tile for which to set the possible adjacent tiles
+	 * @param	adjacents The set of tiles to be set as the possible adjacent tiles for the given tile
+	 * @throws	TileException If the given tile or any of the potential adjacent tiles don't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setAdjacents(Tile<T> tile, Side3D side, Set<Tile<T>> adjacents) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must be exist in tilemap");
+		} else if(!this.tileSet.containsAll(adjacents)) {
+			throw new TileException("All adjacent tiles must exist in tilemap");
+		}
+
+		var bynaryAdjacents = new long[this.words];
+		for(var adjacent : adjacents) {
+			var adjacentIndex = tileSet.indexOf(adjacent);
+			bynaryAdjacents[adjacentIndex / Long.SIZE] |= 1L << adjacentIndex;
+		}
+		
+		this.adjacents.get(tileSet.indexOf(tile))[side.getValue()] = bynaryAdjacents;
+	}
+	
+	/**
+	 * Add a single tile to the possible adjacent tiles to a specific side of a given tile
+	 *
+	 * @param	tile The given tile for which to add the possible adjacent tile
+	 * @param	side The side of the given tile for which to add the possible adjacent tile
+	 * @param	adjacent A single tile to be added to the possible adjacent tiles for the given tile
+	 * @throws	TileException If the given tile or the potential adjacent tile to be added don't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void addAdjacent(Tile<T> tile, Side3D side, Tile<T> adjacent) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		} else if(!this.tileSet.contains(adjacent)) {
+			throw new TileException("Adjacent tile must exist in tilemap");
+		}
+		
+		var adjacentIndex = this.tileSet.indexOf(adjacent);
+		this.adjacents.get(this.tileSet.indexOf(tile))[side.getValue()][adjacentIndex / Long.SIZE] |= 1L << adjacentIndex;
+	}
+	
+	/**
+	 * Set the weight of a given tile, i.e. how often it is chosen relative to the other possible tiles of a cell.
+	 * When the weights differ, cells are also collapsed in order of their Shannon entropy instead of their
+	 * number of possible tiles
+	 *
+	 * @param	tile The given tile for which to set the weight
+	 * @param	weight Positive weight of the tile, 1 by default
+	 * @throws	TileException If the given tile doesn't exist in tilemap or the weight is not a positive number
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public void setWeight(Tile<T> tile, double weight) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		} else if(!(weight > 0) || Double.isInfinite(weight)) {
+			throw new TileException("Weight of a tile must be a positive number");
+		}
+		
+		this.weights[this.tileSet.indexOf(tile)] = weight;
+	}
+	
+	/**
+	 * Get the weight of a given tile
+	 *
+	 * @param	tile The given tile for which to get the weight
+	 * @return	Weight of the tile
+	 * @throws	TileException If the given tile doesn't exist in tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public double getWeight(Tile<T> tile) throws TileException {
+		
+		if(!this.tileSet.contains(tile)) {
+			throw new TileException("Tile must exist in tilemap");
+		}
+		
+		return this.weights[this.tileSet.indexOf(tile)];
+	}
+	
+	public List<Tile<T>> getTileSet() {
+		return this.tileSet;
+	}
+	
+	/**
+	 * Creates an immutable snapshot of the tilemap where tiles are identified by their index in the tileset,
+	 * to be shared by any number of WFC grids, also from different threads. Later changes to this tilemap
+	 * are not reflected in the snapshot
+	 *
+	 * @return	The compiled tilemap
+	 * 
+	 * @version	2.0.0
+	 * @since	2.0.0
+	 */
+	public CompiledTileMap<T> compile() {
+		var sidesNumber = Side3D.values().length;
+		var adjacents = new long[this.tileSet.size() * sidesNumber * this.words];
+		for(var tile = 0; tile < this.tileSet.size(); tile++) {
+			var tileAdjacents = this.adjacents.get(tile);
+			for(var side = 0; side < sidesNumber; side++) {
+				System.arraycopy(tileAdjacents[side], 0, adjacents, (tile * sidesNumber + side) * this.words, this.words);
+			}
+		}
+		return new CompiledTileMap<>(this.tileSet, sidesNumber, adjacents, Arrays.copyOf(this.weights, this.weights.length));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+
+/**
+ * Compares the backtracking with and without backjumping on the tilemap of the 2-dimensional toroidal test, giving
+ * each run the same limit of backtracks so the runs that thrash don't take over the benchmark.
+ * Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.BackjumpBenchmark</pre>
+ */
+public class BackjumpBenchmark {
+
+	private static final int RUNS = 40;
+	private static final int[] GRID_SIZES = {6, 7};
+	private static final long MAX_BACKTRACKS = 200_000;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.toroidal2D().compile();
+		
+		System.out.printf("%-10s %-10s %-10s %8s %12s %10s%n", "grid", "mode", "backjumps", "solved", "backtracks", "ms/run");
+		for(var gridSize : GRID_SIZES) {
+			for(var propagation : Propagation.values()) {
+				for(var backjumping : new boolean[] {false, true}) {
+					long backtracks = 0, solved = 0;
+					var start = System.nanoTime();
+					for(var i = 0; i < RUNS; i++) {
+						var WFC = new ToroidalWFC2D<String>(tileMap, gridSize, gridSize);
+						WFC.setPropagation(propagation);
+						WFC.setBackjumping(backjumping);
+						WFC.setSearchPolicy(SearchPolicy.limited(MAX_BACKTRACKS));
+						if(WFC.run(i)) {
+							solved++;
+						}
+						backtracks += WFC.getBacktracks();
+					}
+					var elapsed = (System.nanoTime() - start) / 1e6;
+					System.out.printf("%-10s %-10s %-10s %8d %12.1f %10.2f%n", gridSize + "x" + gridSize, propagation,
+						backjumping, solved, (double) backtracks / RUNS, elapsed / RUNS);
+				}
+			}
+		}
+	}
+}
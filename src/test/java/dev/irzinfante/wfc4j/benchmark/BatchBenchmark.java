@@ -0,0 +1,67 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import dev.irzinfante.wfc4j.api.BatchGenerator;
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.model.Tile;
+
+/**
+ * Measures the throughput in maps per second of generating small grids with the tilemap of the 2-dimensional
+ * toroidal test, creating a new solver for each map on a single thread and with the batch generator for up to as
+ * many workers as cores. Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.BatchBenchmark</pre>
+ */
+public class BatchBenchmark {
+
+	private static final int MAPS = 20_000;
+	private static final int GRID_SIZE = 6;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.toroidal2D().compile();
+		var cores = Runtime.getRuntime().availableProcessors();
+		
+		var random = new SplittableRandom(0);
+		for(var i = 0; i < MAPS; i++) {
+			new ToroidalWFC2D<String>(tileMap, GRID_SIZE, GRID_SIZE).run(random.nextLong());
+		}
+		var start = System.nanoTime();
+		for(var i = 0; i < MAPS; i++) {
+			var WFC = new ToroidalWFC2D<String>(tileMap, GRID_SIZE, GRID_SIZE);
+			WFC.run(random.nextLong());
+			WFC.getGrid();
+		}
+		System.out.printf("%-24s %12s%n", "mode", "maps/s");
+		System.out.printf("%-24s %12.0f%n", "new solver per map", MAPS / ((System.nanoTime() - start) / 1e9));
+		
+		for(var workers = 1; workers <= cores; workers *= 2) {
+			var generator = new BatchGenerator<ToroidalWFC2D<String>, List<List<Tile<String>>>>(
+				index -> new ToroidalWFC2D<String>(tileMap, GRID_SIZE, GRID_SIZE), WFC -> WFC.getGrid(), workers
+			);
+			generator.generate(MAPS, 0);
+			start = System.nanoTime();
+			generator.generate(MAPS, 1);
+			System.out.printf("%-24s %12.0f%n", "batch, " + workers + " workers", MAPS / ((System.nanoTime() - start) / 1e9));
+		}
+	}
+}
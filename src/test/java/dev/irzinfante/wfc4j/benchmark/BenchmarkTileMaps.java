@@ -0,0 +1,161 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.util.HashSet;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.enums.Side3D;
+import dev.irzinfante.wfc4j.model.Tile;
+import dev.irzinfante.wfc4j.model.TileMap2D;
+import dev.irzinfante.wfc4j.model.TileMap3D;
+
+/**
+ * Tilemaps shared by the benchmarks, built the same way as in the tests
+ */
+final class BenchmarkTileMaps {
+
+	private BenchmarkTileMaps() {}
+
+	/**
+	 * Tilemap of the 2-dimensional toroidal test: 36 tiles made of two track components each
+	 */
+	static TileMap2D<String> toroidal2D() throws TileException, DimensionException {
+		final var components = new String[] {"LR", "LB", "LT", "RB", "RT", "BT"};
+		
+		var tileSet = new HashSet<Tile<String>>();
+		for(var first : components) {
+			for(var second : components) {
+				tileSet.add(new Tile<>(first + second));
+			}
+		}
+		
+		var tileMap = new TileMap2D<>(tileSet);
+		
+		for(var tile : tileSet) {
+			var leftAdjacents = new HashSet<Tile<String>>();
+			var rightAdjacents = new HashSet<Tile<String>>();
+			var bottomAdjacents = new HashSet<Tile<String>>();
+			var topAdjacents = new HashSet<Tile<String>>();
+			
+			for(var adjacent : tileSet) {
+				if(connects(tile, adjacent, 'L', 'R')) {
+					leftAdjacents.add(adjacent);
+				}
+				if(connects(tile, adjacent, 'R', 'L')) {
+					rightAdjacents.add(adjacent);
+				}
+				if(connects(tile, adjacent, 'B', 'T')) {
+					bottomAdjacents.add(adjacent);
+				}
+				if(connects(tile, adjacent, 'T', 'B')) {
+					topAdjacents.add(adjacent);
+				}
+			}
+			
+			tileMap.setAdjacents(tile, Side2D.Left, leftAdjacents);
+			tileMap.setAdjacents(tile, Side2D.Right, rightAdjacents);
+			tileMap.setAdjacents(tile, Side2D.Bottom, bottomAdjacents);
+			tileMap.setAdjacents(tile, Side2D.Top, topAdjacents);
+		}
+		
+		return tileMap;
+	}
+
+	/**
+	 * Tilemap with a tileset of the given size where each tile has one of 16 cyclic levels, and tiles are allowed
+	 * next to each other on any side when their levels differ at most by one. Any grid can be solved with it
+	 */
+	static TileMap2D<Integer> wide2D(int tilesNumber) throws TileException, DimensionException {
+		var tileSet = new HashSet<Tile<Integer>>();
+		for(var value = 0; value < tilesNumber; value++) {
+			tileSet.add(new Tile<>(value));
+		}
+		
+		var tileMap = new TileMap2D<>(tileSet);
+		
+		for(var tile : tileSet) {
+			var adjacents = new HashSet<Tile<Integer>>();
+			for(var adjacent : tileSet) {
+				if(adjacentLevels(tile, adjacent)) {
+					adjacents.add(adjacent);
+				}
+			}
+			
+			for(var side : Side2D.values()) {
+				tileMap.setAdjacents(tile, side, adjacents);
+			}
+		}
+		
+		return tileMap;
+	}
+
+	/**
+	 * Tilemap of {@link #wide2D(int)} for 3-dimensional grids, with the same adjacents on the six faces of the tiles
+	 */
+	static TileMap3D<Integer> wide3D(int tilesNumber) throws TileException {
+		var tileSet = new HashSet<Tile<Integer>>();
+		for(var value = 0; value < tilesNumber; value++) {
+			tileSet.add(new Tile<>(value));
+		}
+		
+		var tileMap = new TileMap3D<>(tileSet);
+		
+		for(var tile : tileSet) {
+			var adjacents = new HashSet<Tile<Integer>>();
+			for(var adjacent : tileSet) {
+				if(adjacentLevels(tile, adjacent)) {
+					adjacents.add(adjacent);
+				}
+			}
+			
+			for(var side : Side3D.values()) {
+				tileMap.setAdjacents(tile, side, adjacents);
+			}
+		}
+		
+		return tileMap;
+	}
+
+	/**
+	 * The levels of the tiles, out of 16 cyclic levels, must differ at most by one
+	 */
+	private static boolean adjacentLevels(Tile<Integer> tile, Tile<Integer> adjacent) {
+		final var levels = 16;
+		var distance = Math.floorMod(tile.getValue() - adjacent.getValue(), levels);
+		return distance <= 1 || distance == levels - 1;
+	}
+
+	/**
+	 * Both components of the tiles must either reach or not reach the shared border
+	 */
+	private static boolean connects(Tile<String> tile, Tile<String> adjacent, char tileSide, char adjacentSide) {
+		for(var component = 0; component < 4; component += 2) {
+			var tileReaches = tile.getValue().substring(component, component + 2).indexOf(tileSide) >= 0;
+			var adjacentReaches = adjacent.getValue().substring(component, component + 2).indexOf(adjacentSide) >= 0;
+			if(tileReaches != adjacentReaches) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
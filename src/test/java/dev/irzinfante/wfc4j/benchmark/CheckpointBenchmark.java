@@ -0,0 +1,79 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import dev.irzinfante.wfc4j.api.EuclideanWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Measures the time of writing and restoring a checkpoint of a large grid stopped halfway, for each propagation,
+ * against the time of copying the same file into a heap array through a memory mapping. Run it from the test
+ * classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.CheckpointBenchmark</pre>
+ */
+public class CheckpointBenchmark {
+
+	private static final int GRID_SIZE = 512;
+	private static final int RUNS = 10;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.wide2D(8).compile();
+		var file = Files.createTempFile("wfc4j", ".checkpoint");
+		
+		try {
+			System.out.printf("%-12s %10s %10s %10s %10s%n", "propagation", "MiB", "write ms", "restore ms", "mapped ms");
+			for(var propagation : Propagation.values()) {
+				var WFC = new EuclideanWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE);
+				WFC.setPropagation(propagation);
+				WFC.solve(SolveBudget.unlimited().withMaxDecisions(GRID_SIZE * GRID_SIZE / 2), new SplittableRandom(0));
+				var restored = new EuclideanWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE);
+				
+				long write = 0, restore = 0, mapped = 0;
+				for(var i = 0; i <= RUNS; i++) {
+					var start = System.nanoTime();
+					WFC.checkpoint(file);
+					var written = System.nanoTime();
+					restored.restore(file);
+					var read = System.nanoTime();
+					try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+						var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+						buffer.asLongBuffer().get(new long[(int) (channel.size() / Long.BYTES)]);
+					}
+					// The first run only warms up
+					if(i > 0) {
+						write += written - start;
+						restore += read - written;
+						mapped += System.nanoTime() - read;
+					}
+				}
+				System.out.printf("%-12s %10.1f %10.1f %10.1f %10.1f%n", propagation, Files.size(file) / 1048576.0,
+					write / 1e6 / RUNS, restore / 1e6 / RUNS, mapped / 1e6 / RUNS);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
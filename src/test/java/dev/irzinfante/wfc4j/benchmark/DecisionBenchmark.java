@@ -0,0 +1,97 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the cost per decision of enumerating the candidate tiles of a cell in random order: the former
+ * enumeration through the binary string of the entropy and a shuffled list, and the bit selection over a mask used
+ * by the WFC algorithm since 2.0.0. Every decision goes through all its candidates, as when all of them fail.
+ * Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.DecisionBenchmark</pre>
+ */
+public class DecisionBenchmark {
+
+	private static final int ENTROPIES = 1 << 12;
+	private static final int DECISIONS = 1 << 22;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		var random = new SplittableRandom(42);
+		var entropies = new long[ENTROPIES];
+		for(var i = 0; i < ENTROPIES; i++) {
+			entropies[i] = random.nextLong() & ((1L << 36) - 1);
+		}
+		
+		System.out.printf("%-8s %12s %12s%n", "round", "before ns", "after ns");
+		var sink = 0L;
+		for(var round = 0; round < ROUNDS; round++) {
+			var start = System.nanoTime();
+			for(var decision = 0; decision < DECISIONS; decision++) {
+				for(var tile : randomEntropyTilesFromCell(entropies[decision & (ENTROPIES - 1)])) {
+					sink += tile;
+				}
+			}
+			var before = (double) (System.nanoTime() - start) / DECISIONS;
+			
+			start = System.nanoTime();
+			for(var decision = 0; decision < DECISIONS; decision++) {
+				var remainingTiles = entropies[decision & (ENTROPIES - 1)];
+				var threadRandom = ThreadLocalRandom.current();
+				for(var remaining = Long.bitCount(remainingTiles); remaining > 0; remaining--) {
+					var tile = select(remainingTiles, threadRandom.nextInt(remaining));
+					remainingTiles &= ~(1L << tile);
+					sink += tile;
+				}
+			}
+			var after = (double) (System.nanoTime() - start) / DECISIONS;
+			
+			System.out.printf("%-8d %12.1f %12.1f%n", round, before, after);
+		}
+		System.out.println("(" + sink + ")");
+	}
+
+	/**
+	 * Enumeration of the candidate tiles used by the WFC algorithm up to 1.0.0
+	 */
+	private static List<Integer> randomEntropyTilesFromCell(long entropy) {
+		var entropyBitStrings = new StringBuilder(Long.toBinaryString(entropy)).reverse().toString().split("");
+		var tiles = new ArrayList<Integer>();
+		for(var i = 0; i < entropyBitStrings.length; i++) {
+			if(entropyBitStrings[i].equals("1")) {
+				tiles.add(i);
+			}
+		}
+		Collections.shuffle(tiles);
+		return tiles;
+	}
+
+	private static int select(long bits, int rank) {
+		for(; rank > 0; rank--) {
+			bits &= bits - 1;
+		}
+		return Long.numberOfTrailingZeros(bits);
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.nio.file.Files;
+
+import dev.irzinfante.wfc4j.api.EuclideanWFC2D;
+import dev.irzinfante.wfc4j.api.GridWriter;
+
+/**
+ * Measures the time of getting the tiles of a large solved grid as lists of tiles, as arrays of tile ids of each
+ * width, through the read-only view and writing them to a file through a reused buffer. Run it from the test classpath, e.g.
+ * after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.OutputBenchmark</pre>
+ */
+public class OutputBenchmark {
+
+	private static final int GRID_SIZE = 2048;
+	private static final int RUNS = 10;
+
+	// Keeps the scan of the view from being optimized away
+	private static long checksum;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.wide2D(3).compile();
+		var WFC = new EuclideanWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE);
+		if(!WFC.run(0)) {
+			throw new IllegalStateException("Tilemap of levels must always be solvable");
+		}
+		var file = Files.createTempFile("wfc4j", ".grids");
+		
+		try(var writer = new GridWriter<Integer>(file, tileMap)) {
+			System.out.printf("%-20s %10s%n", "output", "ms");
+			for(var i = 0; i <= RUNS; i++) {
+				long[] times = new long[6];
+				var start = System.nanoTime();
+				WFC.getGrid();
+				times[0] = System.nanoTime() - start;
+				start = System.nanoTime();
+				WFC.getTileIndices();
+				times[1] = System.nanoTime() - start;
+				start = System.nanoTime();
+				WFC.getShortTileIndices();
+				times[2] = System.nanoTime() - start;
+				start = System.nanoTime();
+				WFC.getByteTileIndices();
+				times[3] = System.nanoTime() - start;
+				start = System.nanoTime();
+				var view = WFC.getTileView();
+				while(view.hasRemaining()) {
+					checksum += view.get();
+				}
+				times[4] = System.nanoTime() - start;
+				start = System.nanoTime();
+				writer.write(WFC);
+				times[5] = System.nanoTime() - start;
+				// Only the last run is printed, the previous ones warm up
+				if(i == RUNS) {
+					var names = new String[] {"tile lists", "int ids", "short ids", "byte ids", "view scan", "grid file"};
+					for(var output = 0; output < names.length; output++) {
+						System.out.printf("%-20s %10.1f%n", names[output], times[output] / 1e6);
+					}
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.util.Arrays;
+
+import dev.irzinfante.wfc4j.api.PortfolioSolver;
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Compares the time to solution of a single solver with the one of portfolios of up to as many solvers as cores on the
+ * tilemap of the 2-dimensional toroidal test, whose time to solution varies a lot between seeds.
+ * Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.PortfolioBenchmark</pre>
+ */
+public class PortfolioBenchmark {
+
+	private static final int RUNS = 100;
+	private static final int GRID_SIZE = 7;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.toroidal2D().compile();
+		var cores = Runtime.getRuntime().availableProcessors();
+		
+		System.out.printf("%-10s %10s %10s %10s%n", "solvers", "p50 ms", "p90 ms", "p99 ms");
+		for(var solvers = 1; solvers <= cores; solvers *= 2) {
+			var portfolio = new PortfolioSolver<ToroidalWFC2D<String>>(index -> {
+				var WFC = new ToroidalWFC2D<String>(tileMap, GRID_SIZE, GRID_SIZE);
+				WFC.setPropagation(Propagation.AC3);
+				WFC.setSearchPolicy(SearchPolicy.luby(16 << index % 4));
+				return WFC;
+			}, solvers);
+			
+			var times = new double[RUNS];
+			for(var i = 0; i < RUNS; i++) {
+				var start = System.nanoTime();
+				if(portfolio.solve(SolveBudget.unlimited(), i) == null) {
+					throw new IllegalStateException("Tilemap of the toroidal test must always be solvable");
+				}
+				times[i] = (System.nanoTime() - start) / 1e6;
+			}
+			Arrays.sort(times);
+			System.out.printf("%-10d %10.2f %10.2f %10.2f%n", solvers, times[RUNS / 2], times[RUNS * 9 / 10], times[RUNS * 99 / 100]);
+		}
+	}
+}
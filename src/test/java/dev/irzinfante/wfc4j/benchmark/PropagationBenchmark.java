@@ -0,0 +1,58 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+
+/**
+ * Compares the backtracking needed by each propagation strategy on the tilemap of the 2-dimensional toroidal test.
+ * Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.PropagationBenchmark</pre>
+ */
+public class PropagationBenchmark {
+
+	private static final int RUNS = 50;
+	private static final int[] GRID_SIZES = {4, 6, 8};
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.toroidal2D();
+		
+		System.out.printf("%-10s %-10s %12s %12s %10s%n", "grid", "mode", "backtracks", "max", "ms/run");
+		for(var gridSize : GRID_SIZES) {
+			for(var propagation : Propagation.values()) {
+				long backtracks = 0, maxBacktracks = 0;
+				var start = System.nanoTime();
+				for(var i = 0; i < RUNS; i++) {
+					var WFC = new ToroidalWFC2D<String>(tileMap, gridSize, gridSize);
+					WFC.setPropagation(propagation);
+					if(!WFC.run()) {
+						throw new IllegalStateException("Tilemap of the toroidal test must always be solvable");
+					}
+					backtracks += WFC.getBacktracks();
+					maxBacktracks = Math.max(maxBacktracks, WFC.getBacktracks());
+				}
+				var elapsed = (System.nanoTime() - start) / 1e6;
+				System.out.printf("%-10s %-10s %12.1f %12d %10.2f%n",
+					gridSize + "x" + gridSize, propagation, (double) backtracks / RUNS, maxBacktracks, elapsed / RUNS);
+			}
+		}
+	}
+}
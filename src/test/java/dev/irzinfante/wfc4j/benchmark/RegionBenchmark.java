@@ -0,0 +1,81 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import dev.irzinfante.wfc4j.api.EuclideanWFC2D;
+import dev.irzinfante.wfc4j.api.RegionSolver;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
+import dev.irzinfante.wfc4j.model.SolveBudget;
+
+/**
+ * Compares the wall-clock time of solving a large euclidean grid as a single grid and by regions with up to as many
+ * threads as cores, on a tilemap of 8 levels that don't wrap around, so the borders of any block can be extended.
+ * The single grid run is bounded by a timeout, as chronological backtracking may thrash on grids this large.
+ * Run it from the test classpath, e.g. after {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.RegionBenchmark</pre>
+ */
+public class RegionBenchmark {
+
+	private static final int GRID_SIZE = 128;
+	private static final int BLOCK_SIZE = 32;
+	private static final int RUNS = 3;
+	private static final Duration SINGLE_GRID_TIMEOUT = Duration.ofSeconds(5);
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.wide2D(8).compile();
+		var cores = Runtime.getRuntime().availableProcessors();
+		
+		System.out.printf("%-20s %10s %10s%n", "mode", "ms/run", "repairs");
+		var timeouts = 0;
+		var start = System.nanoTime();
+		for(var i = 0; i < RUNS; i++) {
+			var outcome = new EuclideanWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE)
+				.solve(SolveBudget.timeout(SINGLE_GRID_TIMEOUT), new Random(i));
+			if(outcome == SolveOutcome.Timeout) {
+				timeouts++;
+			} else if(outcome != SolveOutcome.Solved) {
+				throw new IllegalStateException("Tilemap of levels must always be solvable");
+			}
+		}
+		System.out.printf("%-20s %10.1f %10s%n", "single grid", (System.nanoTime() - start) / 1e6 / RUNS,
+			timeouts + " t/o");
+		
+		for(var threads = 1; threads <= cores; threads *= 2) {
+			try(var executor = Executors.newFixedThreadPool(threads)) {
+				long repairs = 0;
+				start = System.nanoTime();
+				for(var i = 0; i < RUNS; i++) {
+					var solver = new RegionSolver<Integer>(tileMap, GRID_SIZE, GRID_SIZE, BLOCK_SIZE, new HashMap<>(), executor);
+					if(solver.solve(i) != SolveOutcome.Solved) {
+						throw new IllegalStateException("Tilemap of levels must always be solvable");
+					}
+					repairs += solver.getRepairs();
+				}
+				System.out.printf("%-20s %10.1f %10.1f%n", "regions, " + threads + " threads",
+					(System.nanoTime() - start) / 1e6 / RUNS, (double) repairs / RUNS);
+			}
+		}
+	}
+}
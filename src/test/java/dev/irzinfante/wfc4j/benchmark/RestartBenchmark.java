@@ -0,0 +1,75 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+
+/**
+ * Compares the time to solution of the search policies on the tilemap of the 2-dimensional toroidal test, reporting
+ * its percentiles together with the mean counters of the search. Run it from the test classpath, e.g. after
+ * {@code mvn test-compile}:
+ * 
+ * <pre>java -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.RestartBenchmark</pre>
+ */
+public class RestartBenchmark {
+
+	private static final int RUNS = 100;
+	private static final int GRID_SIZE = 7;
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.toroidal2D().compile();
+		var policies = List.of(
+			SearchPolicy.unlimited(),
+			SearchPolicy.noBacktracking().withMaxRestarts(Long.MAX_VALUE),
+			SearchPolicy.luby(16),
+			SearchPolicy.luby(128),
+			SearchPolicy.geometric(16, 1.5)
+		);
+		var names = List.of("unlimited", "restart", "luby(16)", "luby(128)", "geom(16,1.5)");
+		
+		System.out.printf("%-14s %10s %10s %10s %12s %10s %10s%n",
+			"policy", "p50 ms", "p90 ms", "p99 ms", "backtracks", "decisions", "restarts");
+		for(var p = 0; p < policies.size(); p++) {
+			var times = new double[RUNS];
+			long backtracks = 0, decisions = 0, restarts = 0;
+			for(var i = 0; i < RUNS; i++) {
+				var WFC = new ToroidalWFC2D<String>(tileMap, GRID_SIZE, GRID_SIZE);
+				WFC.setPropagation(Propagation.AC4);
+				WFC.setSearchPolicy(policies.get(p));
+				var start = System.nanoTime();
+				if(!WFC.run(i)) {
+					throw new IllegalStateException("Tilemap of the toroidal test must always be solvable");
+				}
+				times[i] = (System.nanoTime() - start) / 1e6;
+				backtracks += WFC.getBacktracks();
+				decisions += WFC.getDecisions();
+				restarts += WFC.getRestarts();
+			}
+			Arrays.sort(times);
+			System.out.printf("%-14s %10.2f %10.2f %10.2f %12.1f %10.1f %10.1f%n", names.get(p),
+				times[RUNS / 2], times[RUNS * 9 / 10], times[RUNS * 99 / 100],
+				(double) backtracks / RUNS, (double) decisions / RUNS, (double) restarts / RUNS);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.benchmark;
+
+import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+
+/**
+ * Compares the throughput of the scalar and the Vector API mask operations, in collapsed cells per second, running
+ * the AC-3 propagation with tilesets of increasing size. The Vector API needs the {@code vector} profile and the
+ * incubator module, e.g. after {@code mvn -Pvector test-compile}:
+ * 
+ * <pre>java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.VectorBenchmark</pre>
+ */
+public class VectorBenchmark {
+
+	private static final int WARMUP_RUNS = 3;
+	private static final int RUNS = 10;
+	private static final int GRID_SIZE = 8;
+	private static final int[] TILES_NUMBERS = {64, 256, 1024, 2048};
+
+	public static void main(String[] args) throws Exception {
+		System.out.printf("%-8s %-8s %14s%n", "tiles", "kernel", "cells/s");
+		for(var tilesNumber : TILES_NUMBERS) {
+			var tileMap = BenchmarkTileMaps.wide2D(tilesNumber);
+			for(var vectorized : new boolean[] {false, true}) {
+				var WFC = new ToroidalWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE);
+				WFC.setVectorized(vectorized);
+				if(vectorized && !WFC.isVectorized()) {
+					System.out.printf("%-8d %-8s %14s%n", tilesNumber, "vector", "unavailable");
+					continue;
+				}
+				
+				var elapsed = 0L;
+				for(var i = 0; i < WARMUP_RUNS + RUNS; i++) {
+					WFC = new ToroidalWFC2D<Integer>(tileMap, GRID_SIZE, GRID_SIZE);
+					WFC.setPropagation(Propagation.AC3);
+					WFC.setVectorized(vectorized);
+					var start = System.nanoTime();
+					if(!WFC.run()) {
+						throw new IllegalStateException("Wide tilemap must always be solvable");
+					}
+					if(i >= WARMUP_RUNS) {
+						elapsed += System.nanoTime() - start;
+					}
+				}
+				System.out.printf("%-8d %-8s %14.0f%n", tilesNumber, vectorized ? "vector" : "scalar",
+					(double) GRID_SIZE * GRID_SIZE * RUNS / (elapsed / 1e9));
+			}
+		}
+	}
+}
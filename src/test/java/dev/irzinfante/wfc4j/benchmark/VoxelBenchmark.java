@@ -0,0 +1,60 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package dev.irzinfante.wfc4j.benchmark;
+
+import dev.irzinfante.wfc4j.api.EuclideanWFC3D;
+
+/**
+ * Measures the time of creating and solving 3-dimensional grids of growing size, up to a 256&sup3; volume, and the
+ * heap they use. Run it from the test classpath with enough heap for the biggest volume, e.g. after
+ * {@code mvn test-compile}:
+ * 
+ * <pre>java -Xmx5g -cp target/classes:target/test-classes dev.irzinfante.wfc4j.benchmark.VoxelBenchmark</pre>
+ */
+public class VoxelBenchmark {
+
+	private static final int[] GRID_SIZES = {32, 64, 128, 256};
+
+	public static void main(String[] args) throws Exception {
+		var tileMap = BenchmarkTileMaps.wide3D(3).compile();
+		var runtime = Runtime.getRuntime();
+		
+		System.out.printf("%-10s %12s %10s %10s %10s%n", "size", "cells", "create ms", "solve ms", "heap MB");
+		for(var gridSize : GRID_SIZES) {
+			System.gc();
+			var usedBefore = runtime.totalMemory() - runtime.freeMemory();
+			
+			var start = System.nanoTime();
+			var WFC = new EuclideanWFC3D<Integer>(tileMap, gridSize, gridSize, gridSize);
+			var created = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			if(!WFC.run(0)) {
+				throw new IllegalStateException("Tilemap of levels must always be solvable");
+			}
+			var solved = System.nanoTime() - start;
+			
+			System.gc();
+			var used = runtime.totalMemory() - runtime.freeMemory() - usedBefore;
+			System.out.printf(
+				"%-10s %12d %10.1f %10.1f %10d%n",
+				gridSize + "^3", (long) gridSize * gridSize * gridSize, created / 1e6, solved / 1e6, used >> 20
+			);
+		}
+	}
+}
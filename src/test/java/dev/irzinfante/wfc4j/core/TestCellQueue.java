@@ -0,0 +1,71 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TestCellQueue {
+
+	@Test
+	public void testOrder() {
+		
+		var queue = new CellQueue(0);
+		assertTrue(queue.isEmpty());
+		
+		// Polling half of the entries before adding more makes the ring wrap around before it grows
+		var next = 0;
+		for(var cell = 0; cell < 1000; cell++) {
+			queue.add(cell);
+			if(cell % 2 == 1) {
+				assertTrue(queue.poll() == next++);
+			}
+		}
+		while(!queue.isEmpty()) {
+			assertTrue(queue.poll() == next++);
+		}
+		assertTrue(next == 1000);
+		
+		queue.add(7);
+		queue.clear();
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testTiles() {
+		
+		var queue = new CellQueue(2);
+		var tiles = new long[2];
+		var next = 0;
+		for(var cell = 0; cell < 1000; cell++) {
+			queue.add(cell, new long[] {-1, cell, -cell}, 1);
+			if(cell % 3 == 2) {
+				assertTrue(queue.poll(tiles, 0) == next);
+				assertTrue(tiles[0] == next && tiles[1] == -next);
+				next++;
+			}
+		}
+		while(!queue.isEmpty()) {
+			assertTrue(queue.poll(tiles, 0) == next);
+			assertTrue(tiles[0] == next && tiles[1] == -next);
+			next++;
+		}
+		assertTrue(next == 1000);
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+public class TestEntropyIndex {
+
+	@Test
+	public void testMove() {
+		
+		var index = new EntropyIndex(10, 8);
+		var random = new SplittableRandom(0);
+		assertTrue(index.isEmpty() && index.randomMinimum(random) == -1);
+		
+		index.reset(8);
+		assertTrue(!index.isEmpty());
+		for(var cell = 0; cell < 10; cell++) {
+			assertTrue(index.contains(cell));
+		}
+		
+		// Only the cells of the lowest entropy are picked, wherever they were moved from
+		index.update(3, 5);
+		index.update(7, 5);
+		index.update(9, 2);
+		index.update(9, 6);
+		for(var pick = 0; pick < 100; pick++) {
+			var cell = index.randomMinimum(random);
+			assertTrue(cell == 3 || cell == 7);
+		}
+		
+		index.update(7, 1);
+		for(var pick = 0; pick < 100; pick++) {
+			assertTrue(index.randomMinimum(random) == 7);
+		}
+		
+		index.update(7, 8);
+		index.update(3, 8);
+		for(var pick = 0; pick < 100; pick++) {
+			assertTrue(index.randomMinimum(random) == 9);
+		}
+	}
+
+	@Test
+	public void testRemove() {
+		
+		var index = new EntropyIndex(10, 8);
+		var random = new SplittableRandom(0);
+		index.reset(8);
+		
+		// Removed cells are neither picked nor updated until they are added back
+		for(var cell = 0; cell < 10; cell += 2) {
+			index.remove(cell);
+			index.update(cell, 1);
+			assertTrue(!index.contains(cell));
+		}
+		index.remove(0);
+		
+		var picked = new HashSet<Integer>();
+		for(var pick = 0; pick < 1000; pick++) {
+			picked.add(index.randomMinimum(random));
+		}
+		assertTrue(picked.size() == 5 && picked.stream().allMatch(cell -> cell % 2 == 1));
+		
+		index.add(4, 3);
+		assertTrue(index.contains(4) && index.randomMinimum(random) == 4);
+		
+		for(var cell = 0; cell < 10; cell++) {
+			index.remove(cell);
+		}
+		assertTrue(index.isEmpty() && index.randomMinimum(random) == -1);
+		
+		index.add(2, 0);
+		assertTrue(!index.isEmpty() && index.randomMinimum(random) == 2);
+	}
+
+	@Test
+	public void testReset() {
+		
+		var index = new EntropyIndex(100, 4);
+		index.reset(4);
+		for(var cell = 0; cell < 100; cell++) {
+			index.update(cell, cell % 5);
+			if(cell % 3 == 0) {
+				index.remove(cell);
+			}
+		}
+		
+		// The picks after a reset don't depend on the previous use of the index
+		index.reset(3);
+		var other = new EntropyIndex(100, 4);
+		other.reset(3);
+		var random = new SplittableRandom(0);
+		var otherRandom = new SplittableRandom(0);
+		for(var pick = 0; pick < 100; pick++) {
+			var cell = index.randomMinimum(random);
+			assertTrue(cell == other.randomMinimum(otherRandom));
+			index.remove(cell);
+			other.remove(cell);
+		}
+		assertTrue(index.isEmpty() && other.isEmpty());
+	}
+}
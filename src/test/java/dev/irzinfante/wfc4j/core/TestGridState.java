@@ -0,0 +1,57 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+
+public class TestGridState {
+
+	@Test
+	public void testReset() throws DimensionException {
+		
+		var grid = new GridState(3, 70);
+		assertTrue(grid.getWords() == 2);
+		assertTrue(grid.getEntropies().length == 6);
+		
+		grid.setTile(1, 69);
+		grid.getEntropies()[2] = 0;
+		grid.getEntropies()[3] = 1L << 5;
+		grid.reset();
+		for(var cell = 0; cell < 3; cell++) {
+			assertTrue(grid.getTile(cell) == -1);
+			assertTrue(grid.getEntropies()[2 * cell] == -1L);
+			assertTrue(grid.getEntropies()[2 * cell + 1] == (1L << 6) - 1);
+		}
+	}
+
+	@Test
+	public void testTooManyEntropies() {
+		
+		var rejected = false;
+		try {
+			new GridState(Integer.MAX_VALUE / 2, 200);
+		} catch(DimensionException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
+	}
+}
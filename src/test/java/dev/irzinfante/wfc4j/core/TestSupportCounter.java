@@ -0,0 +1,65 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+
+public class TestSupportCounter {
+
+	@Test
+	public void testSupports() throws DimensionException {
+		
+		// Two tiles on a line of three cells, where tile 0 allows both tiles next to it and tile 1 only tile 0
+		var adjacents = new long[] {0b11, 0b11, 0b01, 0b01};
+		var oppositeSides = new int[] {1, 0};
+		var supportCounter = new SupportCounter(adjacents, 2, oppositeSides, 3);
+		
+		var unsupported = new long[1];
+		supportCounter.getUnsupportedTiles(0, unsupported);
+		assertTrue(unsupported[0] == 0);
+		
+		// Removing tile 0 from the first cell leaves tile 1 of the second one without support from its left
+		assertTrue(supportCounter.removeSupports(1, 1, new long[] {0b01}, 0, unsupported));
+		assertTrue(unsupported[0] == 0b10);
+		
+		supportCounter.restoreSupports(1, 1, new long[] {0b01}, 0);
+		unsupported[0] = 0;
+		assertTrue(!supportCounter.removeSupports(1, 1, new long[] {0b10}, 0, unsupported));
+		assertTrue(unsupported[0] == 0);
+		
+		supportCounter.reset();
+		assertTrue(supportCounter.removeSupports(1, 1, new long[] {0b01}, 0, unsupported));
+		assertTrue(unsupported[0] == 0b10);
+	}
+
+	@Test
+	public void testTooManySupports() {
+		
+		var rejected = false;
+		try {
+			new SupportCounter(new long[] {0b11, 0b11, 0b01, 0b01}, 2, new int[] {1, 0}, Integer.MAX_VALUE / 3);
+		} catch(DimensionException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
+	}
+}
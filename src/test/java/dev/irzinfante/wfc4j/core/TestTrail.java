@@ -0,0 +1,74 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.irzinfante.wfc4j.core;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class TestTrail {
+
+	@Test
+	public void testSkip() throws IOException {
+		
+		var trail = new Trail(1, false);
+		var entropies = new long[] {-1L};
+		trail.push(0, 0, entropies, 0);
+		trail.pushLevel();
+		trail.push(1, 0, entropies, 0);
+		trail.push(2, 1, entropies, 0);
+		trail.pushLevel();
+		trail.push(3, 2, entropies, 0);
+		
+		var file = Files.createTempFile("wfc4j", ".trail");
+		try {
+			try(var writer = new Checkpoint.Writer(file)) {
+				trail.write(writer);
+			}
+			
+			var reader = new Checkpoint.Reader(file);
+			assertTrue(trail.skip(reader, 4, 1) == 2);
+			assertTrue(!reader.hasRemaining());
+			
+			// The initial height must be within the entries and below the first decision level
+			for(var initialHeight : new int[] {5, 2}) {
+				var rejected = false;
+				try {
+					trail.skip(new Checkpoint.Reader(file), 4, initialHeight);
+				} catch(IOException e) {
+					rejected = true;
+				}
+				assertTrue(rejected);
+			}
+			
+			// The cells and the reasons of the entries must be within the grid and the decision levels
+			var rejected = false;
+			try {
+				trail.skip(new Checkpoint.Reader(file), 3, 0);
+			} catch(IOException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -25,11 +25,15 @@ import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
 import dev.irzinfante.wfc4j.exceptions.TileException;
 
 import dev.irzinfante.wfc4j.api.EuclideanWFC1D;
+import dev.irzinfante.wfc4j.api.SequenceGenerator;
+import dev.irzinfante.wfc4j.enums.Propagation;
 import dev.irzinfante.wfc4j.enums.Side1D;
 import dev.irzinfante.wfc4j.model.Tile;
 import dev.irzinfante.wfc4j.model.TileMap1D;
@@ -100,5 +104,133 @@ public class TestEuclideanWFC1D {
 			var WFC_3 = new EuclideanWFC1D<String>(tileMap, gridSize, entropy_both);
 			assertTrue(WFC_3.run());
 		}
+
+		for(var i = 0; i < 20; i++) {
+			var WFC_4 = new EuclideanWFC1D<String>(tileMap, gridSize, entropy_both);
+			WFC_4.setPropagation(Propagation.AC3);
+			assertTrue(WFC_4.run());
+		}
+
+		for(var i = 0; i < 20; i++) {
+			var WFC_5 = new EuclideanWFC1D<String>(tileMap, gridSize, entropy_both);
+			WFC_5.setPropagation(Propagation.AC4);
+			assertTrue(WFC_5.run());
+		}
+
+		tileMap.setWeight(A, 4);
+		tileMap.setWeight(Bp, 0.25);
+
+		for(var propagation : Propagation.values()) {
+			for(var i = 0; i < 20; i++) {
+				var WFC_6 = new EuclideanWFC1D<String>(tileMap, gridSize, entropy_both);
+				WFC_6.setPropagation(propagation);
+				assertTrue(WFC_6.run());
+			}
+		}
+	}
+
+	@Test
+	public void testWeightedTiles() throws TileException, DimensionException {
+		
+		Tile<String> G = new Tile<>("G"), W = new Tile<>("W");
+		
+		var tileSet = new HashSet<Tile<String>>();
+		tileSet.add(G); tileSet.add(W);
+		
+		var tileMap = new TileMap1D<>(tileSet);
+		
+		tileMap.setAdjacents(G, Side1D.Left, tileSet);	tileMap.setAdjacents(G, Side1D.Right, tileSet);
+		tileMap.setAdjacents(W, Side1D.Left, tileSet);	tileMap.setAdjacents(W, Side1D.Right, tileSet);
+		
+		tileMap.setWeight(G, 16);
+		tileMap.setWeight(W, 1);
+		
+		var gridSize = 500;
+		var waterTiles = 0L;
+
+		for(var i = 0; i < 20; i++) {
+			var WFC = new EuclideanWFC1D<String>(tileMap, gridSize);
+			assertTrue(WFC.run());
+			waterTiles += WFC.getGrid().stream().filter(tile -> tile == W).count();
+		}
+
+		// Water should fill 1 / 17 of the cells, i.e. about 588 of them
+		assertTrue(waterTiles > 400 && waterTiles < 800);
+	}
+
+	@Test
+	public void testSequenceGenerator() throws TileException, DimensionException {
+		
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B"), X = new Tile<>("X");
+		
+		var tileSet = new HashSet<Tile<String>>();
+		tileSet.add(A); tileSet.add(B); tileSet.add(X);
+		
+		// X can't be followed by any tile, so it can only be the last tile of a window
+		var tileMap = new TileMap1D<>(tileSet);
+		
+		tileMap.setAdjacents(A, Side1D.Left, Set.of(A, B));	tileMap.setAdjacents(A, Side1D.Right, Set.of(A, B, X));
+		tileMap.setAdjacents(B, Side1D.Left, Set.of(A));	tileMap.setAdjacents(B, Side1D.Right, Set.of(A, X));
+		tileMap.setAdjacents(X, Side1D.Left, Set.of(A, B));	tileMap.setAdjacents(X, Side1D.Right, Set.of());
+		
+		var compiledTileMap = tileMap.compile();
+		var generator = new SequenceGenerator<String>(compiledTileMap, 16, 4);
+		var length = 10_000;
+
+		for(var i = 0; i < 20; i++) {
+			List<Tile<String>> sequence = generator.stream(i).limit(length).collect(Collectors.toList());
+			assertTrue(sequence.size() == length);
+			assertTrue(!sequence.contains(X));
+			for(var index = 1; index < length; index++) {
+				assertTrue(compiledTileMap.isAdjacent(
+					compiledTileMap.getTileId(sequence.get(index - 1)), Side1D.Right.getValue(), compiledTileMap.getTileId(sequence.get(index))
+				));
+			}
+			
+			var iterator = generator.iterator(i);
+			for(var index = 0; index < length; index++) {
+				assertTrue(iterator.next() == sequence.get(index));
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testAddAdjacent() throws TileException, DimensionException {
+		
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B");
+		
+		var tileSet = new HashSet<Tile<String>>();
+		tileSet.add(A); tileSet.add(B);
+		
+		// Adding an adjacent tile changes the adjacents of the given tile, not the ones of the adjacent tile
+		var tileMap = new TileMap1D<>(tileSet);
+		tileMap.addAdjacent(A, Side1D.Right, B);
+		assertTrue(tileMap.getAdjacents(A, Side1D.Right) == 1L << tileMap.getTileSet().indexOf(B));
+		assertTrue(tileMap.getAdjacents(A, Side1D.Left) == 0);
+		assertTrue(tileMap.getAdjacents(B, Side1D.Right) == 0);
+		assertTrue(tileMap.getAdjacents(B, Side1D.Left) == 0);
+		
+		for(var index = 0; index < Long.SIZE; index++) {
+			tileSet.add(new Tile<>("C" + index));
+		}
+		
+		// Tilesets bigger than a word are only encoded by the adjacent words. The tileset has no order, so the adjacent
+		// tile is picked among the ones of the second word that are not A
+		var bigTileMap = new TileMap1D<>(tileSet);
+		var bigTileSet = bigTileMap.getTileSet();
+		var far = bigTileSet.subList(Long.SIZE, bigTileSet.size()).stream().filter(tile -> tile != A).findFirst().get();
+		bigTileMap.addAdjacent(A, Side1D.Right, far);
+		var adjacents = bigTileMap.getAdjacentWords(A, Side1D.Right);
+		assertTrue(adjacents.length == 2 && adjacents[0] == 0 && adjacents[1] == 1L << (bigTileSet.indexOf(far) - Long.SIZE));
+		assertTrue(Arrays.stream(bigTileMap.getAdjacentWords(far, Side1D.Right)).allMatch(word -> word == 0));
+		
+		var rejected = false;
+		try {
+			bigTileMap.getAdjacents(A, Side1D.Right);
+		} catch(TileException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
 	}
-}
\ No newline at end of file
+}
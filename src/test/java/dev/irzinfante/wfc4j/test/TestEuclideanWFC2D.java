@@ -21,17 +21,32 @@
  import static org.junit.Assert.assertTrue;
  import org.junit.Test;
  
+ import java.nio.ByteBuffer;
+ import java.nio.channels.FileChannel;
+ import java.nio.charset.StandardCharsets;
+ import java.nio.file.Files;
+ import java.nio.file.StandardOpenOption;
  import java.util.HashSet;
  import java.util.HashMap;
  import java.util.Set;
  import java.util.Arrays;
+ import java.util.List;
+ import java.util.ArrayList;
+ import java.util.concurrent.Callable;
+ import java.util.concurrent.Executors;
  
  import dev.irzinfante.wfc4j.exceptions.DimensionException;
  import dev.irzinfante.wfc4j.exceptions.TileException;
  
+ import dev.irzinfante.wfc4j.api.ChunkGenerator;
  import dev.irzinfante.wfc4j.api.EuclideanWFC2D;
+ import dev.irzinfante.wfc4j.api.GridWriter;
+ import dev.irzinfante.wfc4j.api.RegionSolver;
+ import dev.irzinfante.wfc4j.enums.SolveOutcome;
  import dev.irzinfante.wfc4j.enums.Side2D;
+ import dev.irzinfante.wfc4j.model.CompiledTileMap;
  import dev.irzinfante.wfc4j.model.Tile;
+ import dev.irzinfante.wfc4j.model.SolveBudget;
  import dev.irzinfante.wfc4j.model.TileMap2D;
 
 public class TestEuclideanWFC2D {
@@ -94,4 +109,327 @@ public class TestEuclideanWFC2D {
 			assertTrue(WFC_2.run());
 		}
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testChunkGenerator() throws Exception {
+		
+		var tileMap = this.buildTerrainTileMap().compile();
+		
+		int chunkSizeX = 4, chunkSizeY = 5, chunks = 4;
+		
+		for(var seed = 0L; seed < 20; seed++) {
+			var generator = new ChunkGenerator<String>(tileMap, chunkSizeX, chunkSizeY, seed, chunks * chunks);
+			
+			var tasks = new ArrayList<Callable<List<List<Tile<String>>>>>();
+			for(var chunkX = 0; chunkX < chunks; chunkX++) {
+				for(var chunkY = 0; chunkY < chunks; chunkY++) {
+					final int x = chunkX, y = chunkY;
+					tasks.add(() -> generator.getChunk(x, y));
+				}
+			}
+			try(var executor = Executors.newFixedThreadPool(4)) {
+				for(var future : executor.invokeAll(tasks)) {
+					assertTrue(future.get() != null);
+				}
+			}
+			
+			var world = new ArrayList<List<Tile<String>>>();
+			for(var indX = 0; indX < chunks * chunkSizeX; indX++) {
+				var row = new ArrayList<Tile<String>>();
+				for(var indY = 0; indY < chunks * chunkSizeY; indY++) {
+					row.add(generator.getLoadedChunk(indX / chunkSizeX, indY / chunkSizeY).get(indX % chunkSizeX).get(indY % chunkSizeY));
+				}
+				world.add(row);
+			}
+			assertTrue(this.isValidGrid(tileMap, world));
+		}
+		
+		var generator = new ChunkGenerator<String>(tileMap, chunkSizeX, chunkSizeY, 0, chunks);
+		for(var chunkY = 0; chunkY < 20; chunkY++) {
+			assertTrue(generator.getChunk(0, chunkY) != null);
+		}
+		assertTrue(generator.getLoadedChunks() == chunks);
+		assertTrue(generator.getLoadedChunk(0, 0) == null && generator.getLoadedChunk(0, 19) != null);
+	}
+
+	@Test
+	public void testChunkGeneratorConflict() throws Exception {
+		
+		/*
+		 *	Two tiles only allowed next to themselves, so a chunk of a single cell between chunks of different tiles
+		 *	has no tile left for its border
+		 */
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B");
+		
+		var tileMap = new TileMap2D<>(Set.of(A, B));
+		for(var side : Side2D.values()) {
+			tileMap.setAdjacents(A, side, Set.of(A));
+			tileMap.setAdjacents(B, side, Set.of(B));
+		}
+		var compiledTileMap = tileMap.compile();
+		
+		var conflicts = 0;
+		for(var seed = 0L; seed < 20; seed++) {
+			var generator = new ChunkGenerator<String>(compiledTileMap, 1, 1, seed, 16);
+			if(generator.getChunk(0, 0).get(0).get(0) == generator.getChunk(0, 2).get(0).get(0)) {
+				continue;
+			}
+			conflicts++;
+			// The chunk that failed must not stay marked as being generated, blocking the chunks next to it
+			for(var attempt = 0; attempt < 2; attempt++) {
+				var rejected = false;
+				try {
+					generator.getChunk(0, 1);
+				} catch(TileException e) {
+					rejected = true;
+				}
+				assertTrue(rejected);
+			}
+			assertTrue(generator.getChunk(1, 1) != null && generator.getLoadedChunk(0, 1) == null);
+		}
+		assertTrue(conflicts > 0);
+	}
+
+	@Test
+	public void testRegionSolver() throws Exception {
+		
+		var tileMap = this.buildTerrainTileMap().compile();
+		
+		int gridSizeX = 40, gridSizeY = 50, blockSize = 8;
+		
+		try(var executor = Executors.newSingleThreadExecutor()) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var solver_1 = new RegionSolver<String>(tileMap, gridSizeX, gridSizeY, blockSize);
+				assertTrue(solver_1.solve(seed) == SolveOutcome.Solved);
+				assertTrue(this.isValidGrid(tileMap, solver_1.getGrid()));
+				
+				var solver_2 = new RegionSolver<String>(tileMap, gridSizeX, gridSizeY, blockSize, new HashMap<>(), executor);
+				assertTrue(solver_2.solve(seed) == SolveOutcome.Solved);
+				assertTrue(solver_1.getGrid().equals(solver_2.getGrid()));
+			}
+		}
+		
+		/*
+		 *	Two tiles that can't be next to themselves, so the blocks solved apart rarely fit each other
+		 *	and have to be repaired until their regions cover the grid
+		 */
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B");
+		var coloringTileMap = new TileMap2D<>(new HashSet<>(List.of(A, B)));
+		for(var side : Side2D.values()) {
+			coloringTileMap.setAdjacents(A, side, new HashSet<>(List.of(B)));
+			coloringTileMap.setAdjacents(B, side, new HashSet<>(List.of(A)));
+		}
+		var compiledColoringTileMap = coloringTileMap.compile();
+		
+		for(var seed = 0L; seed < 20; seed++) {
+			var solver = new RegionSolver<String>(compiledColoringTileMap, 12, 12, 3);
+			assertTrue(solver.solve(seed) == SolveOutcome.Solved);
+			assertTrue(solver.getRepairs() > 0);
+			assertTrue(this.isValidGrid(compiledColoringTileMap, solver.getGrid()));
+		}
+
+		/*
+		 *	Regions that can't make any decision are all solved by the run of the whole grid, which has its own budget
+		 */
+		for(var seed = 0L; seed < 5; seed++) {
+			var solver = new RegionSolver<String>(tileMap, 20, 20, 5);
+			solver.setRegionBudget(SolveBudget.unlimited().withMaxDecisions(0));
+			assertTrue(solver.solve(seed) == SolveOutcome.Solved);
+			assertTrue(solver.getRepairs() > 0);
+			assertTrue(this.isValidGrid(tileMap, solver.getGrid()));
+		}
+
+		/*
+		 *	Two cells next to each other with the same tile have no solution, but the regions that can't be solved
+		 *	keep the tiles of the blocks solved around them
+		 */
+		var unsatisfiableEntropy = new HashMap<Integer[], Set<Tile<String>>>();
+		unsatisfiableEntropy.put(new Integer[] {0, 0}, Set.of(A));
+		unsatisfiableEntropy.put(new Integer[] {0, 1}, Set.of(A));
+		var unsatisfiableSolver = new RegionSolver<String>(compiledColoringTileMap, 12, 12, 3, unsatisfiableEntropy, null);
+		assertTrue(unsatisfiableSolver.solve(0) != SolveOutcome.Solved);
+		var unsatisfiableGrid = unsatisfiableSolver.getGrid();
+		assertTrue(unsatisfiableGrid.get(0).get(0) == null);
+		assertTrue(unsatisfiableGrid.get(11).get(11) != null);
+	}
+
+	@Test
+	public void testPatch() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTerrainTileMap().compile();
+		Tile<String> water = null;
+		for(var tile = 0; tile < tileMap.getTilesNumber(); tile++) {
+			if(tileMap.getTile(tile).getValue().equals("Water")) {
+				water = tileMap.getTile(tile);
+			}
+		}
+		
+		int gridSize = 30, indX = 10, indY = 12, sizeX = 6, sizeY = 8;
+		
+		for(var seed = 0L; seed < 20; seed++) {
+			var WFC = new EuclideanWFC2D<String>(tileMap, gridSize, gridSize);
+			assertTrue(WFC.run(seed));
+			var grid = WFC.getGrid();
+			
+			var constraints = new HashMap<Integer[], Set<Tile<String>>>();
+			constraints.put(new Integer[] {indX + 2, indY + 3}, Set.of(water));
+			assertTrue(WFC.patch(indX, indY, sizeX, sizeY, constraints) == SolveOutcome.Solved);
+			
+			var patchedGrid = WFC.getGrid();
+			assertTrue(this.isValidGrid(tileMap, patchedGrid));
+			assertTrue(patchedGrid.get(indX + 2).get(indY + 3) == water);
+			for(var cellX = 0; cellX < gridSize; cellX++) {
+				for(var cellY = 0; cellY < gridSize; cellY++) {
+					if(cellX < indX || cellX >= indX + sizeX || cellY < indY || cellY >= indY + sizeY) {
+						assertTrue(patchedGrid.get(cellX).get(cellY) == grid.get(cellX).get(cellY));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTileIndices() throws Exception {
+		
+		var tileMap = this.buildTerrainTileMap().compile();
+		
+		int gridSizeX = 30, gridSizeY = 40;
+		var file = Files.createTempFile("wfc4j", ".grids");
+		
+		try {
+			try(var writer = new GridWriter<String>(file, tileMap)) {
+				for(var seed = 0L; seed < 20; seed++) {
+					var WFC = new EuclideanWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+					var view = WFC.getTileView();
+					assertTrue(view.isReadOnly() && view.get(0) == -1);
+					assertTrue(WFC.run(seed));
+					assertTrue(view.get(0) != -1);
+					
+					var grid = WFC.getGrid();
+					var tileIndices = WFC.getTileIndices();
+					var shortTileIndices = WFC.getShortTileIndices();
+					var byteTileIndices = WFC.getByteTileIndices();
+					var compactTileIndices = (ByteBuffer) WFC.getCompactTileIndices();
+					for(var indX = 0; indX < gridSizeX; indX++) {
+						for(var indY = 0; indY < gridSizeY; indY++) {
+							var cell = indX * gridSizeY + indY;
+							assertTrue(tileIndices[cell] == tileMap.getTileId(grid.get(indX).get(indY)));
+							assertTrue(shortTileIndices[cell] == tileIndices[cell] && byteTileIndices[cell] == tileIndices[cell]);
+							assertTrue(compactTileIndices.get(cell) == tileIndices[cell]);
+							assertTrue(view.get(cell) == tileIndices[cell]);
+						}
+					}
+					writer.write(WFC);
+				}
+				assertTrue(writer.getGrids() == 20);
+			}
+			
+			try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				assertTrue(buffer.getInt() == GridWriter.MAGIC && buffer.getInt() == GridWriter.VERSION);
+				assertTrue(buffer.getInt() == tileMap.getTilesNumber() && buffer.getInt() == Byte.BYTES);
+				for(var tile = 0; tile < tileMap.getTilesNumber(); tile++) {
+					var value = new byte[buffer.getInt()];
+					buffer.get(value);
+					assertTrue(new String(value, StandardCharsets.UTF_8).equals(tileMap.getTile(tile).getValue()));
+				}
+				for(var seed = 0L; seed < 20; seed++) {
+					assertTrue(buffer.getInt() == 2 && buffer.getInt() == gridSizeX && buffer.getInt() == gridSizeY);
+					var WFC = new EuclideanWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+					WFC.run(seed);
+					for(var tileIndex : WFC.getByteTileIndices()) {
+						assertTrue(buffer.get() == tileIndex);
+					}
+				}
+				assertTrue(!buffer.hasRemaining());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testAddAdjacent() throws TileException, DimensionException {
+		
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B");
+		
+		var tileSet = new HashSet<Tile<String>>();
+		tileSet.add(A); tileSet.add(B);
+		
+		// Adding an adjacent tile changes the adjacents of the given tile, not the ones of the adjacent tile
+		var tileMap = new TileMap2D<>(tileSet);
+		tileMap.addAdjacent(A, Side2D.Right, B);
+		assertTrue(tileMap.getAdjacents(A, Side2D.Right) == 1L << tileMap.getTileSet().indexOf(B));
+		assertTrue(tileMap.getAdjacents(A, Side2D.Left) == 0);
+		assertTrue(tileMap.getAdjacents(B, Side2D.Right) == 0);
+		assertTrue(tileMap.getAdjacents(B, Side2D.Left) == 0);
+		
+		for(var index = 0; index < Long.SIZE; index++) {
+			tileSet.add(new Tile<>("C" + index));
+		}
+		
+		// Tilesets bigger than a word are only encoded by the adjacent words. The tileset has no order, so the adjacent
+		// tile is picked among the ones of the second word that are not A
+		var bigTileMap = new TileMap2D<>(tileSet);
+		var bigTileSet = bigTileMap.getTileSet();
+		var far = bigTileSet.subList(Long.SIZE, bigTileSet.size()).stream().filter(tile -> tile != A).findFirst().get();
+		bigTileMap.addAdjacent(A, Side2D.Right, far);
+		var adjacents = bigTileMap.getAdjacentWords(A, Side2D.Right);
+		assertTrue(adjacents.length == 2 && adjacents[0] == 0 && adjacents[1] == 1L << (bigTileSet.indexOf(far) - Long.SIZE));
+		assertTrue(Arrays.stream(bigTileMap.getAdjacentWords(far, Side2D.Right)).allMatch(word -> word == 0));
+		
+		var rejected = false;
+		try {
+			bigTileMap.getAdjacents(A, Side2D.Right);
+		} catch(TileException e) {
+			rejected = true;
+		}
+		assertTrue(rejected);
+	}
+
+	private TileMap2D<String> buildTerrainTileMap() throws TileException, DimensionException {
+		
+		/*
+		 *	Terrain levels, each one allowed next to itself and to the levels right above and below it,
+		 *	so the border of any chunk can be extended
+		 */
+		final var levels = new String[] {"Water", "Sand", "Grass"};
+		
+		var tiles = new ArrayList<Tile<String>>();
+		for(var level : levels) {
+			tiles.add(new Tile<>(level));
+		}
+		var tileMap = new TileMap2D<>(new HashSet<>(tiles));
+		for(var level = 0; level < levels.length; level++) {
+			var adjacents = new HashSet<Tile<String>>();
+			for(var adjacent = Math.max(0, level - 1); adjacent <= Math.min(levels.length - 1, level + 1); adjacent++) {
+				adjacents.add(tiles.get(adjacent));
+			}
+			for(var side : Side2D.values()) {
+				tileMap.setAdjacents(tiles.get(level), side, adjacents);
+			}
+		}
+		return tileMap;
+	}
+
+	private boolean isValidGrid(CompiledTileMap<String> tileMap, List<List<Tile<String>>> grid) throws TileException {
+		for(var indX = 0; indX < grid.size(); indX++) {
+			for(var indY = 0; indY < grid.get(indX).size(); indY++) {
+				var tile = tileMap.getTileId(grid.get(indX).get(indY));
+				if(
+					indY + 1 < grid.get(indX).size() &&
+					!tileMap.isAdjacent(tile, Side2D.Right.getValue(), tileMap.getTileId(grid.get(indX).get(indY + 1)))
+				) {
+					return false;
+				} else if(
+					indX + 1 < grid.size() &&
+					!tileMap.isAdjacent(tile, Side2D.Bottom.getValue(), tileMap.getTileId(grid.get(indX + 1).get(indY)))
+				) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
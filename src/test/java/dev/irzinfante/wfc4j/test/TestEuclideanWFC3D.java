@@ -0,0 +1,183 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package dev.irzinfante.wfc4j.test;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+import dev.irzinfante.wfc4j.api.EuclideanWFC3D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.enums.Side3D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.Tile;
+import dev.irzinfante.wfc4j.model.TileMap3D;
+
+public class TestEuclideanWFC3D {
+
+	@Test
+	public void testStringTile() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6, gridSizeZ = 6;
+		
+		for(var propagation : Propagation.values()) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var WFC = new EuclideanWFC3D<String>(tileMap, gridSizeX, gridSizeY, gridSizeZ);
+				WFC.setPropagation(propagation);
+				assertTrue(WFC.run(seed));
+				assertTrue(this.isValidGrid(tileMap, WFC.getGrid()));
+			}
+		}
+	}
+
+	@Test
+	public void testInitialEntropy() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTileMap().compile();
+		var stone = this.getTile(tileMap, "Stone");
+		var air = this.getTile(tileMap, "Air");
+		
+		int gridSizeX = 5, gridSizeY = 4, gridSizeZ = 3;
+		
+		var initialEntropy = new HashMap<Integer[], Set<Tile<String>>>();
+		initialEntropy.put(new Integer[] {0, 1, 2}, Set.of(air));
+		initialEntropy.put(new Integer[] {gridSizeX - 1, 3, 0}, Set.of(stone));
+		
+		for(var seed = 0L; seed < 20; seed++) {
+			var WFC = new EuclideanWFC3D<String>(tileMap, gridSizeX, gridSizeY, gridSizeZ, initialEntropy);
+			assertTrue(WFC.run(seed));
+			
+			var grid = WFC.getGrid();
+			assertTrue(this.isValidGrid(tileMap, grid));
+			assertTrue(grid.get(0).get(1).get(2) == air);
+			assertTrue(grid.get(gridSizeX - 1).get(3).get(0) == stone);
+			
+			var tileIndices = WFC.getTileIndices();
+			for(var indX = 0; indX < gridSizeX; indX++) {
+				for(var indY = 0; indY < gridSizeY; indY++) {
+					for(var indZ = 0; indZ < gridSizeZ; indZ++) {
+						var tile = tileIndices[(indX * gridSizeY + indY) * gridSizeZ + indZ];
+						assertTrue(tileMap.getTile(tile) == grid.get(indX).get(indY).get(indZ));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testGridSize() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		for(var gridSizes : new int[][] {{0, 4, 4}, {4, 4, -1}, {2048, 2048, 2048}}) {
+			var rejected = false;
+			try {
+				new EuclideanWFC3D<String>(tileMap, gridSizes[0], gridSizes[1], gridSizes[2]);
+			} catch(DimensionException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+		}
+	}
+
+	private TileMap3D<String> buildTileMap() throws TileException {
+		
+		/*
+		 *	Terrain layers along the X axis, the vertical one: air only on top of air or grass, grass on top of dirt,
+		 *	and dirt on top of dirt or stone. Horizontally, each layer is allowed next to itself and to the layers
+		 *	right above and below it
+		 */
+		final var layers = new String[] {"Air", "Grass", "Dirt", "Stone"};
+		
+		var tiles = new ArrayList<Tile<String>>();
+		for(var layer : layers) {
+			tiles.add(new Tile<>(layer));
+		}
+		var tileSet = new HashSet<>(tiles);
+		
+		var tileMap = new TileMap3D<>(tileSet);
+		
+		for(var layer = 0; layer < layers.length; layer++) {
+			var tile = tiles.get(layer);
+			var sideAdjacents = new HashSet<Tile<String>>();
+			var topAdjacents = new HashSet<Tile<String>>();
+			var bottomAdjacents = new HashSet<Tile<String>>();
+			for(var adjacent = 0; adjacent < layers.length; adjacent++) {
+				var adjacentTile = tiles.get(adjacent);
+				if(Math.abs(layer - adjacent) <= 1) {
+					sideAdjacents.add(adjacentTile);
+				}
+				var grass = layer == 1 || adjacent == 1;
+				if(adjacent == layer - 1 || (adjacent == layer && !grass)) {
+					topAdjacents.add(adjacentTile);
+				}
+				if(adjacent == layer + 1 || (adjacent == layer && !grass)) {
+					bottomAdjacents.add(adjacentTile);
+				}
+			}
+			
+			tileMap.setAdjacents(tile, Side3D.Left, sideAdjacents);
+			tileMap.setAdjacents(tile, Side3D.Right, sideAdjacents);
+			tileMap.setAdjacents(tile, Side3D.Front, sideAdjacents);
+			tileMap.setAdjacents(tile, Side3D.Back, sideAdjacents);
+			tileMap.setAdjacents(tile, Side3D.Top, topAdjacents);
+			tileMap.setAdjacents(tile, Side3D.Bottom, bottomAdjacents);
+		}
+		
+		return tileMap;
+	}
+
+	private Tile<String> getTile(CompiledTileMap<String> tileMap, String value) {
+		for(var tile = 0; tile < tileMap.getTilesNumber(); tile++) {
+			if(tileMap.getTile(tile).getValue().equals(value)) {
+				return tileMap.getTile(tile);
+			}
+		}
+		return null;
+	}
+
+	private boolean isValidGrid(CompiledTileMap<String> tileMap, List<List<List<Tile<String>>>> grid) throws TileException {
+		for(var indX = 0; indX < grid.size(); indX++) {
+			var layer = grid.get(indX);
+			for(var indY = 0; indY < layer.size(); indY++) {
+				var row = layer.get(indY);
+				for(var indZ = 0; indZ < row.size(); indZ++) {
+					var tile = tileMap.getTileId(row.get(indZ));
+					if(
+						(indY + 1 < layer.size() && !tileMap.isAdjacent(tile, Side3D.Right.getValue(), tileMap.getTileId(layer.get(indY + 1).get(indZ)))) ||
+						(indX + 1 < grid.size() && !tileMap.isAdjacent(tile, Side3D.Bottom.getValue(), tileMap.getTileId(grid.get(indX + 1).get(indY).get(indZ)))) ||
+						(indZ + 1 < row.size() && !tileMap.isAdjacent(tile, Side3D.Back.getValue(), tileMap.getTileId(row.get(indZ + 1))))
+					) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}
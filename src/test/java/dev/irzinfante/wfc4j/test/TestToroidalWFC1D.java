@@ -19,16 +19,27 @@
 package dev.irzinfante.wfc4j.test;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
 import org.junit.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
 
 import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
 import dev.irzinfante.wfc4j.exceptions.TileException;
+import dev.irzinfante.wfc4j.api.GridWriter;
 import dev.irzinfante.wfc4j.api.ToroidalWFC1D;
+import dev.irzinfante.wfc4j.enums.Propagation;
 import dev.irzinfante.wfc4j.enums.Side1D;
 import dev.irzinfante.wfc4j.model.Tile;
 import dev.irzinfante.wfc4j.model.TileMap1D;
@@ -87,4 +98,147 @@ public class TestToroidalWFC1D {
 			assertTrue(WFC_2.run());
 		}
 	}
+
+	@Test
+	public void testSmallThreadStack() throws Exception {
+		
+		var tileMap = this.buildTileMap();
+		var result = new AtomicBoolean(false);
+		var error = new AtomicReference<Throwable>();
+		
+		// A thread stack this small cannot hold one frame per cell, as the recursive search needed
+		var thread = new Thread(null, () -> {
+			try {
+				result.set(new ToroidalWFC1D<String>(tileMap, 2000).run());
+			} catch(Throwable e) {
+				error.set(e);
+			}
+		}, "wfc-small-stack", 64 * 1024);
+		thread.start();
+		thread.join();
+		
+		assertNull(error.get());
+		assertTrue(result.get());
+	}
+
+	@Test
+	public void testWideTileSet() throws TileException, DimensionException, IOException {
+		
+		/*
+		 *		Tile i allows on its right the tiles j such that j % 3 == (i + 1) % 3
+		 */
+		
+		var tilesNumber = 200;
+		var tiles = new ArrayList<Tile<Integer>>();
+		for(var i = 0; i < tilesNumber; i++) {
+			tiles.add(new Tile<>(i));
+		}
+		
+		var tileMap = new TileMap1D<>(new HashSet<>(tiles));
+		for(var tile : tiles) {
+			var adjacentLeft = new HashSet<Tile<Integer>>();
+			var adjacentRight = new HashSet<Tile<Integer>>();
+			for(var adjacent : tiles) {
+				if((adjacent.getValue() + 1) % 3 == tile.getValue() % 3) {
+					adjacentLeft.add(adjacent);
+				} else if((tile.getValue() + 1) % 3 == adjacent.getValue() % 3) {
+					adjacentRight.add(adjacent);
+				}
+			}
+			tileMap.setAdjacents(tile, Side1D.Left, adjacentLeft);
+			tileMap.setAdjacents(tile, Side1D.Right, adjacentRight);
+		}
+		
+		var gridSize = 51;
+		var entropy = new HashMap<Integer, Set<Tile<Integer>>>();
+		entropy.put(0, new HashSet<>(Arrays.asList(tiles.get(150))));
+
+		for(var propagation : Propagation.values()) {
+			for(var vectorized : new boolean[] {false, true}) {
+				for(var i = 0; i < 20; i++) {
+					var WFC = new ToroidalWFC1D<Integer>(tileMap, gridSize, entropy);
+					WFC.setPropagation(propagation);
+					WFC.setVectorized(vectorized);
+					assertTrue(WFC.run());
+					
+					var grid = WFC.getGrid();
+					assertTrue(grid.get(0) == tiles.get(150));
+					assertTrue(this.isValidGrid(grid));
+				}
+			}
+		}
+		
+		// The ids of the tiles don't fit in a byte, so they are written and copied as shorts
+		var WFC = new ToroidalWFC1D<Integer>(tileMap, gridSize, entropy);
+		assertTrue(WFC.run(0));
+		assertTrue(WFC.getTileMap().getIdBytes() == Short.BYTES);
+		var tileIndices = WFC.getTileIndices();
+		var compactTileIndices = (ShortBuffer) WFC.getCompactTileIndices();
+		var file = Files.createTempFile("wfc4j", ".grids");
+		try {
+			try(var writer = new GridWriter<Integer>(file, WFC.getTileMap())) {
+				writer.write(WFC);
+			}
+			var buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			assertTrue(buffer.getInt() == GridWriter.MAGIC && buffer.getInt() == GridWriter.VERSION);
+			assertTrue(buffer.getInt() == tilesNumber && buffer.getInt() == Short.BYTES);
+			for(var tile = 0; tile < tilesNumber; tile++) {
+				buffer.position(buffer.getInt() + buffer.position());
+			}
+			assertTrue(buffer.getInt() == 1 && buffer.getInt() == gridSize);
+			for(var tileIndex : tileIndices) {
+				assertTrue(buffer.getShort() == tileIndex && compactTileIndices.get() == tileIndex);
+			}
+			assertTrue(!buffer.hasRemaining());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private boolean isValidGrid(List<Tile<Integer>> grid) {
+		for(var index = 0; index < grid.size(); index++) {
+			var next = grid.get((index + 1) % grid.size());
+			if((grid.get(index).getValue() + 1) % 3 != next.getValue() % 3) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private TileMap1D<String> buildTileMap() throws TileException, DimensionException {
+		
+		/*
+		 *		AA | BA  <- AA ->  AA | AB		AA | BA  <- AB ->  BA | BB
+		 *		AB | BB  <- BA ->  AA | AB		AB | BB  <- BB ->  BA | BB
+		 */
+		
+		Tile<String> AA = new Tile<>("AA"), AB = new Tile<>("AB");
+		Tile<String> BA = new Tile<>("BA"), BB = new Tile<>("BB");
+		
+		var tileSet = new HashSet<Tile<String>>();
+		tileSet.add(AA); tileSet.add(AB);
+		tileSet.add(BA); tileSet.add(BB);
+		
+		var adjacentAABA = new HashSet<Tile<String>>();
+		adjacentAABA.add(AA); adjacentAABA.add(BA);
+		
+		var adjacentAAAB = new HashSet<Tile<String>>();
+		adjacentAAAB.add(AA); adjacentAAAB.add(AB);
+		
+		var adjacentBABB = new HashSet<Tile<String>>();
+		adjacentBABB.add(BA); adjacentBABB.add(BB);
+		
+		var adjacentABBB = new HashSet<Tile<String>>();
+		adjacentABBB.add(AB); adjacentABBB.add(BB);
+		
+		var tileMap = new TileMap1D<>(tileSet);
+		
+		tileMap.setAdjacents(AA, Side1D.Left, adjacentAABA); tileMap.setAdjacents(AA, Side1D.Right, adjacentAAAB);
+		tileMap.setAdjacents(AB, Side1D.Left, adjacentAABA); tileMap.setAdjacents(AB, Side1D.Right, adjacentBABB);
+		
+		tileMap.setAdjacents(BA, Side1D.Left, adjacentABBB); tileMap.setAdjacents(BA, Side1D.Right, adjacentAAAB);
+		tileMap.setAdjacents(BB, Side1D.Left, adjacentABBB); tileMap.setAdjacents(BB, Side1D.Right, adjacentBABB);
+		
+		return tileMap;
+	}
 }
\ No newline at end of file
@@ -21,13 +21,36 @@ package dev.irzinfante.wfc4j.test;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import dev.irzinfante.wfc4j.exceptions.DimensionException;
 import dev.irzinfante.wfc4j.exceptions.TileException;
 
+import dev.irzinfante.wfc4j.api.BatchGenerator;
+import dev.irzinfante.wfc4j.api.PortfolioSolver;
 import dev.irzinfante.wfc4j.api.ToroidalWFC2D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.enums.SearchLimit;
+import dev.irzinfante.wfc4j.enums.SolveOutcome;
 import dev.irzinfante.wfc4j.enums.Side2D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+import dev.irzinfante.wfc4j.model.SolveBudget;
 import dev.irzinfante.wfc4j.model.Tile;
 import dev.irzinfante.wfc4j.model.TileMap2D;
 
@@ -36,6 +59,504 @@ public class TestToroidalWFC2D {
 	@Test
 	public void testStringTile() throws TileException, DimensionException {
 		
+		var tileMap = this.buildTileMap();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		for(var i = 0; i < 20; i++) {
+			var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			assertTrue(WFC.run());
+		}
+	}
+
+	@Test
+	public void testAC3Propagation() throws Exception {
+		
+		this.forEachSolvedGrid(this.buildTileMap().compile(), List.of(Propagation.AC3), WFC -> {}, (propagation, seed, WFC) -> {});
+	}
+
+	@Test
+	public void testAC4Propagation() throws Exception {
+		
+		this.forEachSolvedGrid(this.buildTileMap().compile(), List.of(Propagation.AC4), WFC -> {}, (propagation, seed, WFC) -> {});
+	}
+
+	@Test
+	public void testCompiledTileMap() throws Exception {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		// Grids solved in parallel sharing the compiled tilemap are the ones solved one after another
+		var tasks = new ArrayList<Callable<List<List<Tile<String>>>>>();
+		for(var seed = 0L; seed < 20; seed++) {
+			var taskSeed = seed;
+			tasks.add(() -> {
+				var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+				WFC.setPropagation(Propagation.AC4);
+				return WFC.run(taskSeed) ? WFC.getGrid() : null;
+			});
+		}
+		
+		var executor = Executors.newFixedThreadPool(4);
+		try {
+			var grids = executor.invokeAll(tasks);
+			this.forEachSolvedGrid(tileMap, List.of(Propagation.AC4), WFC -> {}, (propagation, seed, WFC) -> {
+				assertTrue(WFC.getGrid().equals(grids.get((int) seed).get()));
+			});
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSeed() throws Exception {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		this.forEachSolvedGrid(tileMap, List.of(Propagation.values()), WFC -> {}, (propagation, seed, WFC_1) -> {
+			var WFC_2 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			WFC_2.setPropagation(propagation);
+			assertTrue(WFC_2.run(new SplittableRandom(seed)));
+			assertTrue(WFC_1.getGrid().equals(WFC_2.getGrid()));
+		});
+	}
+
+	@Test
+	public void testSearchPolicy() throws Exception {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		var policies = List.of(
+			SearchPolicy.noBacktracking().withMaxRestarts(Long.MAX_VALUE),
+			SearchPolicy.luby(1),
+			SearchPolicy.geometric(1, 1.5),
+			SearchPolicy.luby(4).withLimit(SearchLimit.Decisions)
+		);
+		for(var policy : policies) {
+			// Every attempt stops right after going over its limit, so the whole run stays within the limits of its attempts
+			this.forEachSolvedGrid(tileMap, List.of(Propagation.values()), WFC -> WFC.setSearchPolicy(policy), (propagation, seed, WFC) -> {
+				var limits = 0L;
+				for(var attempt = 0L; attempt <= WFC.getRestarts(); attempt++) {
+					limits += policy.getLimit(attempt) + 1;
+				}
+				var searched = policy.getLimit() == SearchLimit.Backtracks ? WFC.getBacktracks() : WFC.getDecisions();
+				assertTrue(WFC.getRestarts() <= policy.getMaxRestarts() && searched <= limits);
+			});
+		}
+		
+		var luby = SearchPolicy.luby(3);
+		var lubySequence = new long[] {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8};
+		for(var attempt = 0; attempt < lubySequence.length; attempt++) {
+			assertTrue(luby.getLimit(attempt) == 3 * lubySequence[attempt]);
+		}
+		
+		var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+		WFC.setSearchPolicy(SearchPolicy.noBacktracking());
+		WFC.setPropagation(Propagation.AC4);
+		WFC.run();
+		assertTrue(WFC.getBacktracks() <= 1 && WFC.getRestarts() == 0);
+	}
+
+	@Test
+	public void testBackjumping() throws Exception {
+		
+		for(var backjumping : new boolean[] {false, true}) {
+			this.forEachSolvedGrid(this.buildTileMap().compile(), List.of(Propagation.values()), WFC -> WFC.setBackjumping(backjumping), (propagation, seed, WFC) -> {});
+		}
+		
+		/*
+		 *	Tiles A and B alternate along the Y axis and can't fill a line of odd size, while tiles P and Q fill the rest of
+		 *	the grid whatever the tiles next to them. The decisions on P and Q have nothing to do with the conflicts of the
+		 *	line, so backjumping reverts them at once instead of trying their other tile first
+		 */
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B"), P = new Tile<>("P"), Q = new Tile<>("Q");
+		var lineTileMap = new TileMap2D<>(new HashSet<>(List.of(A, B, P, Q)));
+		for(var side : List.of(Side2D.Left, Side2D.Right)) {
+			lineTileMap.setAdjacents(A, side, new HashSet<>(List.of(B)));
+			lineTileMap.setAdjacents(B, side, new HashSet<>(List.of(A)));
+			lineTileMap.setAdjacents(P, side, new HashSet<>(List.of(P, Q)));
+			lineTileMap.setAdjacents(Q, side, new HashSet<>(List.of(P, Q)));
+		}
+		for(var side : List.of(Side2D.Bottom, Side2D.Top)) {
+			lineTileMap.setAdjacents(A, side, new HashSet<>(List.of(P, Q)));
+			lineTileMap.setAdjacents(B, side, new HashSet<>(List.of(P, Q)));
+			lineTileMap.setAdjacents(P, side, new HashSet<>(List.of(A, B, P, Q)));
+			lineTileMap.setAdjacents(Q, side, new HashSet<>(List.of(A, B, P, Q)));
+		}
+		var compiledLineTileMap = lineTileMap.compile();
+		
+		int gridSizeX = 3, gridSizeY = 5;
+		var initialEntropy = new HashMap<Integer[], Set<Tile<String>>>();
+		for(var indX = 0; indX < gridSizeX; indX++) {
+			for(var indY = 0; indY < gridSizeY; indY++) {
+				initialEntropy.put(new Integer[] {indX, indY}, indX == gridSizeX - 1 ? Set.of(A, B) : Set.of(P, Q));
+			}
+		}
+		
+		long backtracks = 0, backjumpingBacktracks = 0;
+		for(var propagation : Propagation.values()) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var WFC_1 = new ToroidalWFC2D<String>(compiledLineTileMap, gridSizeX, gridSizeY, initialEntropy);
+				WFC_1.setPropagation(propagation);
+				WFC_1.setBackjumping(false);
+				assertTrue(!WFC_1.run(seed));
+				
+				var WFC_2 = new ToroidalWFC2D<String>(compiledLineTileMap, gridSizeX, gridSizeY, initialEntropy);
+				WFC_2.setPropagation(propagation);
+				WFC_2.setBackjumping(true);
+				assertTrue(!WFC_2.run(seed));
+				assertTrue(WFC_2.getBacktracks() <= WFC_1.getBacktracks());
+				
+				backtracks += WFC_1.getBacktracks();
+				backjumpingBacktracks += WFC_2.getBacktracks();
+			}
+		}
+		assertTrue(backjumpingBacktracks < backtracks);
+	}
+
+	@Test
+	public void testSolveBudget() throws Exception {
+		
+		var uncompiledTileMap = this.buildTileMap();
+		var tileMap = uncompiledTileMap.compile();
+		uncompiledTileMap.setWeight(tileMap.getTile(0), 4);
+		var weightedTileMap = uncompiledTileMap.compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		// A run within its budget gives the grid of an unlimited run
+		this.forEachSolvedGrid(tileMap, List.of(Propagation.values()), WFC -> {}, (propagation, seed, WFC) -> {
+			var WFC_1 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			WFC_1.setPropagation(propagation);
+			assertTrue(WFC_1.solve(SolveBudget.timeout(Duration.ofMinutes(1)), new SplittableRandom(seed)) == SolveOutcome.Solved);
+			assertTrue(WFC_1.getGrid().equals(WFC.getGrid()));
+		});
+		
+		var stopped = 0;
+		for(var seed = 0L; seed < 20; seed++) {
+			var WFC_2 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			assertTrue(WFC_2.solve(SolveBudget.unlimited().withMaxDecisions(5)) == SolveOutcome.LimitReached);
+			assertTrue(WFC_2.getDecisions() == 5);
+			
+			// Solving again a grid whose run stopped while backtracking starts over and collapses every cell
+			for(var currentTileMap : List.of(tileMap, weightedTileMap)) {
+				var WFC_7 = new ToroidalWFC2D<String>(currentTileMap, gridSizeX, gridSizeY);
+				if(WFC_7.solve(SolveBudget.unlimited().withMaxBacktracks(0), new SplittableRandom(seed)) == SolveOutcome.LimitReached) {
+					stopped++;
+				}
+				assertTrue(WFC_7.solve(SolveBudget.unlimited(), new SplittableRandom(seed)) == SolveOutcome.Solved);
+				assertTrue(Arrays.stream(WFC_7.getTileIndices()).allMatch(tile -> tile >= 0));
+				assertTrue(this.isValidGrid(currentTileMap, WFC_7.getGrid()));
+			}
+		}
+		assertTrue(stopped > 0);
+
+		// A run with the same seed follows the unlimited one until it makes exactly the decisions or backtracks allowed
+		var limited = 0;
+		for(var backjumping : new boolean[] {false, true}) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var WFC_8 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+				WFC_8.setBackjumping(backjumping);
+				assertTrue(WFC_8.solve(SolveBudget.unlimited(), new SplittableRandom(seed)) == SolveOutcome.Solved);
+
+				for(var maxBacktracks = 0L; maxBacktracks <= WFC_8.getBacktracks(); maxBacktracks++) {
+					var WFC_9 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+					WFC_9.setBackjumping(backjumping);
+					var outcome = WFC_9.solve(SolveBudget.unlimited().withMaxBacktracks(maxBacktracks), new SplittableRandom(seed));
+					assertTrue(outcome == (maxBacktracks < WFC_8.getBacktracks() ? SolveOutcome.LimitReached : SolveOutcome.Solved));
+					assertTrue(WFC_9.getBacktracks() == maxBacktracks);
+					limited++;
+				}
+
+				var WFC_10 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+				WFC_10.setBackjumping(backjumping);
+				var maxDecisions = WFC_8.getDecisions() - 1;
+				assertTrue(WFC_10.solve(SolveBudget.unlimited().withMaxDecisions(maxDecisions), new SplittableRandom(seed)) == SolveOutcome.LimitReached);
+				assertTrue(WFC_10.getDecisions() == maxDecisions);
+			}
+		}
+		assertTrue(limited > 40);
+
+		var WFC_3 = new ToroidalWFC2D<String>(tileMap, 200, 200);
+		assertTrue(WFC_3.solve(SolveBudget.timeout(Duration.ofMillis(1))) == SolveOutcome.Timeout);
+		
+		var WFC_4 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+		WFC_4.cancel();
+		assertTrue(WFC_4.solve(SolveBudget.unlimited()) == SolveOutcome.Cancelled);
+		assertTrue(WFC_4.solve(SolveBudget.unlimited()) == SolveOutcome.Solved);
+		
+		var WFC_5 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+		Thread.currentThread().interrupt();
+		assertTrue(WFC_5.solve(SolveBudget.unlimited()) == SolveOutcome.Cancelled);
+		assertTrue(Thread.interrupted());
+		
+		var WFC_6 = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+		WFC_6.setSearchPolicy(SearchPolicy.noBacktracking());
+		assertTrue(WFC_6.solve(SolveBudget.unlimited().withMaxBacktracks(0)) != SolveOutcome.Unsatisfiable);
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+		
+		var tileMap = this.buildTileMap();
+		var compiledTileMap = tileMap.compile();
+		tileMap.setWeight(compiledTileMap.getTile(0), 4);
+		var compiledWeightedTileMap = tileMap.compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		var file = Files.createTempFile("wfc4j", ".checkpoint");
+		
+		try {
+			// Checkpoint of a stopped run, resumed by the same grid and by a new one into the grid of an unlimited run
+			var budgets = List.of(SolveBudget.unlimited().withMaxDecisions(10), SolveBudget.unlimited().withMaxBacktracks(2));
+			for(var currentTileMap : List.of(compiledTileMap, compiledWeightedTileMap)) {
+				this.forEachSolvedGrid(currentTileMap, List.of(Propagation.values()), WFC -> {}, (propagation, seed, WFC) -> {
+					for(var budget : budgets) {
+						var WFC_1 = new ToroidalWFC2D<String>(currentTileMap, gridSizeX, gridSizeY);
+						WFC_1.setPropagation(propagation);
+						if(WFC_1.solve(budget, new SplittableRandom(seed)) == SolveOutcome.Solved) {
+							continue;
+						}
+						WFC_1.checkpoint(file);
+						
+						var WFC_2 = new ToroidalWFC2D<String>(currentTileMap, gridSizeX, gridSizeY);
+						WFC_2.restore(file);
+						assertTrue(WFC_2.getPropagation() == propagation);
+						assertTrue(WFC_1.resume() == SolveOutcome.Solved);
+						assertTrue(WFC_2.resume() == SolveOutcome.Solved);
+						assertTrue(WFC_1.getGrid().equals(WFC.getGrid()) && WFC_2.getGrid().equals(WFC.getGrid()));
+						assertTrue(WFC_1.getBacktracks() == WFC_2.getBacktracks());
+					}
+				});
+			}
+			
+			// Checkpoints written by the run before every decision, the last one resumed by a new grid
+			var WFC_3 = new ToroidalWFC2D<String>(compiledWeightedTileMap, gridSizeX, gridSizeY);
+			WFC_3.setPropagation(Propagation.AC4);
+			WFC_3.setCheckpoint(file, Duration.ZERO);
+			assertTrue(WFC_3.run(0));
+			
+			var WFC_4 = new ToroidalWFC2D<String>(compiledWeightedTileMap, gridSizeX, gridSizeY);
+			WFC_4.restore(file);
+			assertTrue(WFC_4.getDecisions() == WFC_3.getDecisions() - 1);
+			assertTrue(WFC_4.resume() == SolveOutcome.Solved);
+			assertTrue(WFC_3.getGrid().equals(WFC_4.getGrid()));
+			
+			// Writing the checkpoints doesn't change the choices of the run
+			var WFC_5 = new ToroidalWFC2D<String>(compiledWeightedTileMap, gridSizeX, gridSizeY);
+			WFC_5.setPropagation(Propagation.AC4);
+			assertTrue(WFC_5.run(0));
+			assertTrue(WFC_3.getGrid().equals(WFC_5.getGrid()));
+			
+			// A checkpoint can't be restored by a grid of another size
+			var WFC_6 = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY + 1);
+			var rejected = false;
+			try {
+				WFC_6.restore(file);
+			} catch(DimensionException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+			
+			// Nor by a grid with as many cells but other dimensions
+			var WFC_7 = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+			var WFC_8 = new ToroidalWFC2D<String>(compiledTileMap, 4, 9);
+			assertTrue(WFC_7.solve(SolveBudget.unlimited().withMaxDecisions(5), new SplittableRandom(0)) == SolveOutcome.LimitReached);
+			WFC_7.checkpoint(file);
+			rejected = false;
+			try {
+				WFC_8.restore(file);
+			} catch(DimensionException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+			
+			// A truncated checkpoint is rejected before changing the state of the grid
+			var bytes = Files.readAllBytes(file);
+			Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+			var WFC_9 = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+			assertTrue(WFC_9.solve(SolveBudget.unlimited().withMaxDecisions(5), new SplittableRandom(0)) == SolveOutcome.LimitReached);
+			var twin = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+			assertTrue(twin.solve(SolveBudget.unlimited().withMaxDecisions(5), new SplittableRandom(0)) == SolveOutcome.LimitReached);
+			rejected = false;
+			try {
+				WFC_9.restore(file);
+			} catch(IOException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+			assertTrue(WFC_9.resume() == SolveOutcome.Solved);
+			assertTrue(this.isValidGrid(compiledTileMap, WFC_9.getGrid()));
+			assertTrue(twin.resume() == SolveOutcome.Solved);
+			assertTrue(WFC_9.getGrid().equals(twin.getGrid()));
+
+			/*
+			 *	Nor a checkpoint with one decision less than the levels of its trail: the decisions of a run stopped
+			 *	after 5 decisions without backtracking are the last 5 cells, 5 conflict levels and 5 words of tiles
+			 */
+			var WFC_10 = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+			var seed = -1L;
+			while(WFC_10.getDecisions() == 0 || WFC_10.getBacktracks() > 0) {
+				WFC_10 = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+				assertTrue(WFC_10.solve(SolveBudget.unlimited().withMaxDecisions(5), new SplittableRandom(++seed)) == SolveOutcome.LimitReached);
+			}
+			WFC_10.checkpoint(file);
+			bytes = Files.readAllBytes(file);
+			var decisionsOffset = bytes.length - Integer.BYTES - 5 * (2 * Integer.BYTES + Long.BYTES);
+			var decisionsBuffer = ByteBuffer.wrap(bytes, decisionsOffset, bytes.length - decisionsOffset);
+			assertTrue(decisionsBuffer.getInt() == 5);
+			var mismatched = ByteBuffer.allocate(bytes.length - 2 * Integer.BYTES - Long.BYTES);
+			mismatched.put(bytes, 0, decisionsOffset).putInt(4);
+			for(var bytesNumber : new int[] {Integer.BYTES, Integer.BYTES, Long.BYTES}) {
+				mismatched.put(bytes, decisionsBuffer.position(), 4 * bytesNumber);
+				decisionsBuffer.position(decisionsBuffer.position() + 5 * bytesNumber);
+			}
+			Files.write(file, mismatched.array());
+			twin = new ToroidalWFC2D<String>(compiledTileMap, gridSizeX, gridSizeY);
+			assertTrue(twin.solve(SolveBudget.unlimited().withMaxDecisions(5), new SplittableRandom(seed)) == SolveOutcome.LimitReached);
+			rejected = false;
+			try {
+				WFC_10.restore(file);
+			} catch(IOException e) {
+				rejected = true;
+			}
+			assertTrue(rejected);
+			assertTrue(WFC_10.resume() == SolveOutcome.Solved);
+			assertTrue(twin.resume() == SolveOutcome.Solved);
+			assertTrue(WFC_10.getGrid().equals(twin.getGrid()));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testPortfolioSolver() throws Exception {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		var portfolio = new PortfolioSolver<ToroidalWFC2D<String>>(index -> {
+			var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			WFC.setPropagation(Propagation.values()[index % Propagation.values().length]);
+			WFC.setSearchPolicy(SearchPolicy.luby(index + 1));
+			return WFC;
+		}, 4);
+		
+		for(var seed = 0L; seed < 20; seed++) {
+			var WFC = portfolio.solve(SolveBudget.unlimited(), seed);
+			assertTrue(WFC != null && this.isValidGrid(tileMap, WFC.getGrid()));
+		}
+		
+		Tile<String> A = new Tile<>("A"), B = new Tile<>("B");
+		var coloringTileMap = new TileMap2D<>(new HashSet<>(List.of(A, B)));
+		for(var side : Side2D.values()) {
+			coloringTileMap.setAdjacents(A, side, new HashSet<>(List.of(B)));
+			coloringTileMap.setAdjacents(B, side, new HashSet<>(List.of(A)));
+		}
+		var compiledColoringTileMap = coloringTileMap.compile();
+		
+		try(var executor = Executors.newFixedThreadPool(2)) {
+			var coloringPortfolio = new PortfolioSolver<ToroidalWFC2D<String>>(
+				index -> new ToroidalWFC2D<String>(compiledColoringTileMap, 3, 5), 4, executor
+			);
+			for(var seed = 0L; seed < 20; seed++) {
+				assertTrue(coloringPortfolio.solve(SolveBudget.unlimited(), seed) == null);
+			}
+		}
+	}
+
+	@Test
+	public void testBatchGenerator() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 6, gridSizeY = 6;
+		
+		var generator_1 = new BatchGenerator<ToroidalWFC2D<String>, List<List<Tile<String>>>>(
+			index -> new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY), WFC -> WFC.getGrid(), 4
+		);
+		var generator_2 = new BatchGenerator<ToroidalWFC2D<String>, List<List<Tile<String>>>>(
+			index -> new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY), WFC -> WFC.getGrid(), 1
+		);
+		var grids = generator_1.generate(100, 42);
+		assertTrue(grids.size() == 100);
+		assertTrue(grids.equals(generator_2.generate(100, 42)));
+		
+		var random = new SplittableRandom(42);
+		for(var grid : grids) {
+			assertTrue(grid != null && this.isValidGrid(tileMap, grid));
+			var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
+			assertTrue(WFC.run(random.nextLong()));
+			assertTrue(grid.equals(WFC.getGrid()));
+		}
+		
+		// The reused weighted index and support counters give the same grids as new solvers
+		var uncompiledTileMap = this.buildTileMap();
+		uncompiledTileMap.setWeight(uncompiledTileMap.getTileSet().get(0), 4);
+		var weightedTileMap = uncompiledTileMap.compile();
+		var generator_3 = new BatchGenerator<ToroidalWFC2D<String>, List<List<Tile<String>>>>(index -> {
+			var WFC = new ToroidalWFC2D<String>(weightedTileMap, gridSizeX, gridSizeY);
+			WFC.setPropagation(Propagation.AC4);
+			return WFC;
+		}, WFC -> WFC.getGrid(), 1);
+		random = new SplittableRandom(42);
+		for(var grid : generator_3.generate(20, 42)) {
+			var WFC = new ToroidalWFC2D<String>(weightedTileMap, gridSizeX, gridSizeY);
+			WFC.setPropagation(Propagation.AC4);
+			assertTrue(WFC.run(random.nextLong()));
+			assertTrue(grid.equals(WFC.getGrid()));
+		}
+		
+		var tile = tileMap.getTile(0);
+		var initialEntropy = new HashMap<Integer[], Set<Tile<String>>>();
+		initialEntropy.put(new Integer[] {2, 3}, Set.of(tile));
+		var generated = new AtomicInteger();
+		generator_1.generate(LongStream.range(0, 100).mapToObj(seed -> new BatchGenerator.Job<ToroidalWFC2D<String>>(
+			seed, WFC -> WFC.reset(initialEntropy)
+		)), (index, outcome, grid) -> {
+			if(outcome == SolveOutcome.Solved && grid.get(2).get(3).equals(tile)) {
+				generated.incrementAndGet();
+			}
+		});
+		assertTrue(generated.get() == 100);
+	}
+
+	/*
+	 *	Solves a grid for each of the first 20 seeds with each of the given propagations and the settings of the test,
+	 *	checking that every grid is solved and valid before the assertions of the test
+	 */
+	private void forEachSolvedGrid(
+		CompiledTileMap<String> tileMap,
+		List<Propagation> propagations,
+		Consumer<ToroidalWFC2D<String>> setup,
+		SolvedGridCheck check
+	) throws Exception {
+		for(var propagation : propagations) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var WFC = new ToroidalWFC2D<String>(tileMap, 6, 6);
+				WFC.setPropagation(propagation);
+				setup.accept(WFC);
+				assertTrue(WFC.run(seed));
+				assertTrue(this.isValidGrid(tileMap, WFC.getGrid()));
+				check.check(propagation, seed, WFC);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface SolvedGridCheck {
+		void check(Propagation propagation, long seed, ToroidalWFC2D<String> WFC) throws Exception;
+	}
+
+	private TileMap2D<String> buildTileMap() throws TileException, DimensionException {
+		
 		final String LR = "LR", LB = "LB", LT = "LT", RB = "RB", RT = "RT",   BT = "BT";
 		final var components = new String[] {LR, LB, LT, RB, RT, BT};
 		
@@ -113,11 +634,43 @@ public class TestToroidalWFC2D {
 			tileMap.setAdjacents(tile, Side2D.Top, topAdjacents);
 		}
 		
-		int gridSizeX = 6, gridSizeY = 6;
-		
-		for(var i = 0; i < 20; i++) {
-			var WFC = new ToroidalWFC2D<String>(tileMap, gridSizeX, gridSizeY);
-			assertTrue(WFC.run());
+		return tileMap;
+	}
+
+	private boolean isValidGrid(TileMap2D<String> tileMap, List<List<Tile<String>>> grid) throws TileException {
+		var tileSet = tileMap.getTileSet();
+		for(var indX = 0; indX < grid.size(); indX++) {
+			var row = grid.get(indX);
+			for(var indY = 0; indY < row.size(); indY++) {
+				var tile = row.get(indY);
+				var right = row.get((indY + 1) % row.size());
+				var bottom = grid.get((indX + 1) % grid.size()).get(indY);
+				if(
+					(tileMap.getAdjacentWords(tile, Side2D.Right)[0] & (1L << tileSet.indexOf(right))) == 0 ||
+					(tileMap.getAdjacentWords(tile, Side2D.Bottom)[0] & (1L << tileSet.indexOf(bottom))) == 0
+				) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean isValidGrid(CompiledTileMap<String> tileMap, List<List<Tile<String>>> grid) throws TileException {
+		for(var indX = 0; indX < grid.size(); indX++) {
+			var row = grid.get(indX);
+			for(var indY = 0; indY < row.size(); indY++) {
+				var tile = tileMap.getTileId(row.get(indY));
+				var right = tileMap.getTileId(row.get((indY + 1) % row.size()));
+				var bottom = tileMap.getTileId(grid.get((indX + 1) % grid.size()).get(indY));
+				if(
+					!tileMap.isAdjacent(tile, Side2D.Right.getValue(), right) ||
+					!tileMap.isAdjacent(tile, Side2D.Bottom.getValue(), bottom)
+				) {
+					return false;
+				}
+			}
 		}
+		return true;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/**
+ * Library to use the Wave Function Collapse strategy for procedural generation
+ * Copyright (C) 2023-2024 Iker Ruiz de Infante Gonzalez <iker@irzinfante.dev>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package dev.irzinfante.wfc4j.test;
+
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import dev.irzinfante.wfc4j.exceptions.DimensionException;
+import dev.irzinfante.wfc4j.exceptions.TileException;
+
+import dev.irzinfante.wfc4j.api.GridWriter;
+import dev.irzinfante.wfc4j.api.ToroidalWFC3D;
+import dev.irzinfante.wfc4j.enums.Propagation;
+import dev.irzinfante.wfc4j.enums.Side3D;
+import dev.irzinfante.wfc4j.model.CompiledTileMap;
+import dev.irzinfante.wfc4j.model.SearchPolicy;
+import dev.irzinfante.wfc4j.model.Tile;
+import dev.irzinfante.wfc4j.model.TileMap3D;
+
+public class TestToroidalWFC3D {
+
+	@Test
+	public void testStringTile() throws TileException, DimensionException {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 5, gridSizeY = 6, gridSizeZ = 7;
+		
+		for(var propagation : Propagation.values()) {
+			for(var seed = 0L; seed < 20; seed++) {
+				var WFC = new ToroidalWFC3D<String>(tileMap, gridSizeX, gridSizeY, gridSizeZ);
+				WFC.setPropagation(propagation);
+				WFC.setSearchPolicy(SearchPolicy.luby(16));
+				assertTrue(WFC.run(seed));
+				assertTrue(this.isValidGrid(tileMap, WFC.getGrid()));
+			}
+		}
+	}
+
+	@Test
+	public void testGridWriter() throws Exception {
+		
+		var tileMap = this.buildTileMap().compile();
+		
+		int gridSizeX = 8, gridSizeY = 4, gridSizeZ = 6;
+		var file = Files.createTempFile("wfc4j", ".grids");
+		
+		try {
+			try(var writer = new GridWriter<String>(file, tileMap)) {
+				for(var seed = 0L; seed < 20; seed++) {
+					var WFC = new ToroidalWFC3D<String>(tileMap, gridSizeX, gridSizeY, gridSizeZ);
+					WFC.setSearchPolicy(SearchPolicy.luby(16));
+					assertTrue(WFC.run(seed));
+					writer.write(WFC);
+				}
+			}
+			
+			try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				assertTrue(buffer.getInt() == GridWriter.MAGIC && buffer.getInt() == GridWriter.VERSION);
+				assertTrue(buffer.getInt() == tileMap.getTilesNumber() && buffer.getInt() == Byte.BYTES);
+				for(var tile = 0; tile < tileMap.getTilesNumber(); tile++) {
+					var length = buffer.getInt();
+					buffer.position(buffer.position() + length);
+				}
+				for(var seed = 0L; seed < 20; seed++) {
+					assertTrue(buffer.getInt() == 3);
+					assertTrue(buffer.getInt() == gridSizeX && buffer.getInt() == gridSizeY && buffer.getInt() == gridSizeZ);
+					var WFC = new ToroidalWFC3D<String>(tileMap, gridSizeX, gridSizeY, gridSizeZ);
+					WFC.setSearchPolicy(SearchPolicy.luby(16));
+					WFC.run(seed);
+					for(var tileIndex : WFC.getTileIndices()) {
+						assertTrue(buffer.get() == tileIndex);
+					}
+				}
+				assertTrue(!buffer.hasRemaining());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private TileMap3D<String> buildTileMap() throws TileException {
+		
+		/*
+		 *	Colors in a cycle, each one allowed next to itself and to the colors right before and after it on any face,
+		 *	so the borders of the grid can always be stitched. Since the colors of a loop around the grid can wind around
+		 *	the cycle, the search can get stuck deep in the grid, so restarts are used
+		 */
+		final var colors = new String[] {"Red", "Yellow", "Green", "Cyan", "Blue", "Magenta"};
+		
+		var tiles = new ArrayList<Tile<String>>();
+		for(var color : colors) {
+			tiles.add(new Tile<>(color));
+		}
+		var tileMap = new TileMap3D<>(new HashSet<>(tiles));
+		for(var color = 0; color < colors.length; color++) {
+			var adjacents = new HashSet<Tile<String>>();
+			adjacents.add(tiles.get((color + colors.length - 1) % colors.length));
+			adjacents.add(tiles.get(color));
+			adjacents.add(tiles.get((color + 1) % colors.length));
+			for(var side : Side3D.values()) {
+				tileMap.setAdjacents(tiles.get(color), side, adjacents);
+			}
+		}
+		
+		return tileMap;
+	}
+
+	private boolean isValidGrid(CompiledTileMap<String> tileMap, List<List<List<Tile<String>>>> grid) throws TileException {
+		for(var indX = 0; indX < grid.size(); indX++) {
+			var layer = grid.get(indX);
+			for(var indY = 0; indY < layer.size(); indY++) {
+				var row = layer.get(indY);
+				for(var indZ = 0; indZ < row.size(); indZ++) {
+					var tile = tileMap.getTileId(row.get(indZ));
+					var right = tileMap.getTileId(layer.get((indY + 1) % layer.size()).get(indZ));
+					var bottom = tileMap.getTileId(grid.get((indX + 1) % grid.size()).get(indY).get(indZ));
+					var back = tileMap.getTileId(row.get((indZ + 1) % row.size()));
+					if(
+						!tileMap.isAdjacent(tile, Side3D.Right.getValue(), right) ||
+						!tileMap.isAdjacent(tile, Side3D.Bottom.getValue(), bottom) ||
+						!tileMap.isAdjacent(tile, Side3D.Back.getValue(), back)
+					) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}